@@ -5,13 +5,20 @@ import cs3500.animator.model.AnimatorModel;
 import cs3500.animator.model.AnimatorModelImpl;
 import cs3500.animator.util.AnimationBuilder;
 import cs3500.animator.util.AnimationReader;
+import cs3500.animator.util.BinaryAnimationFormat;
+import cs3500.animator.util.ModelCache;
 import cs3500.animator.view.IView;
 import cs3500.animator.view.ViewFactory;
+import cs3500.animator.view.raster.ARasterView;
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Main class from which the animation is executed.
@@ -24,7 +31,22 @@ public final class Excellence {
    * arguments. If the speed is not specified the default is set to 1 tick per second. If an output
    * file is not specified the default is System.out. Formatted as follows: -in
    * "name-of-animation-file" -view "type-of-view" -out "where-output-show-go" -speed
-   * "integer-ticks-per-second". The ordering of the arguments is not important.
+   * "integer-ticks-per-second". The ordering of the arguments is not important. The optional
+   * argument -load "mmap" reads the input file by memory-mapping it rather than streaming it, which
+   * avoids copying the text of large animation files, and -load "parallel" also parses it on all
+   * available cores; the default is -load "stream". Input files ending in ".anim" are read in the
+   * compact binary format of {@link BinaryAnimationFormat} whatever the load mode, and if the
+   * output file ends in ".anim" the model is written to it in that format instead of being shown
+   * by the view, which converts a textual animation file into a binary one. The optional argument
+   * -cache "directory" keeps fully built models in that directory under the hash of the input file,
+   * so that loading the same file again skips parsing and building it, and -cachesize
+   * "megabytes" limits the size of the cache, 256 megabytes by default. The view type "png" draws
+   * every tick of the animation without a display and writes it as a numbered PNG file into the
+   * directory given by -out, the current directory by default, then reports the frame rate on
+   * standard error. The view type "gif" likewise writes the animation as one looping animated GIF
+   * to the file given by -out, or to standard output, showing each tick for 1 / speed seconds.
+   * Errors are shown in a pop-up window, except with these two views or without a display, when
+   * they are printed on standard error instead.
    *
    * @param args command line arguments passed into the program
    */
@@ -34,6 +56,9 @@ public final class Excellence {
     String viewType = "";
     String infile = "";
     String out = "";
+    String load = "stream";
+    String cacheDir = "";
+    long cacheSize = 256;
 
     int speed = 1;
     for (int i = 0; i < args.length; i += 2) {
@@ -53,33 +78,132 @@ public final class Excellence {
           // set speed
           speed = Integer.parseInt(args[i + 1]);
           break;
+        case "-load":
+          // set how the input file is read
+          load = args[i + 1];
+          break;
+        case "-cache":
+          // set the directory to cache built models in
+          cacheDir = args[i + 1];
+          break;
+        case "-cachesize":
+          // set the size limit of the cache in megabytes
+          cacheSize = Long.parseLong(args[i + 1]);
+          break;
         default:
-          IView.showErrorMessage("Invalid command line arguments!");
+          showError(viewType, "Invalid command line arguments!");
           System.exit(0);
       }
     }
     if (viewType.equals("")) {
-      IView.showErrorMessage("Must specify type of view!");
+      showError(viewType, "Must specify type of view!");
       System.exit(0);
     } else if (infile.equals("")) {
-      IView.showErrorMessage("Missing input file");
+      showError(viewType, "Missing input file");
       System.exit(0);
     } else {
       try {
         File f = new File(infile);
         String path = f.getAbsolutePath();
-        FileReader input = new FileReader(path);
-        model = AnimationReader.parseFile(input, builder);
+        ModelCache cache = null;
+        String key = null;
+        AnimatorModel cached = null;
+        if (!cacheDir.equals("")) {
+          cache = new ModelCache(new File(cacheDir), cacheSize * 1024 * 1024);
+          key = ModelCache.keyOf(f);
+          cached = cache.get(key);
+          System.err.println("Model cache " + (cached == null ? "miss" : "hit") + " (hits: "
+              + cache.getHits() + ", misses: " + cache.getMisses() + ")");
+        }
+        if (cached != null) {
+          model = cached;
+        } else {
+          model = loadModel(path, load, builder);
+          if (cache != null) {
+            cache.put(key, model);
+          }
+        }
       } catch (Exception e) {
-        IView.showErrorMessage(e.getLocalizedMessage());
+        showError(viewType, e.getLocalizedMessage());
         System.exit(0);
       }
     }
 
+    if (out.endsWith(BinaryAnimationFormat.EXTENSION)) {
+      try (OutputStream output = new BufferedOutputStream(new FileOutputStream(out))) {
+        BinaryAnimationFormat.write(model, output);
+      } catch (IOException e) {
+        showError(viewType, e.getLocalizedMessage());
+      }
+      return;
+    }
+
     IView view = generateView(out, viewType);
 
     AnimatorController controller = new AnimatorController(view, model, speed);
-    controller.run();
+    if (isRaster(viewType)) {
+      try {
+        controller.run();
+      } catch (IllegalStateException | IllegalArgumentException e) {
+        showError(viewType, e.getLocalizedMessage());
+        System.exit(0);
+      }
+    } else {
+      controller.run();
+    }
+  }
+
+  /**
+   * Determine whether the given view type draws frames to files without a display.
+   *
+   * @param viewType the type of view
+   * @return whether it is a raster view
+   */
+  private static boolean isRaster(String viewType) {
+    return viewType.equals("png") || viewType.equals("gif");
+  }
+
+  /**
+   * Show an error message in a pop-up window, or print it on standard error when there is no
+   * display or the view is one that runs without a display, such as on a render server.
+   *
+   * @param viewType the type of view, or "" if it is not known yet
+   * @param message  the error message
+   */
+  private static void showError(String viewType, String message) {
+    if (GraphicsEnvironment.isHeadless() || isRaster(viewType)) {
+      System.err.println("Error: " + message);
+    } else {
+      IView.showErrorMessage(message);
+    }
+  }
+
+  /**
+   * Load the model from the given animation file. Files with the binary extension are always read
+   * in the binary format; other files are read in the given load mode.
+   *
+   * @param path    the path of the animation file
+   * @param load    the load mode, one of "stream", "mmap" and "parallel"
+   * @param builder the builder to build the model with
+   * @return the model described by the file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the load mode is not supported
+   */
+  private static AnimatorModel loadModel(String path, String load,
+      AnimationBuilder<AnimatorModel> builder) throws IOException {
+    if (path.endsWith(BinaryAnimationFormat.EXTENSION)) {
+      return BinaryAnimationFormat.parseFile(new File(path), builder);
+    }
+    switch (load) {
+      case "stream":
+        return AnimationReader.parseFile(new FileReader(path), builder);
+      case "mmap":
+        return AnimationReader.parseFile(new File(path), builder);
+      case "parallel":
+        return AnimationReader.parseFileParallel(new File(path), builder);
+      default:
+        throw new IllegalArgumentException("Unsupported load mode " + load);
+    }
   }
 
   /**
@@ -97,13 +221,21 @@ public final class Excellence {
   private static IView generateView(String fileName, String viewType) {
     Appendable ap;
     IView view = null;
+    if (isRaster(viewType)) {
+      // raster views write files of their own rather than text
+      ARasterView<?> raster = (ARasterView<?>) ViewFactory.setView(viewType);
+      if (!fileName.equals("")) {
+        raster.setDestination(new File(fileName));
+      }
+      return raster;
+    }
     if (!fileName.equals("") && !viewType.equals("visual")) {
       try {
         ap = new BufferedWriter(new FileWriter(fileName, false));
         view = ViewFactory.setView(viewType);
         view.setOutput(ap);
       } catch (IOException e) {
-        IView.showErrorMessage(e.getLocalizedMessage());
+        showError(viewType, e.getLocalizedMessage());
         System.exit(0);
       }
     } else {
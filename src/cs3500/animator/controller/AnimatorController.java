@@ -1,6 +1,7 @@
 package cs3500.animator.controller;
 
 import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.CompiledScene;
 import cs3500.animator.model.frame.Frame;
 import cs3500.animator.model.frame.IFrame;
 import cs3500.animator.model.shape.IShape;
@@ -9,6 +10,7 @@ import cs3500.animator.model.shape.ShapeFactory;
 import cs3500.animator.view.IInteractiveView;
 import cs3500.animator.view.IView;
 import cs3500.animator.view.editor.EditorView;
+import cs3500.animator.view.raster.ARasterView;
 import cs3500.animator.view.visual.VisualView;
 import cs3500.animator.view.visual.draw.DrawCommand;
 import cs3500.animator.view.visual.draw.DrawEllipse;
@@ -39,6 +41,10 @@ public class AnimatorController implements IAnimatorController {
   private Timer timer;
   private boolean loops;
   private boolean isRunning;
+  // compiled shapes played back by a plain visual view, which cannot edit the model
+  private CompiledScene scene;
+  // whether the view draws the model's own draw list, so it need not be given the shapes each tick
+  private boolean drawsModel;
 
   /**
    * Construct a controller object with the given view, model and ticks per second.
@@ -60,6 +66,8 @@ public class AnimatorController implements IAnimatorController {
       configureButtonListener();
       ((EditorView) view).configureSlider(model.getLastTick(), new SliderChangeListener());
       ((IInteractiveView) view).updateLayerInterface(model.getShapesByLayer());
+      view.setDrawList(model.getDrawList());
+      this.drawsModel = true;
     }
     setTimer();
     this.counter = 0;
@@ -75,15 +83,24 @@ public class AnimatorController implements IAnimatorController {
     ActionListener timerListener = new ActionListener() {
       @Override
       public void actionPerformed(ActionEvent e) {
-        if (counter < model.getLastTick()) {
-          model.update(counter);
-          view.setShapes(model.getShapes());
-          ((EditorView) view).setSliderTick(counter);
+        int lastTick = model.getLastTick();
+        if (counter < lastTick) {
+          if (scene != null) {
+            scene.update(counter);
+          } else {
+            model.update(counter);
+            if (!drawsModel) {
+              view.setShapes(model.getShapes());
+            }
+          }
+          if (view instanceof EditorView) {
+            ((EditorView) view).setSliderTick(counter);
+          }
           view.displayOutput();
           counter++;
         }
         if (loops) {
-          if (counter >= model.getLastTick()) {
+          if (counter >= lastTick) {
             counter = 0;
             timer.restart();
           }
@@ -107,7 +124,13 @@ public class AnimatorController implements IAnimatorController {
     }
 
     if (view instanceof VisualView) {
+      this.scene = new CompiledScene(model);
+      ((VisualView) view).setScene(scene);
       timer.start();
+    } else if (view instanceof ARasterView) {
+      // raster views draw every tick themselves, from a scene of their own
+      ((ARasterView<?>) view).setScene(new CompiledScene(model), model.getLastTick(), speed);
+      view.displayOutput();
     } else {
       view.setShapes(model.getShapes());
       view.displayOutput();
@@ -263,6 +286,43 @@ public class AnimatorController implements IAnimatorController {
       view.resetFocus();
     });
 
+    buttonClickedMap.put("Undo", () -> {
+      try {
+        model.undo();
+        view.setShapes(model.getShapes());
+        ((IInteractiveView) view).updateLayerInterface(model.getShapesByLayer());
+        view.displayOutput();
+      } catch (Exception e) {
+        IView.showErrorMessage(e.getMessage());
+      }
+      view.resetFocus();
+    });
+
+    buttonClickedMap.put("Redo", () -> {
+      try {
+        model.redo();
+        view.setShapes(model.getShapes());
+        ((IInteractiveView) view).updateLayerInterface(model.getShapesByLayer());
+        view.displayOutput();
+      } catch (Exception e) {
+        IView.showErrorMessage(e.getMessage());
+      }
+      view.resetFocus();
+    });
+
+    buttonClickedMap.put("Select shape", () -> {
+      Scanner in = new Scanner(((IInteractiveView) view).getCommand("Select shape"));
+      // the view draws the shapes offset by the corner of the bounds of the model
+      int[] bounds = model.getBounds();
+      IShape selected = model.shapeAt(bounds[0] + Double.parseDouble(in.next()),
+          bounds[1] + Double.parseDouble(in.next()));
+      if (selected != null) {
+        ((IInteractiveView) view).selectShape(selected.getName());
+        ((IInteractiveView) view).populateTextFields(selected);
+      }
+      view.resetFocus();
+    });
+
     buttonClickedMap.put("Change Layer", () -> {
       try {
         Scanner in = new Scanner(((IInteractiveView) view).getCommand("Change layer"));
@@ -333,7 +393,9 @@ public class AnimatorController implements IAnimatorController {
       }
       counter = slider.getValue();
       model.update(counter);
-      view.setShapes(model.getShapes());
+      if (!drawsModel) {
+        view.setShapes(model.getShapes());
+      }
       view.displayOutput();
     }
   }
@@ -3,6 +3,7 @@ package cs3500.animator.model;
 import cs3500.animator.model.frame.IFrame;
 import cs3500.animator.model.motion.Motion;
 import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.ShapeState;
 import java.util.List;
 import java.util.Map;
 
@@ -52,6 +53,62 @@ public interface AnimatorModel {
    */
   Map<String, IShape> getShapes();
 
+  /**
+   * Get the shapes of the model in the order they are drawn: by layer, and within a layer in the
+   * order they were put on it. Unlike {@link #getShapes()} the list is not a copy; the model keeps
+   * it in order as shapes are added, removed and moved between layers, and its shapes are the ones
+   * the model updates, so a renderer can keep the list and draw it as it is on every frame. The
+   * list cannot be changed, and its shapes must only be changed through the model.
+   *
+   * @return the shapes in the order they are drawn
+   */
+  List<IShape> getDrawList();
+
+  /**
+   * Evaluate every shape in the model at t = ticks, as by {@link IShape#evaluate(int, ShapeState)},
+   * without changing or copying any shape. The states are given in the same order as the shapes of
+   * {@link #getShapes()}. If the given buffer has exactly one element per shape, the states in it
+   * are filled in and it is returned, so that a caller that passes the result back in on each frame
+   * allocates nothing once the number of shapes stops changing; otherwise a new array is returned
+   * that reuses the states in the buffer.
+   *
+   * @param ticks  the ticks since the animation started
+   * @param buffer the states to reuse, or null
+   * @return the states of the shapes
+   */
+  ShapeState[] evaluateAll(int ticks, ShapeState[] buffer);
+
+  /**
+   * Find the visible shape drawn on top at the given point in the current state of the model, as
+   * set by {@link #update(int)}. A shape covers the box of its width and height at its position,
+   * rotated by its heading about the center of the box, which is the box it is drawn in. Of the
+   * shapes covering the point, the one drawn last is on top: the one on the highest layer, and of
+   * those the last in the order of {@link #getShapes()}.
+   *
+   * @param x the x coordinate of the point
+   * @param y the y coordinate of the point
+   * @return a copy of the shape on top at that point, or null if no visible shape covers it
+   */
+  IShape shapeAt(double x, double y);
+
+  /**
+   * Find the shapes that might cover part of the given rectangle at some tick from t1 to t2, as
+   * by {@link IShape#mayIntersect(double, double, double, double, int, int)}, without evaluating
+   * any shape. A shape that is left out is certainly not drawn in the rectangle at any tick of the
+   * span, so a renderer or exporter of that rectangle can skip it for the whole span.
+   *
+   * @param x      the x coordinate of the top left corner of the rectangle
+   * @param y      the y coordinate of the top left corner of the rectangle
+   * @param width  the width of the rectangle
+   * @param height the height of the rectangle
+   * @param t1     the first tick of the span, inclusive
+   * @param t2     the last tick of the span, inclusive
+   * @return the names of the shapes, in the order of {@link #getShapes()}
+   * @throws IllegalArgumentException if t1 is after t2
+   */
+  List<String> shapesDuring(double x, double y, double width, double height, int t1, int t2)
+      throws IllegalArgumentException;
+
   /**
    * Adds all of the {@link Motion}s for the animation to the model in chronological order by
    * sorting the motions, ensuring they are valid (consistent and non overlapping) and then adding
@@ -107,12 +164,22 @@ public interface AnimatorModel {
   void removeMotion(Motion m);
 
   /**
-   * Get the final tick of this animation - when it "ends".
+   * Get the final tick of this animation - when it "ends". The model keeps this up to date as its
+   * shapes change, so reading it takes constant time.
    *
-   * @return the last tick in this animation where shapes have specified motions.
+   * @return the last tick in this animation where shapes have specified motions, or 0 if there are
+   *         no shapes.
    */
   int getLastTick();
 
+  /**
+   * Get the first tick of this animation, when the first shape appears. The model keeps this up to
+   * date as its shapes change, so reading it takes constant time.
+   *
+   * @return the first tick at which any shape has a keyframe, or 0 if no shape has one.
+   */
+  int getFirstTick();
+
   /**
    * Add a keyframe to the model by adding it to its shape's list of keyframes.
    *
@@ -172,4 +239,35 @@ public interface AnimatorModel {
    * @throws IllegalArgumentException if layer is negative
    */
   void changeShapeLayer(String name, int layer);
+
+  /**
+   * Determine whether there is an edit to undo. Adding, removing or changing shapes, their
+   * motions, keyframes or layers are edits; playing the animation is not.
+   *
+   * @return whether {@link #undo()} can be called
+   */
+  boolean canUndo();
+
+  /**
+   * Determine whether there is an undone edit to redo. Undone edits can be redone until another
+   * edit is made.
+   *
+   * @return whether {@link #redo()} can be called
+   */
+  boolean canRedo();
+
+  /**
+   * Undo the last edit that has not been undone, putting the shapes it changed and the number of
+   * layers back as they were before it.
+   *
+   * @throws IllegalStateException if there is nothing to undo
+   */
+  void undo() throws IllegalStateException;
+
+  /**
+   * Redo the last edit that was undone.
+   *
+   * @throws IllegalStateException if there is nothing to redo
+   */
+  void redo() throws IllegalStateException;
 }
@@ -2,22 +2,37 @@ package cs3500.animator.model;
 
 import cs3500.animator.model.frame.Frame;
 import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.motion.ChangeSizeMotion;
+import cs3500.animator.model.motion.ColorMotion;
 import cs3500.animator.model.motion.Motion;
 import cs3500.animator.model.motion.MotionFactory;
+import cs3500.animator.model.motion.MoveMotion;
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.model.shape.Position2D;
+import cs3500.animator.model.shape.ShapeBounds;
 import cs3500.animator.model.shape.ShapeFactory;
+import cs3500.animator.model.shape.ShapeState;
 import cs3500.animator.util.AnimationBuilder;
 import java.awt.Color;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class for the implementation of an AnimatorModel. The model holds a list of shapes for the
@@ -29,12 +44,40 @@ import java.util.stream.Collectors;
  * time on any one shape. Each shape has a unique name. the model if the shape it belongs to does
  * not exist in the model. Motions of the same type cannot overlap in time on any shape.
  */
-public class AnimatorModelImpl implements AnimatorModel {
+public class AnimatorModelImpl implements AnimatorModel, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  // the default smallest number of shapes to update in parallel
+  private static final int PARALLEL_THRESHOLD = 10000;
 
   private final Map<String, IShape> shapes;
   // bounds of the display in order: x, y, width, height
   private final int[] bounds;
   private List<Map<String, IShape>> shapesByLayer;
+  // id to give the next shape added; ids are not reused, so undone edits can give theirs back
+  private transient int nextId;
+  // the shapes in the order they are drawn, kept up to date with each change to the layers
+  private transient DrawList drawList;
+  // shapes to touch on each update, rebuilt after any change to the shapes or their keyframes
+  private transient UpdateSchedule schedule;
+  // grid of the bounding boxes of the shapes by id, built by the first hit test, the shapes by id,
+  // and the ids of the shapes that may have moved since the grid was last brought up to date
+  private transient SpatialGrid index;
+  private transient IShape[] indexed;
+  private transient BitSet moved;
+  // multisets of the start and end times of the shapes, as counts by time, and their extremes
+  private transient TreeMap<Integer, Integer> startTimes;
+  private transient TreeMap<Integer, Integer> endTimes;
+  private transient int firstTick;
+  private transient int lastTick;
+  // where and from how many shapes on to update shapes in parallel
+  private transient ForkJoinPool pool;
+  private transient int parallelThreshold;
+  // edits that can be undone and edits that have been undone, most recent first
+  private transient Deque<Edit> undoStack;
+  private transient Deque<Edit> redoStack;
+  // whether an edit is being made, so that the edits it is made of are not recorded separately
+  private transient boolean editing;
 
   /**
    * Create a new {@link AnimatorModelImpl} with the default screen width, height, x and y.
@@ -57,6 +100,13 @@ public class AnimatorModelImpl implements AnimatorModel {
       this.bounds = new int[]{x, y, width, height};
       this.shapes = new LinkedHashMap<>();
       this.shapesByLayer = new ArrayList<>();
+      this.drawList = new DrawList();
+      this.startTimes = new TreeMap<>();
+      this.endTimes = new TreeMap<>();
+      this.pool = ForkJoinPool.commonPool();
+      this.parallelThreshold = PARALLEL_THRESHOLD;
+      this.undoStack = new ArrayDeque<>();
+      this.redoStack = new ArrayDeque<>();
     } else {
       throw new IllegalArgumentException("Cannot have negative dimensions!");
     }
@@ -99,120 +149,476 @@ public class AnimatorModelImpl implements AnimatorModel {
     return newList;
   }
 
+  /**
+   * Get the names of the shapes on each layer, as {@link #getShapesByLayer()} would list them,
+   * without copying any shapes.
+   *
+   * @return a new list of the names on each layer
+   */
+  List<List<String>> getLayerNames() {
+    List<List<String>> names = new ArrayList<>(shapesByLayer.size());
+    for (Map<String, IShape> layer : shapesByLayer) {
+      names.add(new ArrayList<>(layer.keySet()));
+    }
+    return names;
+  }
+
   @Override
   public void addShapeToLayer(String s, int layer) {
-    if (!(shapes.containsKey(s))) {
-      throw new IllegalArgumentException("Shape doesn't exist!");
-    }
-    IShape shape = shapes.get(s);
-    shape.setLayer(layer);
-    addToLayer(layer, shape, shapesByLayer);
+    edit(Collections.singletonList(s), () -> {
+      if (!(shapes.containsKey(s))) {
+        throw new IllegalArgumentException("Shape doesn't exist!");
+      }
+      IShape shape = shapes.get(s);
+      shape.setLayer(layer);
+      addToLayer(layer, shape, shapesByLayer);
+      drawList.rebuild(shapesByLayer, shapes);
+    });
   }
 
   @Override
   public void deleteLayer(int layer) {
-    List<String> shapesToRemove = new ArrayList<>();
-    for (String s : shapesByLayer.get(layer).keySet()) {
-      shapesToRemove.add(s);
-    }
-    for (String s : shapesToRemove) {
-      removeShape(s);
-    }
+    edit(namesOnLayers(layer), () -> {
+      List<String> shapesToRemove = new ArrayList<>();
+      for (String s : shapesByLayer.get(layer).keySet()) {
+        shapesToRemove.add(s);
+      }
+      for (String s : shapesToRemove) {
+        removeShape(s);
+      }
+    });
   }
 
   @Override
   public void addLayer(int layer) {
-    //if the layer doesn't exist
-    if (shapesByLayer.size() <= layer) {
-      // create a new layer
-      for (int i = shapesByLayer.size(); i <= layer; i++) {
-        Map<String, IShape> newLayerMap = new LinkedHashMap<>();
-        shapesByLayer.add(i, newLayerMap);
+    edit(Collections.emptyList(), () -> {
+      //if the layer doesn't exist
+      if (shapesByLayer.size() <= layer) {
+        // create a new layer
+        for (int i = shapesByLayer.size(); i <= layer; i++) {
+          Map<String, IShape> newLayerMap = new LinkedHashMap<>();
+          shapesByLayer.add(i, newLayerMap);
+        }
       }
-    }
+    });
   }
 
   @Override
   public void reorder(int layer1, int layer2) {
-    for (IShape s : shapesByLayer.get(layer1).values()) {
-      s.setLayer(layer2);
-    }
-    for (IShape s : shapesByLayer.get(layer2).values()) {
-      s.setLayer(layer1);
-    }
-    Collections.swap(shapesByLayer, layer1, layer2);
+    edit(namesOnLayers(layer1, layer2), () -> {
+      for (IShape s : shapesByLayer.get(layer1).values()) {
+        s.setLayer(layer2);
+      }
+      for (IShape s : shapesByLayer.get(layer2).values()) {
+        s.setLayer(layer1);
+      }
+      Collections.swap(shapesByLayer, layer1, layer2);
+      drawList.swapLayers(layer1, layer2);
+    });
   }
 
   @Override
   public void changeShapeLayer(String name, int layer) {
-    if (layer < 0) {
-      throw new IllegalArgumentException("Layer must be non-negative!");
-    }
-    if (layer >= shapesByLayer.size()) {
-      for (int i = shapesByLayer.size(); i <= layer; i++) {
-        addLayer(i);
+    edit(Collections.singletonList(name), () -> {
+      if (layer < 0) {
+        throw new IllegalArgumentException("Layer must be non-negative!");
       }
-    }
-    if (this.shapes.containsKey(name)) {
-      int oldLayer = shapes.get(name).getLayer();
-      shapesByLayer.get(oldLayer).remove(name);
-      shapes.get(name).setLayer(layer);
-      shapesByLayer.get(layer).put(name, shapes.get(name));
-    } else {
-      throw new IllegalArgumentException("Cannot find shape " + name + " in the model!");
-    }
+      if (layer >= shapesByLayer.size()) {
+        for (int i = shapesByLayer.size(); i <= layer; i++) {
+          addLayer(i);
+        }
+      }
+      if (this.shapes.containsKey(name)) {
+        int oldLayer = shapes.get(name).getLayer();
+        shapesByLayer.get(oldLayer).remove(name);
+        drawList.removeFromLayer(name, oldLayer);
+        shapes.get(name).setLayer(layer);
+        shapesByLayer.get(layer).put(name, shapes.get(name));
+        drawList.addToLayer(shapes.get(name));
+      } else {
+        throw new IllegalArgumentException("Cannot find shape " + name + " in the model!");
+      }
+    });
   }
 
   @Override
   public void setKeyFrames(Map<String, List<IFrame>> keyFrames) {
-    for (String s : keyFrames.keySet()) {
-      if (this.shapes.containsKey(s)) {
-        IShape shape = shapes.get(s);
-        shape.setKeyFrames(keyFrames.get(s));
-      } else {
-        throw new IllegalArgumentException("Shape hasn't been added to model yet!");
+    edit(keyFrames.keySet(), () -> {
+      for (String s : keyFrames.keySet()) {
+        if (this.shapes.containsKey(s)) {
+          IShape shape = shapes.get(s);
+          untrack(shape);
+          try {
+            shape.setKeyFrames(keyFrames.get(s));
+          } finally {
+            track(shape);
+          }
+          this.schedule = null;
+          this.index = null;
+        } else {
+          throw new IllegalArgumentException("Shape hasn't been added to model yet!");
+        }
       }
-    }
+    });
   }
 
   @Override
   public void removeShape(String name) {
-    if (this.shapes.containsKey(name)) {
-      this.shapesByLayer.get(shapes.get(name).getLayer()).remove(name);
-      this.shapes.remove(name);
-    } else {
-      throw new IllegalArgumentException(String.format("Shape %s doesn't exist!", name));
-    }
+    edit(Collections.singletonList(name), () -> {
+      if (this.shapes.containsKey(name)) {
+        this.shapesByLayer.get(shapes.get(name).getLayer()).remove(name);
+        drawList.removeFromLayer(name, shapes.get(name).getLayer());
+        untrack(shapes.remove(name));
+        this.schedule = null;
+        this.index = null;
+      } else {
+        throw new IllegalArgumentException(String.format("Shape %s doesn't exist!", name));
+      }
+    });
   }
 
   @Override
   public void removeMotion(Motion m) {
-    if (this.shapes.containsKey(m.getId())) {
-      this.shapes.get(m.getId()).removeMotion(m);
-    } else {
-      throw new IllegalArgumentException("Shape for this motion doesn't exist!");
+    edit(Collections.singletonList(m.getId()), () -> {
+      if (this.shapes.containsKey(m.getId())) {
+        IShape s = this.shapes.get(m.getId());
+        untrack(s);
+        try {
+          s.removeMotion(m);
+        } finally {
+          track(s);
+        }
+        this.schedule = null;
+        this.index = null;
+      } else {
+        throw new IllegalArgumentException("Shape for this motion doesn't exist!");
+      }
+    });
+  }
+
+  @Override
+  public boolean canUndo() {
+    return !undoStack.isEmpty();
+  }
+
+  @Override
+  public boolean canRedo() {
+    return !redoStack.isEmpty();
+  }
+
+  @Override
+  public void undo() {
+    if (undoStack.isEmpty()) {
+      throw new IllegalStateException("There is nothing to undo!");
+    }
+    Edit edit = undoStack.pop();
+    redoStack.push(capture(edit.images.keySet()));
+    restore(edit);
+  }
+
+  @Override
+  public void redo() {
+    if (redoStack.isEmpty()) {
+      throw new IllegalStateException("There is nothing to redo!");
+    }
+    Edit edit = redoStack.pop();
+    undoStack.push(capture(edit.images.keySet()));
+    restore(edit);
+  }
+
+  /**
+   * Make an edit that can be undone, recording the shapes with the given names as they are before
+   * it. An edit made as part of another is recorded with that one. If the edit fails nothing is
+   * recorded.
+   *
+   * @param names  the names of every shape the edit may add, remove or change
+   * @param change the edit
+   */
+  private void edit(Collection<String> names, Runnable change) {
+    if (editing) {
+      change.run();
+      return;
+    }
+    Edit before = capture(names);
+    this.editing = true;
+    try {
+      change.run();
+    } finally {
+      this.editing = false;
+    }
+    undoStack.push(before);
+    redoStack.clear();
+  }
+
+  /**
+   * Record the shapes with the given names as they are now. Copies of shapes share their
+   * keyframes and motions with the shapes they were copied from until either is edited, so a
+   * record takes memory in proportion to the number of shapes in it and not to their motions.
+   *
+   * @param names the names of the shapes
+   * @return the record
+   */
+  private Edit capture(Collection<String> names) {
+    Map<String, IShape> images = new HashMap<>();
+    for (String name : names) {
+      IShape s = shapes.get(name);
+      images.put(name, s == null ? null : s.copy());
+    }
+    Map<String, Integer> positions = positionsOf(shapes, images.keySet());
+    Map<String, Integer> layerPositions = new HashMap<>();
+    for (Map<String, IShape> layer : shapesByLayer) {
+      layerPositions.putAll(positionsOf(layer, images.keySet()));
+    }
+    return new Edit(images, positions, layerPositions, shapesByLayer.size());
+  }
+
+  /**
+   * Find where the given names are in the order of the given map.
+   *
+   * @param map   the map
+   * @param names the names to look for
+   * @return the positions of the names that are in the map
+   */
+  private static Map<String, Integer> positionsOf(Map<String, IShape> map,
+      Collection<String> names) {
+    Map<String, Integer> positions = new HashMap<>();
+    int i = 0;
+    for (String name : map.keySet()) {
+      if (names.contains(name)) {
+        positions.put(name, i);
+      }
+      i++;
+    }
+    return positions;
+  }
+
+  /**
+   * Put the given shapes back into a map at the positions they were at, keeping the order of the
+   * rest of the map.
+   *
+   * @param map       the map, which must not contain any of the names
+   * @param names     the names of the shapes to put back
+   * @param positions the positions of the shapes in the map by name
+   * @param images    the shapes by name
+   */
+  private static void putBack(Map<String, IShape> map, List<String> names,
+      Map<String, Integer> positions, Map<String, IShape> images) {
+    List<Map.Entry<String, IShape>> entries = new ArrayList<>(map.entrySet());
+    names.sort(Comparator.comparingInt(name -> positions.getOrDefault(name, Integer.MAX_VALUE)));
+    for (String name : names) {
+      entries.add(Math.min(positions.getOrDefault(name, Integer.MAX_VALUE), entries.size()),
+          new AbstractMap.SimpleEntry<>(name, images.get(name)));
+    }
+    map.clear();
+    for (Map.Entry<String, IShape> entry : entries) {
+      map.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Put the shapes recorded in the given record back as they were, removing those that did not
+   * exist then, and the layers back to how many there were.
+   *
+   * @param edit the record
+   */
+  private void restore(Edit edit) {
+    for (String name : edit.images.keySet()) {
+      IShape s = shapes.remove(name);
+      if (s != null) {
+        untrack(s);
+      }
+    }
+    for (Map<String, IShape> layer : shapesByLayer) {
+      layer.keySet().removeAll(edit.images.keySet());
+    }
+    putBack(shapes, new ArrayList<>(edit.positions.keySet()), edit.positions, edit.images);
+    while (shapesByLayer.size() > edit.layers
+        && shapesByLayer.get(shapesByLayer.size() - 1).isEmpty()) {
+      shapesByLayer.remove(shapesByLayer.size() - 1);
+    }
+    while (shapesByLayer.size() < edit.layers) {
+      shapesByLayer.add(new LinkedHashMap<>());
+    }
+    Map<Integer, List<String>> byLayer = new HashMap<>();
+    for (String name : edit.positions.keySet()) {
+      IShape s = edit.images.get(name);
+      while (shapesByLayer.size() <= s.getLayer()) {
+        shapesByLayer.add(new LinkedHashMap<>());
+      }
+      byLayer.computeIfAbsent(s.getLayer(), l -> new ArrayList<>()).add(name);
+      track(s);
+    }
+    for (Map.Entry<Integer, List<String>> entry : byLayer.entrySet()) {
+      putBack(shapesByLayer.get(entry.getKey()), entry.getValue(), edit.layerPositions,
+          edit.images);
+    }
+    drawList.rebuild(shapesByLayer, shapes);
+    this.schedule = null;
+    this.index = null;
+  }
+
+  /**
+   * Get the names of the shapes on the given layers, ignoring layers that do not exist.
+   *
+   * @param layers the layers
+   * @return the names of the shapes on them
+   */
+  private List<String> namesOnLayers(int... layers) {
+    List<String> names = new ArrayList<>();
+    for (int layer : layers) {
+      if (layer >= 0 && layer < shapesByLayer.size()) {
+        names.addAll(shapesByLayer.get(layer).keySet());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Get the names of the shapes the given motions are for.
+   *
+   * @param motions the motions
+   * @return the names of their shapes
+   */
+  private static List<String> idsOf(List<Motion> motions) {
+    List<String> names = new ArrayList<>();
+    for (Motion m : motions) {
+      names.add(m.getId());
+    }
+    return names;
+  }
+
+  /**
+   * A record of some of the shapes of the model as they were before an edit, or before an edit
+   * was undone, which is enough to put them back. Shapes the edit did not touch are not recorded.
+   */
+  private static final class Edit {
+
+    // copies of the shapes by name, with null for names that were not in the model
+    private final Map<String, IShape> images;
+    // positions of the recorded shapes in the order of the shapes of the model
+    private final Map<String, Integer> positions;
+    // positions of the recorded shapes on their layers
+    private final Map<String, Integer> layerPositions;
+    private final int layers;
+
+    /**
+     * Construct a record.
+     *
+     * @param images         copies of the shapes by name, with null for names not in the model
+     * @param positions      positions of the copied shapes in the order of the shapes
+     * @param layerPositions positions of the copied shapes on their layers
+     * @param layers         the number of layers
+     */
+    private Edit(Map<String, IShape> images, Map<String, Integer> positions,
+        Map<String, Integer> layerPositions, int layers) {
+      this.images = images;
+      this.positions = positions;
+      this.layerPositions = layerPositions;
+      this.layers = layers;
     }
   }
 
   @Override
   public int getLastTick() {
-    return Collections.max(shapes.values().stream().map(IShape::getEndTime).collect(
-        Collectors.toSet()));
+    return lastTick;
+  }
+
+  @Override
+  public int getFirstTick() {
+    return firstTick;
+  }
+
+  /**
+   * Count the start and end times of the given shape in the bounds of the animation. Every change
+   * to the times of a shape in the model is made between a call to {@link #untrack(IShape)} and a
+   * call to this method.
+   *
+   * @param s the shape
+   */
+  private void track(IShape s) {
+    if (s.getStartTime() != Integer.MAX_VALUE) {
+      startTimes.merge(s.getStartTime(), 1, Integer::sum);
+    }
+    endTimes.merge(s.getEndTime(), 1, Integer::sum);
+    updateTicks();
+  }
+
+  /**
+   * Stop counting the start and end times of the given shape in the bounds of the animation.
+   *
+   * @param s the shape
+   */
+  private void untrack(IShape s) {
+    if (s.getStartTime() != Integer.MAX_VALUE) {
+      startTimes.computeIfPresent(s.getStartTime(), (t, n) -> n == 1 ? null : n - 1);
+    }
+    endTimes.computeIfPresent(s.getEndTime(), (t, n) -> n == 1 ? null : n - 1);
+    updateTicks();
+  }
+
+  /**
+   * Read the first and last tick of the animation off the multisets of start and end times.
+   */
+  private void updateTicks() {
+    this.firstTick = startTimes.isEmpty() ? 0 : startTimes.firstKey();
+    this.lastTick = endTimes.isEmpty() ? 0 : endTimes.lastKey();
+  }
+
+  /**
+   * Restore a serialized model, counting the times of its shapes again.
+   *
+   * @param in the stream to read the model from
+   * @throws IOException            if the model cannot be read
+   * @throws ClassNotFoundException if a class of the model cannot be found
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.pool = ForkJoinPool.commonPool();
+    this.parallelThreshold = PARALLEL_THRESHOLD;
+    this.undoStack = new ArrayDeque<>();
+    this.redoStack = new ArrayDeque<>();
+    this.startTimes = new TreeMap<>();
+    this.endTimes = new TreeMap<>();
+    for (IShape s : shapes.values()) {
+      s.setId(nextId++);
+      track(s);
+    }
+    this.drawList = new DrawList();
+    drawList.rebuild(shapesByLayer, shapes);
   }
 
   @Override
   public void addKeyFrame(IFrame f) {
-    IShape s = shapes.get(f.getName());
-    s.addKeyFrame(f);
+    edit(Collections.singletonList(f.getName()), () -> {
+      IShape s = shapes.get(f.getName());
+      untrack(s);
+      try {
+        s.addKeyFrame(f);
+      } finally {
+        track(s);
+      }
+      this.schedule = null;
+      this.index = null;
+    });
   }
 
   @Override
   public void removeKeyFrame(IFrame f) {
-    if (shapes.containsKey(f.getName())) {
-      shapes.get(f.getName()).removeKeyFrame(f.getTime());
-    } else {
-      throw new IllegalArgumentException("Shape doesn't exist");
-    }
+    edit(Collections.singletonList(f.getName()), () -> {
+      if (shapes.containsKey(f.getName())) {
+        IShape s = shapes.get(f.getName());
+        untrack(s);
+        try {
+          s.removeKeyFrame(f.getTime());
+        } finally {
+          track(s);
+        }
+        this.schedule = null;
+        this.index = null;
+      } else {
+        throw new IllegalArgumentException("Shape doesn't exist");
+      }
+    });
   }
 
   /**
@@ -223,53 +629,69 @@ public class AnimatorModelImpl implements AnimatorModel {
    */
   @Override
   public void addShape(IShape shape) {
-    if (!shapes.containsKey(shape.getName())) {
-      shapes.put(shape.getName(), shape);
-      if (shapesByLayer.size() >= shape.getLayer()) {
-        try {
+    edit(Collections.singletonList(shape.getName()), () -> {
+      if (!shapes.containsKey(shape.getName())) {
+        shape.setId(nextId++);
+        shapes.put(shape.getName(), shape);
+        track(shape);
+        this.schedule = null;
+        this.index = null;
+        if (shapesByLayer.size() >= shape.getLayer()) {
+          try {
+            shapesByLayer.get(shape.getLayer()).put(shape.getName(), shape);
+          } catch (Exception ignored) {
+            Map<String, IShape> newLayerMap = new LinkedHashMap<>();
+            newLayerMap.put(shape.getName(), shape);
+            shapesByLayer.add(shape.getLayer(), newLayerMap);
+          }
+        } else {
+          for (int i = shapesByLayer.size(); i <= shape.getLayer(); i++) {
+            Map<String, IShape> newLayerMap = new LinkedHashMap<>();
+            shapesByLayer.add(i, newLayerMap);
+          }
           shapesByLayer.get(shape.getLayer()).put(shape.getName(), shape);
-        } catch (Exception ignored) {
-          Map<String, IShape> newLayerMap = new LinkedHashMap<>();
-          newLayerMap.put(shape.getName(), shape);
-          shapesByLayer.add(shape.getLayer(), newLayerMap);
         }
+        drawList.addToLayer(shape);
       } else {
-        for (int i = shapesByLayer.size(); i <= shape.getLayer(); i++) {
-          Map<String, IShape> newLayerMap = new LinkedHashMap<>();
-          shapesByLayer.add(i, newLayerMap);
-        }
-        shapesByLayer.get(shape.getLayer()).put(shape.getName(), shape);
+        throw new IllegalArgumentException("Shape with this name already exists!");
       }
-    } else {
-      throw new IllegalArgumentException("Shape with this name already exists!");
-    }
+    });
   }
 
   @Override
   public void addMotions(List<Motion> motions) {
-    // now add keyframes, since addBuilderMotions doesn't use keyframes since they were
-    // already added in the builder
-    for (Motion m : motions) {
-      if (!shapes.containsKey(m.getId())) {
-        throw new IllegalArgumentException(
-            String.format("Motion specified for shape %s not found in the model!", m.getId()));
-      }
-      IShape s = shapes.get(m.getId());
-      s.addMotion(m);
-      IShape s1 = s.getStateAt(m.getStart());
-      IFrame f1 = new Frame(m.getStart(), s1.getName(), s1.getPosition(), s1.getColor(),
-          s1.getWidth(),
-          s1.getHeight(), s1.getHeading());
-      m.apply(s1, m.getEnd());
-      IFrame f2 = new Frame(m.getEnd(), s1.getName(), s1.getPosition(), s1.getColor(),
-          s1.getWidth(),
-          s1.getHeight(), s1.getHeading());
-      addKeyFrame(f1);
-      addKeyFrame(f2);
-      if (m.getStart() < s.getStartTime()) {
-        s.setStartTime(m.getStart());
+    edit(idsOf(motions), () -> {
+      // now add keyframes, since addBuilderMotions doesn't use keyframes since they were
+      // already added in the builder
+      for (Motion m : motions) {
+        if (!shapes.containsKey(m.getId())) {
+          throw new IllegalArgumentException(
+              String.format("Motion specified for shape %s not found in the model!", m.getId()));
+        }
+        IShape s = shapes.get(m.getId());
+        untrack(s);
+        try {
+          s.addMotion(m);
+          this.schedule = null;
+          this.index = null;
+          IShape s1 = s.getStateAt(m.getStart());
+          IFrame f1 = new Frame(m.getStart(), s1.getName(), s1.getPosition(), s1.getColor(),
+              s1.getWidth(),
+              s1.getHeight(), s1.getHeading());
+          m.apply(s1, m.getEnd());
+          IFrame f2 = new Frame(m.getEnd(), s1.getName(), s1.getPosition(), s1.getColor(),
+              s1.getWidth(),
+              s1.getHeight(), s1.getHeading());
+          s.addKeyFrame(f1);
+          s.addKeyFrame(f2);
+          if (m.getStart() < s.getStartTime()) {
+            s.setStartTime(m.getStart());
+          }
+        } finally {
+          track(s);
+        }
       }
-    }
+    });
   }
 
   @Override
@@ -277,69 +699,137 @@ public class AnimatorModelImpl implements AnimatorModel {
     this.addMotions(Arrays.asList(m));
   }
 
-  /**
-   * Adds all of the {@link Motion}s for the animation to the model in chronological order by
-   * sorting the motions, ensuring they are valid (consistent and non overlapping) and then adding
-   * them to their respective shapes.
-   *
-   * @param motions {@link Motion}s to be added
-   * @throws IllegalArgumentException if the shape does not exist in the model or if the motion
-   *                                  creates any consistency issues with the shape's existing
-   *                                  motions.
-   */
-  private void addBuilderMotions(List<Motion> motions) {
-    //store start times of motions
-    List<Integer> startTimes = new ArrayList<>();
-    //store mapping of start times to motions
-    Map<Integer, List<Motion>> motionMap = new HashMap<>();
-    for (Motion m : motions) {
-      //add start time of each motion
-      if (!startTimes.contains(m.getStart())) {
-        startTimes.add(m.getStart());
+  @Override
+  public int[] getBounds() {
+    return this.bounds.clone();
+  }
 
-        List<Motion> mList = new ArrayList<>();
-        mList.add(m);
-        motionMap.put(m.getStart(), mList);
-      } else {
-        //add motion to map
-        motionMap.get(m.getStart()).add(m);
-      }
+  @Override
+  public void update(int ticks) {
+    if (schedule == null) {
+      this.schedule = new UpdateSchedule(shapes.values(), pool, parallelThreshold);
     }
-    //sort list of starting times
-    Collections.sort(startTimes);
-    //add motions in chronological order
-    for (int i : startTimes) {
-      for (Motion m : motionMap.get(i)) {
-        if (shapes.containsKey(m.getId())) {
-          IShape s = shapes.get(m.getId());
-          s.addMotion(m);
-        } else {
-          throw new IllegalArgumentException("Shape does not exist in model.");
+    schedule.update(ticks);
+    if (index != null) {
+      if (schedule.updatedAll()) {
+        moved.set(0, indexed.length);
+      } else {
+        for (int i = 0; i < schedule.updatedCount(); i++) {
+          moved.set(schedule.updated(i).getId());
         }
       }
     }
   }
 
+  /**
+   * Set how {@link #update(int)} and {@link #setStateTo(int)} spread their work over threads.
+   * Shapes are independent of each other within a tick, so when at least the given number of
+   * shapes are to be updated they are split across the given pool, with the same result as
+   * updating them in order. By default models use the common pool above 10000 shapes.
+   *
+   * @param pool      the pool to update shapes on, or null to always update them in order
+   * @param threshold the smallest number of shapes to update in parallel
+   * @throws IllegalArgumentException if the threshold is not positive
+   */
+  public void setParallelism(ForkJoinPool pool, int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Parallel threshold must be positive!");
+    }
+    this.pool = pool;
+    this.parallelThreshold = threshold;
+    this.schedule = null;
+    this.index = null;
+  }
+
   @Override
-  public int[] getBounds() {
-    return this.bounds.clone();
+  public void setStateTo(int ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Cannot set state to a negative time");
+    }
+    IShape[] current = shapes.values().toArray(new IShape[0]);
+    IShape[] states = new IShape[current.length];
+    ParallelLoop.run(pool, parallelThreshold, current.length,
+        i -> states[i] = current[i].getStateAt(ticks));
+    // the states are in the order of the shapes, so replace them without looking up their names
+    int i = 0;
+    for (Map.Entry<String, IShape> entry : shapes.entrySet()) {
+      entry.setValue(states[i++]);
+    }
+    drawList.rebuild(shapesByLayer, shapes);
+    this.schedule = null;
+    this.index = null;
   }
 
   @Override
-  public void update(int ticks) {
-    for (IShape shape : shapes.values()) {
-      shape.applyMotion(ticks);
+  public IShape shapeAt(double x, double y) {
+    int top = -1;
+    for (int i : index().query(x, y, x, y)) {
+      IShape s = indexed[i];
+      // later shapes on the same layer are drawn over earlier ones
+      boolean above = top == -1 || s.getLayer() > indexed[top].getLayer()
+          || (s.getLayer() == indexed[top].getLayer() && i > top);
+      if (above && ShapeBounds.contains(s.getX(), s.getY(), s.getWidth(), s.getHeight(),
+          s.getHeading(), x, y)) {
+        top = i;
+      }
     }
+    return top == -1 ? null : indexed[top].copy();
   }
 
   @Override
-  public void setStateTo(int ticks) {
-    if (ticks < 0) {
-      throw new IllegalArgumentException("Cannot set state to a negative time");
+  public List<String> shapesDuring(double x, double y, double width, double height, int t1,
+      int t2) {
+    if (t1 > t2) {
+      throw new IllegalArgumentException("Span of ticks cannot end before it starts!");
     }
-    for (IShape shape : shapes.values()) {
-      shapes.replace(shape.getName(), shape.getStateAt(ticks));
+    List<String> names = new ArrayList<>();
+    for (IShape s : shapes.values()) {
+      if (s.mayIntersect(x, y, x + width, y + height, t1, t2)) {
+        names.add(s.getName());
+      }
     }
+    return names;
+  }
+
+  /**
+   * Get the grid of the bounding boxes of the visible shapes, building it if the shapes have been
+   * added, removed or replaced since it was last used. Otherwise only the shapes that updates have
+   * applied motions to since then are put back into the grid at their current bounds, so a hit
+   * test costs about as much as the shapes that moved and not as much as all of them.
+   *
+   * @return the grid, whose ids are the ids of the shapes and indices into {@link #indexed}
+   */
+  private SpatialGrid index() {
+    if (index == null) {
+      this.indexed = new IShape[nextId];
+      for (IShape s : shapes.values()) {
+        indexed[s.getId()] = s;
+      }
+      int cells = Math.min(128, Math.max(1, (int) Math.ceil(Math.sqrt(shapes.size()))));
+      this.index = new SpatialGrid(bounds[0], bounds[1], bounds[0] + bounds[2],
+          bounds[1] + bounds[3], cells, cells, indexed.length);
+      this.moved = new BitSet(indexed.length);
+      moved.set(0, indexed.length);
+    }
+    for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+      IShape s = indexed[i];
+      if (s != null && s.isVisible()) {
+        double hw = ShapeBounds.halfWidth(s.getWidth(), s.getHeight(), s.getHeading());
+        double hh = ShapeBounds.halfHeight(s.getWidth(), s.getHeight(), s.getHeading());
+        double cx = s.getX() + s.getWidth() / 2;
+        double cy = s.getY() + s.getHeight() / 2;
+        index.put(i, cx - hw, cy - hh, cx + hw, cy + hh);
+      } else {
+        index.remove(i);
+      }
+    }
+    moved.clear();
+    return index;
+  }
+
+  @Override
+  public List<IShape> getDrawList() {
+    return drawList;
   }
 
   @Override
@@ -351,26 +841,47 @@ public class AnimatorModelImpl implements AnimatorModel {
     return newMap;
   }
 
+  @Override
+  public ShapeState[] evaluateAll(int ticks, ShapeState[] buffer) {
+    ShapeState[] states = buffer;
+    if (states == null || states.length != shapes.size()) {
+      states = new ShapeState[shapes.size()];
+      if (buffer != null) {
+        System.arraycopy(buffer, 0, states, 0, Math.min(buffer.length, states.length));
+      }
+    }
+    int i = 0;
+    for (IShape shape : shapes.values()) {
+      if (states[i] == null) {
+        states[i] = new ShapeState();
+      }
+      shape.evaluate(ticks, states[i]);
+      i++;
+    }
+    return states;
+  }
+
   /**
-   * Static builder class to build new AnimatorModelImpl's with pre specified parameters.
+   * Static builder class to build new AnimatorModelImpl's with pre specified parameters. The
+   * builder only records the keyframes and motions it is given; {@link #build()} then sorts the
+   * keyframes of each shape once, checks every motion against them and generates the motions of
+   * each shape once, so that building takes O(n log n) time in the number of keyframes.
    */
   public static final class Builder implements AnimationBuilder<AnimatorModel> {
 
     private final List<Map<String, IShape>> builderShapesByLayer;
     private final Map<String, IShape> builderShapes;
-    private final Map<String, List<IFrame>> keyframes;
-    private final List<Motion> builderMotions;
+    private final Map<String, FrameLog> keyframes;
     private int x;
     private int y;
     private int width;
     private int height;
 
     /**
-     * Construct a builder object. Initialize maps for shapes and keyframes and list for motions.
+     * Construct a builder object. Initialize maps for shapes and keyframes.
      */
     public Builder() {
       builderShapes = new LinkedHashMap<>();
-      builderMotions = new ArrayList<>();
       keyframes = new HashMap<>();
       builderShapesByLayer = new LinkedList<>();
     }
@@ -379,11 +890,30 @@ public class AnimatorModelImpl implements AnimatorModel {
     public AnimatorModelImpl build() {
       AnimatorModelImpl model = new AnimatorModelImpl(x, y, width, height);
       model.shapesByLayer = builderShapesByLayer;
-      for (IShape s : builderShapes.values()) {
-        model.addShape(s);
+      // building the model is not an edit that can be undone, so add the shapes as part of one
+      // that is never recorded rather than recording an edit for each
+      model.editing = true;
+      try {
+        for (IShape s : builderShapes.values()) {
+          model.addShape(s);
+        }
+      } finally {
+        model.editing = false;
+      }
+      for (Map.Entry<String, FrameLog> entry : keyframes.entrySet()) {
+        IShape shape = builderShapes.get(entry.getKey());
+        if (shape == null) {
+          throw new IllegalArgumentException("Shape hasn't been added to model yet!");
+        }
+        FrameLog log = entry.getValue();
+        List<IFrame> kept = log.keptFrames();
+        log.checkMotions(shape, kept);
+        model.untrack(shape);
+        shape.setKeyFrames(kept);
+        model.track(shape);
       }
-      model.setKeyFrames(this.keyframes);
-      model.addBuilderMotions(builderMotions);
+      // the layers were filled in the order the shapes were declared rather than added
+      model.drawList.rebuild(model.shapesByLayer, model.shapes);
       return model;
     }
 
@@ -414,42 +944,210 @@ public class AnimatorModelImpl implements AnimatorModel {
         int w1, int h1, int r1, int g1, int b1, int heading1, int t2, int x2, int y2, int w2,
         int h2, int r2,
         int g2, int b2, int heading2) {
-
-      this.addKeyframe(name, t1, x1, y1, w1, h1, r1, g1, b1, heading1);
-      this.addKeyframe(name, t2, x2, y2, w2, h2, r2, g2, b2, heading2);
-
       if (!(builderShapes.containsKey(name))) {
         throw new IllegalArgumentException("Shape has not been declared yet");
       }
-
-      IFrame f1 = new Frame(t1, name, new Position2D(x1, y1), new Color(r1, g1, b1), w1, h1,
-          heading1);
-
-      IFrame f2 = new Frame(t2, name, new Position2D(x2, y2), new Color(r2, g2, b2), w2, h2,
-          heading2);
-
-      if (t1 < this.builderShapes.get(name).getStartTime()) {
-        this.builderShapes.get(name).setStartTime(t1);
-        f1.apply(builderShapes.get(name));
+      if (t1 < 1) {
+        throw new IllegalArgumentException("Cannot have a shape exist at a negative time!");
       }
-
-      builderMotions.addAll(MotionFactory.generateMotions(f1, f2, 7));
+      FrameLog log = logOf(name);
+      log.addMotion();
+      log.add(new Frame(t1, log.name, new Position2D(x1, y1), new Color(r1, g1, b1), w1, h1,
+          heading1));
+      log.add(new Frame(t2, log.name, new Position2D(x2, y2), new Color(r2, g2, b2), w2, h2,
+          heading2));
       return this;
     }
 
     @Override
     public AnimationBuilder<AnimatorModel> addKeyframe(String name, int t, int x, int y, int w,
         int h, int r, int g, int b, int heading) {
+      FrameLog log = logOf(name);
+      log.add(new Frame(t, log.name, new Position2D(x, y), new Color(r, g, b), w, h, heading));
+      return this;
+    }
+
+    /**
+     * Get the log of keyframes given for the shape with the given name, creating it if needed.
+     *
+     * @param name the name of the shape
+     * @return the log of the shape's keyframes
+     */
+    private FrameLog logOf(String name) {
+      FrameLog log = keyframes.get(name);
+      if (log == null) {
+        IShape shape = builderShapes.get(name);
+        log = new FrameLog(shape == null ? name : shape.getName());
+        keyframes.put(name, log);
+      }
+      return log;
+    }
+  }
+
+  /**
+   * The keyframes given to a {@link Builder} for one shape, in the order they were given, along
+   * with which consecutive pairs of them were given as a motion.
+   */
+  private static final class FrameLog {
 
-      if (keyframes.containsKey(name)) {
-        keyframes.get(name).add(new Frame(t, name, new Position2D(x, y), new Color(r, g, b), w, h,
-            heading));
+    // indices of the motion types in the arrays used by checkMotions
+    private static final int COLOR = 0;
+    private static final int MOVE = 1;
+    private static final int SIZE = 2;
+    private static final int ROTATE = 3;
+
+    // name of the shape as declared, shared by its keyframes and the motions made from them, so
+    // that comparing their names finds the same string rather than comparing characters
+    private final String name;
+    private final List<IFrame> frames;
+    // index in frames of the start frame of each motion, whose end frame follows it
+    private int[] motions;
+    private int motionCount;
+
+    /**
+     * Construct an empty log.
+     *
+     * @param name the name of the shape, as declared
+     */
+    FrameLog(String name) {
+      this.name = name;
+      this.frames = new ArrayList<>();
+      this.motions = new int[8];
+      this.motionCount = 0;
+    }
+
+    /**
+     * Add a keyframe to the log.
+     *
+     * @param f the keyframe
+     */
+    void add(IFrame f) {
+      frames.add(f);
+    }
+
+    /**
+     * Record that the next two keyframes added are the start and end of a motion.
+     */
+    void addMotion() {
+      if (motionCount == motions.length) {
+        motions = Arrays.copyOf(motions, motionCount * 2);
+      }
+      motions[motionCount++] = frames.size();
+    }
+
+    /**
+     * Get the keyframes of the log sorted by time, keeping only the first keyframe given for each
+     * time.
+     *
+     * @return the keyframes that the shape will have
+     */
+    List<IFrame> keptFrames() {
+      List<IFrame> sorted = new ArrayList<>(frames);
+      // stable, so the first keyframe given for a time stays ahead of later ones
+      sorted.sort(Comparator.comparingInt(IFrame::getTime));
+      List<IFrame> kept = new ArrayList<>(sorted.size());
+      for (IFrame f : sorted) {
+        if (kept.isEmpty() || kept.get(kept.size() - 1).getTime() != f.getTime()) {
+          kept.add(f);
+        }
+      }
+      return kept;
+    }
+
+    /**
+     * Check the motions given for the shape, in order of their start time, as if each were added
+     * to the shape in turn: motions of one type that change the shape may not overlap in time, and
+     * every motion must start from the state of the shape given by its keyframe at that time.
+     *
+     * <p>
+     * Since the motions are checked in order of start time, a motion can only overlap an earlier
+     * one of its type if it starts before the latest end of those that started earlier, or if it
+     * starts at the same time as one of them; so only one earlier motion of each type, rather than
+     * all of them, is checked against each motion.
+     * </p>
+     *
+     * @param shape the shape the motions are for
+     * @param kept  the keyframes of the shape, sorted by time
+     * @throws IllegalArgumentException if two motions of the same type overlap or a motion does
+     *                                  not start from the shape's state at its start time
+     */
+    void checkMotions(IShape shape, List<IFrame> kept) {
+      if (motionCount == 0) {
+        return;
+      }
+      // sort the motions by start time, breaking ties by the order they were given in
+      long[] order = new long[motionCount];
+      for (int i = 0; i < motionCount; i++) {
+        order[i] = ((long) frames.get(motions[i]).getTime() << 32) | i;
+      }
+      Arrays.sort(order);
+
+      // the state of the shape at the start of the motion being checked
+      IShape state = ShapeFactory.createShape(shape.getName(), shape.getType(), shape.getLayer());
+      state.setStartTime(kept.get(0).getTime());
+      int keptIndex = -1;
+      // per motion type, the changing motion with the latest end among those starting earlier,
+      // and the first changing motion starting at the current time
+      Motion[] latest = new Motion[4];
+      Motion[] sameStart = new Motion[4];
+      Motion[] startingNow = new Motion[4];
+      int groupStart = Integer.MIN_VALUE;
+
+      for (long o : order) {
+        int index = motions[(int) o];
+        IFrame f1 = frames.get(index);
+        IFrame f2 = frames.get(index + 1);
+        if (f1.getTime() != groupStart) {
+          groupStart = f1.getTime();
+          for (int type = 0; type < 4; type++) {
+            if (startingNow[type] != null && (latest[type] == null
+                || startingNow[type].getEnd() > latest[type].getEnd())) {
+              latest[type] = startingNow[type];
+            }
+            startingNow[type] = null;
+            sameStart[type] = null;
+          }
+          while (keptIndex + 1 < kept.size() && kept.get(keptIndex + 1).getTime() <= groupStart) {
+            keptIndex++;
+          }
+          kept.get(keptIndex).apply(state);
+        }
+        for (Motion m : MotionFactory.generateMotions(f1, f2, 7)) {
+          int type = typeOf(m);
+          if ((latest[type] != null && latest[type].overlaps(m))
+              || (sameStart[type] != null && sameStart[type].overlaps(m))) {
+            throw new IllegalArgumentException("Same motion types cannot overlap.");
+          }
+          m.isCompatibleWith(state);
+          boolean changes = type != MOVE || !f1.getPos().equals(f2.getPos());
+          if (changes) {
+            if (sameStart[type] == null && m.getEnd() != m.getStart()) {
+              sameStart[type] = m;
+            }
+            if (startingNow[type] == null || m.getEnd() > startingNow[type].getEnd()) {
+              startingNow[type] = m;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Get the index of the type of the given motion.
+     *
+     * @param m the motion
+     * @return one of COLOR, MOVE, SIZE and ROTATE
+     */
+    private static int typeOf(Motion m) {
+      if (m instanceof ColorMotion) {
+        return COLOR;
+      } else if (m instanceof MoveMotion) {
+        return MOVE;
+      } else if (m instanceof ChangeSizeMotion) {
+        return SIZE;
       } else {
-        List<IFrame> start = new ArrayList<>();
-        start.add(new Frame(t, name, new Position2D(x, y), new Color(r, g, b), w, h, heading));
-        keyframes.put(name, start);
+        return ROTATE;
       }
-      return this;
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,502 @@
+package cs3500.animator.model;
+
+import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.motion.Interpolation;
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.ShapeBounds;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A snapshot of the shapes of an {@link AnimatorModel} compiled for playback. Each shape gets a
+ * dense id, its index in the order of {@link AnimatorModel#getShapes()}, and its state is kept in
+ * column arrays indexed by that id rather than in shape objects. The keyframes of every shape are
+ * likewise stored end to end in primitive arrays, so that {@link #update(int)} is a linear scan
+ * over primitive arrays with a binary search per shape and allocates nothing. The values it
+ * computes are those of {@link IShape#evaluate(int, cs3500.animator.model.shape.ShapeState)}.
+ *
+ * <p>The first query of which shapes are at a point or in a rectangle builds a {@link SpatialGrid}
+ * of the bounding boxes of the visible shapes. From then on each update notes which shapes it has
+ * moved, resized, rotated, shown or hidden, and the next query puts only those into the grid.
+ *
+ * <p>A scene does not follow later changes to the model it was compiled from; compile a new one
+ * after editing the model.
+ */
+public final class CompiledScene {
+
+  private final int size;
+  private final String[] names;
+  private final String[] types;
+  private final Map<String, Integer> ids;
+  private final int[] layer;
+  // ids of the shapes in the order they are drawn, by layer and then by id
+  private final int[] drawOrder;
+  // position of each shape in the drawing order
+  private final int[] drawRank;
+  private final int[] startTime;
+  private final int[] endTime;
+
+  // keyframes of shape i are at indices first[i] (inclusive) to first[i + 1] (exclusive)
+  private final int[] first;
+  private final int[] keyTime;
+  private final double[] keyX;
+  private final double[] keyY;
+  private final double[] keyW;
+  private final double[] keyH;
+  private final double[] keyHeading;
+  private final int[] keyRgb;
+
+  // current state of each shape
+  private final double[] x;
+  private final double[] y;
+  private final double[] w;
+  private final double[] h;
+  private final double[] heading;
+  private final int[] argb;
+  private final BitSet visible;
+  private int tick;
+
+  // index of the visible shapes, built by the first query, and the shapes changed since then
+  private SpatialGrid index;
+  private final BitSet moved;
+
+  /**
+   * Compile the shapes of the given model, and set the scene to the state of the model at t = 0.
+   *
+   * @param model the model to compile
+   * @throws NullPointerException if the model is null
+   */
+  public CompiledScene(AnimatorModel model) {
+    this(Objects.requireNonNull(model, "Cannot compile a null model").getShapes().values());
+  }
+
+  /**
+   * Compile the shapes of the given snapshot of a model, and set the scene to their state at t = 0.
+   * A background thread can compile the latest snapshot of a {@link ConcurrentAnimatorModel} while
+   * the model is being edited.
+   *
+   * @param snapshot the snapshot to compile
+   * @throws NullPointerException if the snapshot is null
+   */
+  public CompiledScene(ModelSnapshot snapshot) {
+    this(Objects.requireNonNull(snapshot, "Cannot compile a null snapshot").getShapes().values());
+  }
+
+  /**
+   * Compile the given shapes, and set the scene to their state at t = 0.
+   *
+   * @param compiled the shapes, in the order of their ids
+   */
+  private CompiledScene(Collection<IShape> compiled) {
+    List<IShape> shapes = new ArrayList<>(compiled);
+    this.size = shapes.size();
+    this.names = new String[size];
+    this.types = new String[size];
+    this.ids = new HashMap<>();
+    this.layer = new int[size];
+    this.startTime = new int[size];
+    this.endTime = new int[size];
+    this.first = new int[size + 1];
+    this.x = new double[size];
+    this.y = new double[size];
+    this.w = new double[size];
+    this.h = new double[size];
+    this.heading = new double[size];
+    this.argb = new int[size];
+    this.visible = new BitSet(size);
+    this.moved = new BitSet(size);
+
+    int keyframes = 0;
+    for (int i = 0; i < size; i++) {
+      first[i] = keyframes;
+      keyframes += shapes.get(i).getKeyFrames().size();
+    }
+    first[size] = keyframes;
+    this.keyTime = new int[keyframes];
+    this.keyX = new double[keyframes];
+    this.keyY = new double[keyframes];
+    this.keyW = new double[keyframes];
+    this.keyH = new double[keyframes];
+    this.keyHeading = new double[keyframes];
+    this.keyRgb = new int[keyframes];
+
+    for (int i = 0; i < size; i++) {
+      IShape s = shapes.get(i);
+      names[i] = s.getName();
+      types[i] = s.getType();
+      ids.put(names[i], i);
+      layer[i] = s.getLayer();
+      startTime[i] = s.getStartTime();
+      endTime[i] = s.getEndTime();
+      // shapes without keyframes keep the properties they have now
+      x[i] = s.getX();
+      y[i] = s.getY();
+      w[i] = s.getWidth();
+      h[i] = s.getHeight();
+      heading[i] = s.getHeading();
+      argb[i] = s.getRGB();
+      int k = first[i];
+      for (IFrame f : s.getKeyFrames()) {
+        keyTime[k] = f.getTime();
+        keyX[k] = f.getX();
+        keyY[k] = f.getY();
+        keyW[k] = f.getWidth();
+        keyH[k] = f.getHeight();
+        keyHeading[k] = f.getHeading();
+        keyRgb[k] = f.getRGB();
+        k++;
+      }
+    }
+
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    // the sort is stable, so shapes on one layer are drawn in the order of their ids
+    Arrays.sort(order, (a, b) -> Integer.compare(layer[a], layer[b]));
+    this.drawOrder = new int[size];
+    this.drawRank = new int[size];
+    for (int i = 0; i < size; i++) {
+      drawOrder[i] = order[i];
+      drawRank[order[i]] = i;
+    }
+    update(0);
+  }
+
+  /**
+   * Construct a copy of the given scene that shares its compiled keyframes, which never change,
+   * and has its own state.
+   *
+   * @param other the scene to copy
+   */
+  private CompiledScene(CompiledScene other) {
+    this.size = other.size;
+    this.names = other.names;
+    this.types = other.types;
+    this.ids = other.ids;
+    this.layer = other.layer;
+    this.drawOrder = other.drawOrder;
+    this.drawRank = other.drawRank;
+    this.startTime = other.startTime;
+    this.endTime = other.endTime;
+    this.first = other.first;
+    this.keyTime = other.keyTime;
+    this.keyX = other.keyX;
+    this.keyY = other.keyY;
+    this.keyW = other.keyW;
+    this.keyH = other.keyH;
+    this.keyHeading = other.keyHeading;
+    this.keyRgb = other.keyRgb;
+    this.x = other.x.clone();
+    this.y = other.y.clone();
+    this.w = other.w.clone();
+    this.h = other.h.clone();
+    this.heading = other.heading.clone();
+    this.argb = other.argb.clone();
+    this.visible = (BitSet) other.visible.clone();
+    this.tick = other.tick;
+    this.moved = new BitSet(size);
+  }
+
+  /**
+   * Copy the scene, in its current state. The copy shares the compiled keyframes of this scene
+   * rather than compiling the model again, so copying takes time in the number of shapes only,
+   * and the copy can be updated on another thread at the same time as this scene.
+   *
+   * @return the copy
+   */
+  public CompiledScene copy() {
+    return new CompiledScene(this);
+  }
+
+  /**
+   * Set every shape in the scene to its state at t = ticks.
+   *
+   * @param ticks the ticks since the animation started
+   */
+  public void update(int ticks) {
+    this.tick = ticks;
+    for (int i = 0; i < size; i++) {
+      boolean shown = ticks >= startTime[i] && ticks <= endTime[i];
+      if (index != null && shown != visible.get(i)) {
+        moved.set(i);
+      }
+      visible.set(i, shown);
+      int from = first[i];
+      int to = first[i + 1];
+      if (from == to) {
+        continue;
+      }
+      int k = Arrays.binarySearch(keyTime, from, to, ticks);
+      k = k >= 0 ? k : Math.max(from, -k - 2);
+      double nx;
+      double ny;
+      double nw;
+      double nh;
+      double nheading;
+      if (ticks <= keyTime[k] || k == to - 1) {
+        nx = keyX[k];
+        ny = keyY[k];
+        nw = keyW[k];
+        nh = keyH[k];
+        nheading = keyHeading[k];
+        argb[i] = keyRgb[k];
+      } else {
+        int start = keyTime[k];
+        int end = keyTime[k + 1];
+        nx = Interpolation.valueAt(keyX[k], keyX[k + 1], start, end, ticks);
+        ny = Interpolation.valueAt(keyY[k], keyY[k + 1], start, end, ticks);
+        nw = Interpolation.valueAt(keyW[k], keyW[k + 1], start, end, ticks);
+        nh = Interpolation.valueAt(keyH[k], keyH[k + 1], start, end, ticks);
+        nheading = Interpolation.valueAt(keyHeading[k], keyHeading[k + 1], start, end, ticks);
+        argb[i] = Interpolation.rgbAt(keyRgb[k], keyRgb[k + 1], start, end, ticks);
+      }
+      if (index != null && (nx != x[i] || ny != y[i] || nw != w[i] || nh != h[i]
+          || nheading != heading[i])) {
+        moved.set(i);
+      }
+      x[i] = nx;
+      y[i] = ny;
+      w[i] = nw;
+      h[i] = nh;
+      heading[i] = nheading;
+    }
+  }
+
+  /**
+   * Find the visible shapes whose bounding boxes, rotated by their headings, overlap the given
+   * rectangle in the current state. Shapes are included if they might be drawn inside the
+   * rectangle, so a renderer can draw only these shapes when the rectangle is all it displays.
+   *
+   * @param x      the x coordinate of the top left corner of the rectangle
+   * @param y      the y coordinate of the top left corner of the rectangle
+   * @param width  the width of the rectangle
+   * @param height the height of the rectangle
+   * @return the ids of the shapes, in the order they are drawn
+   */
+  public int[] shapesIn(double x, double y, double width, double height) {
+    int[] ids = index().query(x, y, x + width, y + height);
+    // sort by position in the drawing order, then turn the positions back into ids
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = drawRank[ids[i]];
+    }
+    Arrays.sort(ids);
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = drawOrder[ids[i]];
+    }
+    return ids;
+  }
+
+  /**
+   * Find the visible shape drawn on top at the given point in the current state, taking its
+   * heading into account.
+   *
+   * @param px the x coordinate of the point
+   * @param py the y coordinate of the point
+   * @return the id of the shape drawn last at that point, or -1 if there is none
+   */
+  public int shapeAt(double px, double py) {
+    int top = -1;
+    for (int id : index().query(px, py, px, py)) {
+      if ((top == -1 || drawRank[id] > drawRank[top])
+          && ShapeBounds.contains(x[id], y[id], w[id], h[id], heading[id], px, py)) {
+        top = id;
+      }
+    }
+    return top;
+  }
+
+  /**
+   * Get the index of the visible shapes, building it the first time and otherwise bringing the
+   * shapes changed by updates since the last query up to date.
+   *
+   * @return the index
+   */
+  private SpatialGrid index() {
+    if (index == null) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int k = 0; k < keyTime.length; k++) {
+        minX = Math.min(minX, keyX[k]);
+        minY = Math.min(minY, keyY[k]);
+        maxX = Math.max(maxX, keyX[k] + keyW[k]);
+        maxY = Math.max(maxY, keyY[k] + keyH[k]);
+      }
+      if (minX > maxX) {
+        minX = 0;
+        minY = 0;
+        maxX = 1;
+        maxY = 1;
+      }
+      // about one shape per cell if they are spread out evenly
+      int cells = Math.min(128, Math.max(1, (int) Math.ceil(Math.sqrt(size))));
+      this.index = new SpatialGrid(minX, minY, maxX, maxY, cells, cells, size);
+      moved.set(0, size);
+    }
+    for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+      if (visible.get(i)) {
+        double hw = ShapeBounds.halfWidth(w[i], h[i], heading[i]);
+        double hh = ShapeBounds.halfHeight(w[i], h[i], heading[i]);
+        double cx = x[i] + w[i] / 2;
+        double cy = y[i] + h[i] / 2;
+        index.put(i, cx - hw, cy - hh, cx + hw, cy + hh);
+      } else {
+        index.remove(i);
+      }
+    }
+    moved.clear();
+    return index;
+  }
+
+  /**
+   * Get the tick that the scene was last updated to.
+   *
+   * @return the tick of the current state
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Get the number of shapes in the scene.
+   *
+   * @return the number of shapes, one more than the largest id
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the id of the shape with the given name.
+   *
+   * @param name the name of the shape
+   * @return the id of the shape
+   * @throws IllegalArgumentException if there is no shape with that name in the scene
+   */
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      throw new IllegalArgumentException("Shape " + name + " is not in the scene!");
+    }
+    return id;
+  }
+
+  /**
+   * Get the id of the shape drawn at the given position in the drawing order, in which the shapes
+   * on lower layers come first.
+   *
+   * @param i the position in the drawing order
+   * @return the id of the shape drawn at that position
+   */
+  public int drawOrder(int i) {
+    return drawOrder[i];
+  }
+
+  /**
+   * Get the name of a shape.
+   *
+   * @param id the id of the shape
+   * @return the name
+   */
+  public String getName(int id) {
+    return names[id];
+  }
+
+  /**
+   * Get the type of a shape.
+   *
+   * @param id the id of the shape
+   * @return the type, such as "rectangle" or "ellipse"
+   */
+  public String getType(int id) {
+    return types[id];
+  }
+
+  /**
+   * Get the layer of a shape.
+   *
+   * @param id the id of the shape
+   * @return the layer
+   */
+  public int getLayer(int id) {
+    return layer[id];
+  }
+
+  /**
+   * Get whether a shape is on screen in the current state.
+   *
+   * @param id the id of the shape
+   * @return whether the shape is visible
+   */
+  public boolean isVisible(int id) {
+    return visible.get(id);
+  }
+
+  /**
+   * Get the x coordinate of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the x coordinate
+   */
+  public double getX(int id) {
+    return x[id];
+  }
+
+  /**
+   * Get the y coordinate of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the y coordinate
+   */
+  public double getY(int id) {
+    return y[id];
+  }
+
+  /**
+   * Get the width of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the width
+   */
+  public double getWidth(int id) {
+    return w[id];
+  }
+
+  /**
+   * Get the height of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the height
+   */
+  public double getHeight(int id) {
+    return h[id];
+  }
+
+  /**
+   * Get the heading of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the heading in degrees
+   */
+  public double getHeading(int id) {
+    return heading[id];
+  }
+
+  /**
+   * Get the color of a shape in the current state.
+   *
+   * @param id the id of the shape
+   * @return the color as a packed ARGB value
+   */
+  public int getARGB(int id) {
+    return argb[id];
+  }
+}
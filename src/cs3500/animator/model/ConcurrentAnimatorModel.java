@@ -0,0 +1,256 @@
+package cs3500.animator.model;
+
+import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.motion.Motion;
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.ShapeState;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AnimatorModel} that can be shared between threads, such as the event dispatch thread
+ * editing an animation and a background thread playing or exporting it. It wraps another model,
+ * which it only calls while holding the write lock of a {@link StampedLock}, so changes are made
+ * one at a time. The first read after a change publishes a new {@link ModelSnapshot} of the
+ * wrapped model through an atomic reference, so a run of changes with no reads between them, such
+ * as the updates of playback, copies nothing.
+ *
+ * <p>Everything that only reads the model is answered from the latest snapshot. A read only takes
+ * the lock to publish a snapshot after a change, so readers do not wait for changes in progress
+ * unless they are the first to read after one, and always see the model as it was between two
+ * changes. A reader that needs several answers to agree, such as a renderer drawing a frame,
+ * should take one snapshot with {@link #snapshot()} and read everything from it.
+ */
+public final class ConcurrentAnimatorModel implements AnimatorModel {
+
+  private final AnimatorModel model;
+  private final StampedLock lock;
+  private final AtomicReference<ModelSnapshot> latest;
+  // number of changes made so far, only written while holding the write lock
+  private volatile long version;
+
+  /**
+   * Wrap the given model, which must not be used except through this object from now on.
+   *
+   * @param model the model to wrap
+   * @throws NullPointerException if the model is null
+   */
+  public ConcurrentAnimatorModel(AnimatorModel model) {
+    this.model = Objects.requireNonNull(model, "Cannot wrap a null model");
+    this.lock = new StampedLock();
+    this.version = 0;
+    this.latest = new AtomicReference<>(new ModelSnapshot(0, model));
+  }
+
+  /**
+   * Get the latest snapshot of the model, which reflects every change that has finished. The
+   * snapshot is taken now if the model has changed since the last one.
+   *
+   * @return the latest snapshot
+   */
+  public ModelSnapshot snapshot() {
+    ModelSnapshot current = latest.get();
+    if (current.getVersion() == version) {
+      return current;
+    }
+    long stamp = lock.writeLock();
+    try {
+      // another reader may have taken it while this one waited
+      current = latest.get();
+      if (current.getVersion() != version) {
+        current = new ModelSnapshot(version, model);
+        latest.set(current);
+      }
+      return current;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Make a change to the wrapped model while holding the write lock, so that the next read takes a
+   * new snapshot. The change is counted even if it fails, since it may have been partly made.
+   *
+   * @param change the change to make
+   */
+  private void change(Runnable change) {
+    long stamp = lock.writeLock();
+    try {
+      change.run();
+    } finally {
+      version++;
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Call the wrapped model while holding the write lock, for queries that change its internal
+   * state but not its contents.
+   *
+   * @param query the query
+   * @param <T>   the type of the answer
+   * @return the answer
+   */
+  private <T> T exclusively(Supplier<T> query) {
+    long stamp = lock.writeLock();
+    try {
+      return query.get();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void addShape(IShape shape) throws IllegalArgumentException {
+    change(() -> model.addShape(shape));
+  }
+
+  @Override
+  public void update(int ticks) throws IllegalArgumentException {
+    change(() -> model.update(ticks));
+  }
+
+  @Override
+  public void setStateTo(int ticks) throws IllegalArgumentException {
+    change(() -> model.setStateTo(ticks));
+  }
+
+  @Override
+  public Map<String, IShape> getShapes() {
+    return snapshot().getShapes();
+  }
+
+  /**
+   * Get copies of the shapes in the order they are drawn. Unlike some models, the list is a new
+   * one taken from the latest snapshot, so it does not follow later changes to the model.
+   */
+  @Override
+  public List<IShape> getDrawList() {
+    return snapshot().getDrawList();
+  }
+
+  @Override
+  public ShapeState[] evaluateAll(int ticks, ShapeState[] buffer) {
+    return snapshot().evaluateAll(ticks, buffer);
+  }
+
+  @Override
+  public IShape shapeAt(double x, double y) {
+    // the wrapped model keeps its index of the shapes up to date as it answers
+    return exclusively(() -> model.shapeAt(x, y));
+  }
+
+  @Override
+  public List<String> shapesDuring(double x, double y, double width, double height, int t1,
+      int t2) throws IllegalArgumentException {
+    return snapshot().shapesDuring(x, y, width, height, t1, t2);
+  }
+
+  @Override
+  public void addMotions(List<Motion> motions) {
+    change(() -> model.addMotions(motions));
+  }
+
+  @Override
+  public void addMotion(Motion m) {
+    change(() -> model.addMotion(m));
+  }
+
+  @Override
+  public int[] getBounds() {
+    return snapshot().getBounds();
+  }
+
+  @Override
+  public void setKeyFrames(Map<String, List<IFrame>> keyFrames) {
+    change(() -> model.setKeyFrames(keyFrames));
+  }
+
+  @Override
+  public void removeShape(String name) {
+    change(() -> model.removeShape(name));
+  }
+
+  @Override
+  public void removeMotion(Motion m) {
+    change(() -> model.removeMotion(m));
+  }
+
+  @Override
+  public int getLastTick() {
+    return snapshot().getLastTick();
+  }
+
+  @Override
+  public int getFirstTick() {
+    return snapshot().getFirstTick();
+  }
+
+  @Override
+  public void addKeyFrame(IFrame f) {
+    change(() -> model.addKeyFrame(f));
+  }
+
+  @Override
+  public void removeKeyFrame(IFrame f) {
+    change(() -> model.removeKeyFrame(f));
+  }
+
+  /**
+   * Get copies of the shapes organized by layer. Unlike some models, the maps returned are not
+   * the ones the model uses, so changing them does not change the model.
+   */
+  @Override
+  public List<Map<String, IShape>> getShapesByLayer() {
+    return snapshot().getShapesByLayer();
+  }
+
+  @Override
+  public void addShapeToLayer(String shape, int layer) {
+    change(() -> model.addShapeToLayer(shape, layer));
+  }
+
+  @Override
+  public void deleteLayer(int layer) {
+    change(() -> model.deleteLayer(layer));
+  }
+
+  @Override
+  public void addLayer(int layer) {
+    change(() -> model.addLayer(layer));
+  }
+
+  @Override
+  public void reorder(int layer1, int layer2) {
+    change(() -> model.reorder(layer1, layer2));
+  }
+
+  @Override
+  public void changeShapeLayer(String name, int layer) {
+    change(() -> model.changeShapeLayer(name, layer));
+  }
+
+  @Override
+  public boolean canUndo() {
+    return exclusively(model::canUndo);
+  }
+
+  @Override
+  public boolean canRedo() {
+    return exclusively(model::canRedo);
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    change(model::undo);
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    change(model::redo);
+  }
+}
@@ -0,0 +1,156 @@
+package cs3500.animator.model;
+
+import cs3500.animator.model.shape.IShape;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The shapes of a model in the order they are drawn: by layer, and within a layer in the order
+ * they were put on it. The shapes of each layer are kept together in one list, and the list
+ * records where each layer ends, so a shape can be added to or removed from a layer, or two layers
+ * swapped, without sorting the shapes again. Renderers read the list as it is, so it cannot be
+ * changed except by the model through the methods of this class.
+ */
+final class DrawList extends AbstractList<IShape> implements RandomAccess {
+
+  private final List<IShape> shapes;
+  // ends[l] is the index just past the last shape on layers 0 to l
+  private int[] ends;
+  private int layers;
+
+  /**
+   * Construct an empty draw list.
+   */
+  DrawList() {
+    this.shapes = new ArrayList<>();
+    this.ends = new int[4];
+    this.layers = 0;
+  }
+
+  @Override
+  public IShape get(int index) {
+    return shapes.get(index);
+  }
+
+  @Override
+  public int size() {
+    return shapes.size();
+  }
+
+  /**
+   * Get the index of the first shape on the given layer, which exists.
+   *
+   * @param layer the layer
+   * @return the index of its first shape, or where it would be if it has none
+   */
+  private int start(int layer) {
+    return layer == 0 ? 0 : ends[layer - 1];
+  }
+
+  /**
+   * Make sure the list has at least the given number of layers, adding empty ones at the end.
+   *
+   * @param count the number of layers
+   */
+  private void ensureLayers(int count) {
+    if (count > ends.length) {
+      this.ends = Arrays.copyOf(ends, Math.max(count, ends.length * 2));
+    }
+    for (int l = layers; l < count; l++) {
+      ends[l] = shapes.size();
+    }
+    this.layers = Math.max(layers, count);
+  }
+
+  /**
+   * Add a shape after the other shapes on its layer.
+   *
+   * @param s the shape, which must not be in the list
+   */
+  void addToLayer(IShape s) {
+    int layer = s.getLayer();
+    ensureLayers(layer + 1);
+    shapes.add(ends[layer], s);
+    for (int l = layer; l < layers; l++) {
+      ends[l]++;
+    }
+  }
+
+  /**
+   * Remove the shape with the given name from the given layer.
+   *
+   * @param name  the name of the shape
+   * @param layer the layer the shape is on
+   * @return whether the shape was on the layer
+   */
+  boolean removeFromLayer(String name, int layer) {
+    if (layer < 0 || layer >= layers) {
+      return false;
+    }
+    for (int i = start(layer); i < ends[layer]; i++) {
+      if (shapes.get(i).getName().equals(name)) {
+        shapes.remove(i);
+        for (int l = layer; l < layers; l++) {
+          ends[l]--;
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Swap the shapes of two layers, keeping the order of the shapes within each.
+   *
+   * @param layer1 one of the layers
+   * @param layer2 the other layer
+   */
+  void swapLayers(int layer1, int layer2) {
+    int lo = Math.min(layer1, layer2);
+    int hi = Math.max(layer1, layer2);
+    ensureLayers(hi + 1);
+    if (lo == hi) {
+      return;
+    }
+    List<IShape> low = new ArrayList<>(shapes.subList(start(lo), ends[lo]));
+    List<IShape> between = new ArrayList<>(shapes.subList(ends[lo], start(hi)));
+    List<IShape> high = new ArrayList<>(shapes.subList(start(hi), ends[hi]));
+    int i = start(lo);
+    for (List<IShape> part : Arrays.asList(high, between, low)) {
+      for (IShape s : part) {
+        shapes.set(i++, s);
+      }
+    }
+    int shift = high.size() - low.size();
+    for (int l = lo; l < hi; l++) {
+      ends[l] += shift;
+    }
+  }
+
+  /**
+   * Put the list back in order from scratch, for changes that touch too much of it to make one
+   * shape at a time.
+   *
+   * @param byLayer the names of the shapes on each layer, in order
+   * @param current the shapes of the model by name; names on a layer that their shape is not on
+   *                are skipped
+   */
+  void rebuild(List<Map<String, IShape>> byLayer, Map<String, IShape> current) {
+    shapes.clear();
+    this.layers = 0;
+    for (int l = 0; l < byLayer.size(); l++) {
+      ensureLayers(l + 1);
+      for (String name : byLayer.get(l).keySet()) {
+        IShape s = current.get(name);
+        if (s != null && s.getLayer() == l) {
+          shapes.add(s);
+        }
+      }
+      ends[l] = shapes.size();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package cs3500.animator.model;
+
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.ShapeState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of an {@link AnimatorModel} as it was at one moment, published by a {@link
+ * ConcurrentAnimatorModel} after each change. The snapshot owns copies of the shapes of the model,
+ * which it never changes and never hands out, so any number of threads can read it while the model
+ * goes on changing. Copies of shapes share their keyframes and motions with the shapes they were
+ * copied from until either is edited, so taking a snapshot does not regenerate any motions. The
+ * shapes it hands out are copies of its own, which, being copies already, are not written to by
+ * being copied again.
+ */
+public final class ModelSnapshot {
+
+  private final long version;
+  private final int[] bounds;
+  private final int firstTick;
+  private final int lastTick;
+  private final IShape[] shapes;
+  // names of the shapes on each layer
+  private final List<List<String>> layers;
+
+  /**
+   * Take a snapshot of the given model, which must not change while the snapshot is taken.
+   *
+   * @param version the number of changes made to the model before this snapshot
+   * @param model   the model
+   */
+  ModelSnapshot(long version, AnimatorModel model) {
+    this.version = version;
+    this.bounds = model.getBounds();
+    this.firstTick = model.getFirstTick();
+    this.lastTick = model.getLastTick();
+    this.shapes = model.getShapes().values().toArray(new IShape[0]);
+    List<List<String>> names = new ArrayList<>();
+    for (List<String> layer : layerNames(model)) {
+      names.add(Collections.unmodifiableList(layer));
+    }
+    this.layers = Collections.unmodifiableList(names);
+  }
+
+  /**
+   * Get the names of the shapes on each layer of a model. The shapes of the model are copied once
+   * already for the snapshot, so the names are read without copying them again where the model
+   * allows it.
+   *
+   * @param model the model
+   * @return a new list of the names on each layer
+   */
+  private static List<List<String>> layerNames(AnimatorModel model) {
+    if (model instanceof AnimatorModelImpl) {
+      return ((AnimatorModelImpl) model).getLayerNames();
+    }
+    List<List<String>> names = new ArrayList<>();
+    for (Map<String, IShape> layer : model.getShapesByLayer()) {
+      names.add(new ArrayList<>(layer.keySet()));
+    }
+    return names;
+  }
+
+  /**
+   * Get the number of changes that had been made to the model when this snapshot was taken. Later
+   * snapshots of the same model have larger versions.
+   *
+   * @return the version of the model
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Get the bounds of the display of the model.
+   *
+   * @return the x, y, width and height of the display
+   */
+  public int[] getBounds() {
+    return bounds.clone();
+  }
+
+  /**
+   * Get the first tick of the animation.
+   *
+   * @return the first tick at which any shape has a keyframe, or 0 if no shape has one
+   */
+  public int getFirstTick() {
+    return firstTick;
+  }
+
+  /**
+   * Get the last tick of the animation.
+   *
+   * @return the last tick at which any shape has a keyframe, or 0 if there are no shapes
+   */
+  public int getLastTick() {
+    return lastTick;
+  }
+
+  /**
+   * Get the number of shapes in the snapshot.
+   *
+   * @return the number of shapes
+   */
+  public int size() {
+    return shapes.length;
+  }
+
+  /**
+   * Get copies of the shapes of the model, in the state they were in when the snapshot was taken.
+   *
+   * @return a new map of the names of the shapes to copies of them, in the order of {@link
+   *         AnimatorModel#getShapes()}
+   */
+  public Map<String, IShape> getShapes() {
+    Map<String, IShape> copies = new LinkedHashMap<>();
+    for (IShape s : shapes) {
+      copies.put(s.getName(), s.copy());
+    }
+    return copies;
+  }
+
+  /**
+   * Get copies of the shapes of the model organized by layer, as by {@link
+   * AnimatorModel#getShapesByLayer()}.
+   *
+   * @return a new list of the shapes on each layer, by name
+   */
+  public List<Map<String, IShape>> getShapesByLayer() {
+    Map<String, IShape> copies = getShapes();
+    List<Map<String, IShape>> byLayer = new ArrayList<>();
+    for (List<String> layer : layers) {
+      Map<String, IShape> shapesOnLayer = new LinkedHashMap<>();
+      for (String name : layer) {
+        shapesOnLayer.put(name, copies.get(name));
+      }
+      byLayer.add(shapesOnLayer);
+    }
+    return byLayer;
+  }
+
+  /**
+   * Get copies of the shapes of the model in the order they are drawn, as by {@link
+   * AnimatorModel#getDrawList()}.
+   *
+   * @return a new list of copies of the shapes, by layer
+   */
+  public List<IShape> getDrawList() {
+    List<Map<String, IShape>> byLayer = getShapesByLayer();
+    List<IShape> drawList = new ArrayList<>(shapes.length);
+    for (int l = 0; l < byLayer.size(); l++) {
+      for (IShape s : byLayer.get(l).values()) {
+        if (s.getLayer() == l) {
+          drawList.add(s);
+        }
+      }
+    }
+    return drawList;
+  }
+
+  /**
+   * Evaluate every shape at t = ticks, as by {@link AnimatorModel#evaluateAll(int, ShapeState[])}.
+   *
+   * @param ticks  the ticks since the animation started
+   * @param buffer the states to reuse, or null
+   * @return the states of the shapes
+   */
+  public ShapeState[] evaluateAll(int ticks, ShapeState[] buffer) {
+    ShapeState[] states = buffer;
+    if (states == null || states.length != shapes.length) {
+      states = new ShapeState[shapes.length];
+      if (buffer != null) {
+        System.arraycopy(buffer, 0, states, 0, Math.min(buffer.length, states.length));
+      }
+    }
+    for (int i = 0; i < shapes.length; i++) {
+      if (states[i] == null) {
+        states[i] = new ShapeState();
+      }
+      shapes[i].evaluate(ticks, states[i]);
+    }
+    return states;
+  }
+
+  /**
+   * Find the shapes that might cover part of a rectangle during a span of ticks, as by {@link
+   * AnimatorModel#shapesDuring(double, double, double, double, int, int)}.
+   *
+   * @param x      the x coordinate of the top left corner of the rectangle
+   * @param y      the y coordinate of the top left corner of the rectangle
+   * @param width  the width of the rectangle
+   * @param height the height of the rectangle
+   * @param t1     the first tick of the span, inclusive
+   * @param t2     the last tick of the span, inclusive
+   * @return the names of the shapes
+   * @throws IllegalArgumentException if t1 is after t2
+   */
+  public List<String> shapesDuring(double x, double y, double width, double height, int t1,
+      int t2) {
+    if (t1 > t2) {
+      throw new IllegalArgumentException("Span of ticks cannot end before it starts!");
+    }
+    List<String> names = new ArrayList<>();
+    for (IShape s : shapes) {
+      if (s.mayIntersect(x, y, x + width, y + height, t1, t2)) {
+        names.add(s.getName());
+      }
+    }
+    return names;
+  }
+}
@@ -0,0 +1,97 @@
+package cs3500.animator.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the body of a loop over a range of indices, splitting the range across a {@link
+ * ForkJoinPool} when it is large enough for that to pay off. The model uses it to update shapes,
+ * which are independent of each other within a tick, so the result is the same as running the
+ * loop in order.
+ */
+final class ParallelLoop {
+
+  // fewest indices worth handing to another thread
+  private static final int MIN_GRAIN = 256;
+
+  /**
+   * This class only has static methods.
+   */
+  private ParallelLoop() {
+  }
+
+  /**
+   * Run the body for every index from 0 (inclusive) to n (exclusive). The loop runs in parallel
+   * on the pool if there is a pool with more than one thread and n is at least the threshold, and
+   * otherwise in order on the calling thread. Either way it has finished when this method returns.
+   *
+   * @param pool      the pool to run on, or null to run in order
+   * @param threshold the smallest number of indices to run in parallel
+   * @param n         the number of indices
+   * @param body      what to do for each index
+   */
+  static void run(ForkJoinPool pool, int threshold, int n, IntConsumer body) {
+    if (!inParallel(pool, threshold, n)) {
+      for (int i = 0; i < n; i++) {
+        body.accept(i);
+      }
+      return;
+    }
+    int grain = Math.max(MIN_GRAIN, n / (pool.getParallelism() * 8));
+    pool.invoke(new Range(body, 0, n, grain));
+  }
+
+  /**
+   * Determine whether {@link #run(ForkJoinPool, int, int, IntConsumer)} would run a loop in
+   * parallel, so that callers can run a loop in order without creating a body for it.
+   *
+   * @param pool      the pool to run on, or null to run in order
+   * @param threshold the smallest number of indices to run in parallel
+   * @param n         the number of indices
+   * @return whether the loop would run in parallel
+   */
+  static boolean inParallel(ForkJoinPool pool, int threshold, int n) {
+    return pool != null && pool.getParallelism() >= 2 && n >= threshold && n >= 2;
+  }
+
+  /**
+   * A part of the range of a loop, which is split in half until it is no longer than the grain.
+   */
+  private static final class Range extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient IntConsumer body;
+    private final int from;
+    private final int to;
+    private final int grain;
+
+    /**
+     * Construct a part of a loop.
+     *
+     * @param body  what to do for each index
+     * @param from  the first index, inclusive
+     * @param to    the last index, exclusive
+     * @param grain the most indices to run without splitting
+     */
+    Range(IntConsumer body, int from, int to, int grain) {
+      this.body = body;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= grain) {
+        for (int i = from; i < to; i++) {
+          body.accept(i);
+        }
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(new Range(body, from, mid, grain), new Range(body, mid, to, grain));
+      }
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the bounding boxes of a fixed number of items, identified by dense ids, that
+ * answers which items overlap a rectangle without looking at every item. Each item is listed in
+ * every cell its box overlaps. The grid covers a region chosen when it is built, and boxes outside
+ * of that region are listed in the cells on its edge, so the answers stay correct however far an
+ * item moves; they are only fastest while items stay inside the region.
+ *
+ * <p>Moving an item with {@link #put(int, double, double, double, double)} only relists it if the
+ * set of cells its box overlaps has changed, which for small movements it usually has not, so the
+ * grid can be kept up to date by putting whichever items have moved.
+ */
+public final class SpatialGrid {
+
+  private final double minX;
+  private final double minY;
+  private final double cellWidth;
+  private final double cellHeight;
+  private final int cols;
+  private final int rows;
+  // ids of the items listed in each cell, in the first cellSize[c] entries of cells[c]
+  private final int[][] cells;
+  private final int[] cellSize;
+  // cells overlapped by each item, with col0[id] == -1 if the item is not in the grid
+  private final int[] col0;
+  private final int[] row0;
+  private final int[] col1;
+  private final int[] row1;
+  private final double[] boxMinX;
+  private final double[] boxMinY;
+  private final double[] boxMaxX;
+  private final double[] boxMaxY;
+  // query that last found each item, so that an item in several cells is found once
+  private final int[] seen;
+  private int queries;
+  private int[] found;
+
+  /**
+   * Build an empty grid of the given number of columns and rows over the given region.
+   *
+   * @param minX     the left edge of the region
+   * @param minY     the top edge of the region
+   * @param maxX     the right edge of the region
+   * @param maxY     the bottom edge of the region
+   * @param cols     the number of columns of cells
+   * @param rows     the number of rows of cells
+   * @param capacity the number of items, whose ids are 0 to capacity - 1
+   * @throws IllegalArgumentException if there are no columns or rows, or the capacity is negative
+   */
+  public SpatialGrid(double minX, double minY, double maxX, double maxY, int cols, int rows,
+      int capacity) {
+    if (cols < 1 || rows < 1) {
+      throw new IllegalArgumentException("A grid needs at least one cell!");
+    }
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative!");
+    }
+    this.minX = minX;
+    this.minY = minY;
+    this.cols = cols;
+    this.rows = rows;
+    this.cellWidth = Math.max((maxX - minX) / cols, Double.MIN_NORMAL);
+    this.cellHeight = Math.max((maxY - minY) / rows, Double.MIN_NORMAL);
+    this.cells = new int[cols * rows][];
+    this.cellSize = new int[cols * rows];
+    this.col0 = new int[capacity];
+    this.row0 = new int[capacity];
+    this.col1 = new int[capacity];
+    this.row1 = new int[capacity];
+    this.boxMinX = new double[capacity];
+    this.boxMinY = new double[capacity];
+    this.boxMaxX = new double[capacity];
+    this.boxMaxY = new double[capacity];
+    this.seen = new int[capacity];
+    this.found = new int[16];
+    Arrays.fill(col0, -1);
+  }
+
+  /**
+   * Add an item to the grid with the given box, or move it to that box if it is already in it.
+   *
+   * @param id   the id of the item
+   * @param minX the left edge of the box
+   * @param minY the top edge of the box
+   * @param maxX the right edge of the box
+   * @param maxY the bottom edge of the box
+   */
+  public void put(int id, double minX, double minY, double maxX, double maxY) {
+    int c0 = col(minX);
+    int r0 = row(minY);
+    int c1 = col(maxX);
+    int r1 = row(maxY);
+    boxMinX[id] = minX;
+    boxMinY[id] = minY;
+    boxMaxX[id] = maxX;
+    boxMaxY[id] = maxY;
+    if (col0[id] == c0 && row0[id] == r0 && col1[id] == c1 && row1[id] == r1) {
+      return;
+    }
+    remove(id);
+    col0[id] = c0;
+    row0[id] = r0;
+    col1[id] = c1;
+    row1[id] = r1;
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        add(r * cols + c, id);
+      }
+    }
+  }
+
+  /**
+   * Remove an item from the grid, if it is in it.
+   *
+   * @param id the id of the item
+   */
+  public void remove(int id) {
+    if (col0[id] == -1) {
+      return;
+    }
+    for (int r = row0[id]; r <= row1[id]; r++) {
+      for (int c = col0[id]; c <= col1[id]; c++) {
+        int cell = r * cols + c;
+        int[] ids = cells[cell];
+        for (int i = 0; i < cellSize[cell]; i++) {
+          if (ids[i] == id) {
+            ids[i] = ids[--cellSize[cell]];
+            break;
+          }
+        }
+      }
+    }
+    col0[id] = -1;
+  }
+
+  /**
+   * Find the items whose boxes overlap the given rectangle, edges included, in no particular order.
+   *
+   * @param minX the left edge of the rectangle
+   * @param minY the top edge of the rectangle
+   * @param maxX the right edge of the rectangle
+   * @param maxY the bottom edge of the rectangle
+   * @return the ids of the items
+   */
+  public int[] query(double minX, double minY, double maxX, double maxY) {
+    int n = 0;
+    queries++;
+    for (int r = row(minY); r <= row(maxY); r++) {
+      for (int c = col(minX); c <= col(maxX); c++) {
+        int cell = r * cols + c;
+        int[] ids = cells[cell];
+        for (int i = 0; i < cellSize[cell]; i++) {
+          int id = ids[i];
+          if (seen[id] != queries && boxMinX[id] <= maxX && boxMaxX[id] >= minX
+              && boxMinY[id] <= maxY && boxMaxY[id] >= minY) {
+            seen[id] = queries;
+            if (n == found.length) {
+              found = Arrays.copyOf(found, n * 2);
+            }
+            found[n++] = id;
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(found, n);
+  }
+
+  /**
+   * List an item in a cell.
+   *
+   * @param cell the index of the cell
+   * @param id   the id of the item
+   */
+  private void add(int cell, int id) {
+    if (cells[cell] == null) {
+      cells[cell] = new int[4];
+    } else if (cellSize[cell] == cells[cell].length) {
+      cells[cell] = Arrays.copyOf(cells[cell], cellSize[cell] * 2);
+    }
+    cells[cell][cellSize[cell]++] = id;
+  }
+
+  /**
+   * Get the column of cells containing an x coordinate, or the nearest column to it.
+   *
+   * @param x the x coordinate
+   * @return the column
+   */
+  private int col(double x) {
+    double c = Math.floor((x - minX) / cellWidth);
+    return c < 0 ? 0 : c >= cols ? cols - 1 : (int) c;
+  }
+
+  /**
+   * Get the row of cells containing a y coordinate, or the nearest row to it.
+   *
+   * @param y the y coordinate
+   * @return the row
+   */
+  private int row(double y) {
+    double r = Math.floor((y - minY) / cellHeight);
+    return r < 0 ? 0 : r >= rows ? rows - 1 : (int) r;
+  }
+}
@@ -0,0 +1,183 @@
+package cs3500.animator.model;
+
+import cs3500.animator.model.shape.IShape;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A timeline of the shapes of a model that lets an update touch only the shapes whose state can
+ * change at that tick. A shape can only change from its start time until the tick after its end
+ * time, when it disappears, so the schedule keeps the shapes sorted by start time and an active set
+ * of the shapes inside that window. When the model is played forward one tick at a time, each
+ * update admits the shapes that start at that tick, applies the motions of the active shapes and
+ * retires the ones that have ended, which costs time in the number of active shapes rather than in
+ * the size of the scene. Any other update, such as a jump back to the start, updates every shape
+ * and rebuilds the active set. When at least a threshold of shapes is to be updated, their motions
+ * are applied in parallel on a {@link ForkJoinPool}.
+ *
+ * <p>The schedule holds the start and end times the shapes had when it was built, so the model
+ * replaces it whenever a shape or its keyframes change.
+ */
+final class UpdateSchedule {
+
+  private final IShape[] all;
+  // shapes that have keyframes, sorted by start time, and those start times
+  private final IShape[] byStart;
+  private final int[] starts;
+  private final IShape[] active;
+  // shapes the last update applied motions to, unless it applied them to every shape
+  private final IShape[] updated;
+  private int updatedCount;
+  private boolean updatedAll;
+  private final ForkJoinPool pool;
+  private final int threshold;
+  private int activeCount;
+  // index in byStart of the next shape to start
+  private int next;
+  private int lastTick;
+  private boolean started;
+
+  /**
+   * Build a schedule of the given shapes.
+   *
+   * @param shapes    the shapes of the model
+   * @param pool      the pool to update shapes in parallel on, or null to update them in order
+   * @param threshold the smallest number of shapes to update in parallel
+   */
+  UpdateSchedule(Collection<IShape> shapes, ForkJoinPool pool, int threshold) {
+    this.all = shapes.toArray(new IShape[0]);
+    this.byStart = Arrays.stream(all)
+        .filter(s -> s.getStartTime() != Integer.MAX_VALUE)
+        .sorted(Comparator.comparingInt(IShape::getStartTime))
+        .toArray(IShape[]::new);
+    this.starts = new int[byStart.length];
+    for (int i = 0; i < byStart.length; i++) {
+      starts[i] = byStart[i].getStartTime();
+    }
+    this.active = new IShape[byStart.length];
+    this.updated = new IShape[byStart.length];
+    this.pool = pool;
+    this.threshold = threshold;
+    this.started = false;
+  }
+
+  /**
+   * Apply the motions of the shapes to themselves at the given tick.
+   *
+   * @param ticks the ticks since the animation started
+   */
+  void update(int ticks) {
+    if (started && ticks == lastTick + 1) {
+      step(ticks);
+    } else {
+      reset(ticks);
+    }
+    this.lastTick = ticks;
+    this.started = true;
+  }
+
+  /**
+   * Update the shapes at the tick after the last update, touching only the active shapes.
+   *
+   * @param ticks the ticks since the animation started
+   */
+  private void step(int ticks) {
+    while (next < byStart.length && starts[next] <= ticks) {
+      active[activeCount++] = byStart[next++];
+    }
+    applyMotions(active, activeCount, ticks);
+    System.arraycopy(active, 0, updated, 0, activeCount);
+    this.updatedCount = activeCount;
+    this.updatedAll = false;
+    int i = 0;
+    while (i < activeCount) {
+      IShape s = active[i];
+      if (ticks > s.getEndTime()) {
+        // it has just been hidden, and nothing changes it from now on
+        activeCount--;
+        active[i] = active[activeCount];
+        active[activeCount] = null;
+      } else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Update every shape at the given tick and rebuild the active set from scratch.
+   *
+   * @param ticks the ticks since the animation started
+   */
+  private void reset(int ticks) {
+    applyMotions(all, all.length, ticks);
+    this.updatedAll = true;
+    Arrays.fill(active, 0, activeCount, null);
+    this.activeCount = 0;
+    // binary search for the first shape that starts after this tick
+    int lo = 0;
+    int hi = starts.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] <= ticks) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    this.next = lo;
+    for (int j = 0; j < next; j++) {
+      if (ticks <= byStart[j].getEndTime()) {
+        active[activeCount++] = byStart[j];
+      }
+    }
+  }
+
+  /**
+   * Determine whether the last update applied motions to every shape, rather than only to the
+   * ones returned by {@link #updated(int)}.
+   *
+   * @return whether every shape was updated
+   */
+  boolean updatedAll() {
+    return updatedAll;
+  }
+
+  /**
+   * Get the number of shapes the last update applied motions to, if it did not update them all.
+   *
+   * @return the number of shapes updated
+   */
+  int updatedCount() {
+    return updatedCount;
+  }
+
+  /**
+   * Get one of the shapes the last update applied motions to, if it did not update them all.
+   * Shapes that were not updated have not changed since the update before.
+   *
+   * @param i the index of the shape, less than {@link #updatedCount()}
+   * @return the shape
+   */
+  IShape updated(int i) {
+    return updated[i];
+  }
+
+  /**
+   * Apply the motions of the first n of the given shapes at the given tick.
+   *
+   * @param shapes the shapes
+   * @param n      the number of shapes to update
+   * @param ticks  the ticks since the animation started
+   */
+  private void applyMotions(IShape[] shapes, int n, int ticks) {
+    if (ParallelLoop.inParallel(pool, threshold, n)) {
+      ParallelLoop.run(pool, threshold, n, i -> shapes[i].applyMotion(ticks));
+    } else {
+      for (int i = 0; i < n; i++) {
+        shapes[i].applyMotion(ticks);
+      }
+    }
+  }
+}
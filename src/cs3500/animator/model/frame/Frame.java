@@ -3,21 +3,29 @@ package cs3500.animator.model.frame;
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.model.shape.Position2D;
 import java.awt.Color;
+import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * Class representing a frame of an object in an animation with an associated time, position, color,
- * width and height of the object.
+ * width and height of the object. A frame is a value: its position and color are kept as
+ * primitives, two frames are equal if all of their fields are, and the hash code is computed once
+ * when the frame is constructed.
  */
-public class Frame implements IFrame {
+public class Frame implements IFrame, Serializable {
+
+  private static final long serialVersionUID = 2L;
 
   private final int t;
   private final String name;
-  private final Position2D pos;
+  private final double x;
+  private final double y;
+  private final int rgb;
   private final Color color;
   private final double w;
   private final double h;
   private final double heading;
+  private final int hash;
 
   /**
    * Construct a new key frame object with the passed in parameters.
@@ -38,12 +46,22 @@ public class Frame implements IFrame {
     Objects.requireNonNull(color, "Cannot pass a null color to a frame!");
 
     this.t = t;
-    this.pos = pos;
+    this.x = pos.getX();
+    this.y = pos.getY();
+    this.rgb = color.getRGB();
     this.color = color;
     this.w = w;
     this.h = h;
     this.name = name;
     this.heading = heading;
+    int hashCode = t;
+    hashCode = 31 * hashCode + name.hashCode();
+    hashCode = 31 * hashCode + Double.hashCode(x);
+    hashCode = 31 * hashCode + Double.hashCode(y);
+    hashCode = 31 * hashCode + Double.hashCode(w);
+    hashCode = 31 * hashCode + Double.hashCode(h);
+    hashCode = 31 * hashCode + rgb;
+    this.hash = 31 * hashCode + Double.hashCode(heading);
   }
 
   /**
@@ -63,7 +81,7 @@ public class Frame implements IFrame {
   @Override
   public String toString() {
     return String
-        .format("%d %d %d %d %d %d %d %d", t, (int) pos.getX(), (int) pos.getY(), (int) w, (int) h,
+        .format("%d %d %d %d %d %d %d %d", t, (int) x, (int) y, (int) w, (int) h,
             color.getRed(),
             color.getGreen(),
             color.getBlue());
@@ -71,10 +89,10 @@ public class Frame implements IFrame {
 
   @Override
   public void apply(IShape shape) {
-    shape.setColor(color);
+    shape.setRGB(rgb);
     shape.setWidth(w);
     shape.setHeight(h);
-    shape.setPosition(pos);
+    shape.setPosition(x, y);
     shape.setHeading(heading);
   }
 
@@ -90,7 +108,22 @@ public class Frame implements IFrame {
 
   @Override
   public Position2D getPos() {
-    return this.pos;
+    return new Position2D(x, y);
+  }
+
+  @Override
+  public double getX() {
+    return this.x;
+  }
+
+  @Override
+  public double getY() {
+    return this.y;
+  }
+
+  @Override
+  public int getRGB() {
+    return this.rgb;
   }
 
   @Override
@@ -114,23 +147,33 @@ public class Frame implements IFrame {
   }
 
   /**
-   * Test equality using the toString() method, two identical frames will always return the same
-   * value.
+   * Two frames are equal if they have the same time, name, position, size, color and heading.
    */
   @Override
   public boolean equals(Object that) {
-    if (that instanceof Frame) {
-      return that.toString().equals(this.toString());
-    } else {
+    if (this == that) {
+      return true;
+    }
+    if (!(that instanceof Frame)) {
       return false;
     }
+    Frame f = (Frame) that;
+    return hash == f.hash
+        && t == f.t
+        && rgb == f.rgb
+        && Double.compare(x, f.x) == 0
+        && Double.compare(y, f.y) == 0
+        && Double.compare(w, f.w) == 0
+        && Double.compare(h, f.h) == 0
+        && Double.compare(heading, f.heading) == 0
+        && name.equals(f.name);
   }
 
   /**
-   * Use the Objects.hash() method to hash the toString() method to a value.
+   * Return the hash code computed from all of the fields when the frame was constructed.
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.toString());
+    return hash;
   }
 }
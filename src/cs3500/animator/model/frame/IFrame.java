@@ -6,9 +6,8 @@ import java.awt.Color;
 
 /**
  * Interface for the Frame class, which represents the values of a shape at some point in time
- * (position, color, and dimensions). Two frames are equal if their string representations (and
- * hence all of their values) are equal, and their hashcodes will be equal if their string
- * representations are equal.
+ * (position, color, and dimensions). Two frames are equal if all of their values are equal, and
+ * equal frames have equal hash codes.
  */
 public interface IFrame {
 
@@ -26,6 +25,20 @@ public interface IFrame {
    */
   Position2D getPos();
 
+  /**
+   * Get the x coordinate of the shape in this frame without creating a {@link Position2D}.
+   *
+   * @return the x coordinate of the shape in this frame.
+   */
+  double getX();
+
+  /**
+   * Get the y coordinate of the shape in this frame without creating a {@link Position2D}.
+   *
+   * @return the y coordinate of the shape in this frame.
+   */
+  double getY();
+
   /**
    * Get the color of the shape in this frame.
    *
@@ -33,6 +46,13 @@ public interface IFrame {
    */
   Color getColor();
 
+  /**
+   * Get the color of the shape in this frame as a packed RGB value.
+   *
+   * @return the color of the shape in this frame, as returned by {@link Color#getRGB()}.
+   */
+  int getRGB();
+
   /**
    * Get the width of the shape in this frame.
    *
@@ -1,13 +1,16 @@
 package cs3500.animator.model.motion;
 
 import cs3500.animator.model.shape.IShape;
+import java.io.Serializable;
 
 /**
  * The abstract class AMotion represents the base class for various types of motions, including
  * moving, changing color, and resizing. It holds the start and end time of the motion, as well as
  * the shape the motion is being performed on.
  */
-public abstract class AMotion implements Motion {
+public abstract class AMotion implements Motion, Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   protected final int start;
   protected final int end;
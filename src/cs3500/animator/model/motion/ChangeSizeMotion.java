@@ -10,6 +10,8 @@ import cs3500.animator.model.shape.IShape;
  */
 public final class ChangeSizeMotion extends AMotion {
 
+  private static final long serialVersionUID = 1L;
+
   private final double dW;
   private final double dH;
   private final double startW;
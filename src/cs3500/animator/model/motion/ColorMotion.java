@@ -9,6 +9,8 @@ import java.awt.Color;
  */
 public final class ColorMotion extends AMotion {
 
+  private static final long serialVersionUID = 1L;
+
   private final Color startColor;
   private final Color endColor;
   //change in r, g, b per tick
@@ -49,12 +51,12 @@ public final class ColorMotion extends AMotion {
   public void apply(IShape shape, int ticks) {
     if (ticks >= super.start && ticks < super.end) {
       int timeDif = (ticks - super.start);
-      Color newColor = new Color((int) (this.startColor.getRed() + (dR * timeDif)),
-          (int) (this.startColor.getGreen() + (dG * timeDif)),
-          (int) (this.startColor.getBlue() + (dB * timeDif)));
-      shape.setColor(newColor);
+      int r = (int) (this.startColor.getRed() + (dR * timeDif));
+      int g = (int) (this.startColor.getGreen() + (dG * timeDif));
+      int b = (int) (this.startColor.getBlue() + (dB * timeDif));
+      shape.setRGB(r << 16 | g << 8 | b);
     } else if (ticks == super.end) {
-      shape.setColor(new Color(endColor.getRGB()));
+      shape.setRGB(endColor.getRGB());
     }
   }
 
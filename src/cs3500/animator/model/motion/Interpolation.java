@@ -0,0 +1,65 @@
+package cs3500.animator.model.motion;
+
+/**
+ * Static methods that compute the value of a property between two keyframes with the same
+ * arithmetic as the {@link Motion}s generated between them by the {@link MotionFactory}, so that
+ * anything that evaluates keyframes directly agrees exactly with playing the motions back.
+ */
+public final class Interpolation {
+
+  /**
+   * This class only has static methods.
+   */
+  private Interpolation() {
+  }
+
+  /**
+   * Interpolate a position, dimension or heading at a time between two keyframes, as a {@link
+   * MoveMotion}, {@link ChangeSizeMotion} or {@link Rotation} does.
+   *
+   * @param v1    the value at the first keyframe
+   * @param v2    the value at the second keyframe
+   * @param start the time of the first keyframe
+   * @param end   the time of the second keyframe, which is after the first
+   * @param ticks the time to interpolate at
+   * @return the value at the given time
+   */
+  public static double valueAt(double v1, double v2, int start, int end, int ticks) {
+    return v1 + ((v2 - v1) / (end - start)) * (ticks - start);
+  }
+
+  /**
+   * Interpolate a color channel at a time strictly before the second of two keyframes, as a {@link
+   * ColorMotion} does, which divides the change in the channel by the length of the motion in
+   * integer arithmetic.
+   *
+   * @param c1    the channel at the first keyframe
+   * @param c2    the channel at the second keyframe
+   * @param start the time of the first keyframe
+   * @param end   the time of the second keyframe, which is after the first
+   * @param ticks the time to interpolate at
+   * @return the channel at the given time
+   */
+  public static int channelAt(int c1, int c2, int start, int end, int ticks) {
+    double d = (c1 - c2) / (start - end);
+    return (int) (c1 + (d * (ticks - start)));
+  }
+
+  /**
+   * Interpolate an opaque color at a time strictly before the second of two keyframes, channel by
+   * channel as in {@link #channelAt(int, int, int, int, int)}.
+   *
+   * @param rgb1  the color at the first keyframe as a packed RGB value
+   * @param rgb2  the color at the second keyframe as a packed RGB value
+   * @param start the time of the first keyframe
+   * @param end   the time of the second keyframe, which is after the first
+   * @param ticks the time to interpolate at
+   * @return the color at the given time as a packed RGB value
+   */
+  public static int rgbAt(int rgb1, int rgb2, int start, int end, int ticks) {
+    return 0xFF000000
+        | channelAt(rgb1 >> 16 & 0xFF, rgb2 >> 16 & 0xFF, start, end, ticks) << 16
+        | channelAt(rgb1 >> 8 & 0xFF, rgb2 >> 8 & 0xFF, start, end, ticks) << 8
+        | channelAt(rgb1 & 0xFF, rgb2 & 0xFF, start, end, ticks);
+  }
+}
@@ -27,7 +27,7 @@ public class MotionFactory {
     Objects.requireNonNull(f1, "Cannot generate a motion with a null end frame");
     List<Motion> motions = new ArrayList<>();
     if (f1.getName().equals(f2.getName())) {
-      if (!f1.getColor().equals(f2.getColor())) {
+      if (f1.getRGB() != f2.getRGB()) {
         motions.add(new ColorMotion(f1.getTime(), f2.getTime(), f1.getName(), f1.getColor(),
             f2.getColor()));
       }
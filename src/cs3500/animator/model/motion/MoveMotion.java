@@ -9,6 +9,8 @@ import cs3500.animator.model.shape.IShape;
  */
 public final class MoveMotion extends AMotion {
 
+  private static final long serialVersionUID = 1L;
+
   private final Position2D startPos;
   private final Position2D endPos;
   //change in x and y per tick
@@ -46,9 +48,8 @@ public final class MoveMotion extends AMotion {
   public void apply(IShape shape, int ticks) {
     if (ticks >= super.start && ticks <= super.end) {
       int timeDif = (ticks - super.start);
-      Position2D newPos = new Position2D(this.startPos.getX() + (dX * timeDif),
+      shape.setPosition(this.startPos.getX() + (dX * timeDif),
           this.startPos.getY() + (dY * timeDif));
-      shape.setPosition(newPos);
     }
   }
 
@@ -10,6 +10,8 @@ import cs3500.animator.model.shape.IShape;
  */
 public class Rotation extends AMotion {
 
+  private static final long serialVersionUID = 1L;
+
   private final double heading1;
   private final double heading2;
 
@@ -8,6 +8,8 @@ import java.awt.Color;
  */
 public class Ellipse extends Shape {
 
+  private static final long serialVersionUID = 1L;
+
   /**
    * Default constructor creates an ellipse object that is black with its position set to (0, 0),
    * its dimensions set to 0x0 and its name set to the given name.
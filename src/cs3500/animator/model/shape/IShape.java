@@ -26,6 +26,21 @@ public interface IShape {
    */
   void setColor(Color c);
 
+  /**
+   * Return the color of the {@link IShape} as a packed RGB value, without creating a {@link Color}.
+   *
+   * @return the color of the shape as returned by {@link Color#getRGB()}
+   */
+  int getRGB();
+
+  /**
+   * Set the color of the {@link IShape} from a packed RGB value, without creating a {@link Color}.
+   * The color is always opaque, whatever the alpha bits of the value.
+   *
+   * @param rgb the color to be assigned to the shape, as returned by {@link Color#getRGB()}
+   */
+  void setRGB(int rgb);
+
   /**
    * Return a {@link Position2D} representing the position of the {@link IShape}.
    *
@@ -40,6 +55,28 @@ public interface IShape {
    */
   void setPosition(Position2D p);
 
+  /**
+   * Set the position of the {@link IShape} without creating a {@link Position2D}.
+   *
+   * @param x the x coordinate of the shape
+   * @param y the y coordinate of the shape
+   */
+  void setPosition(double x, double y);
+
+  /**
+   * Return the x coordinate of the {@link IShape} without creating a {@link Position2D}.
+   *
+   * @return the x coordinate of the shape
+   */
+  double getX();
+
+  /**
+   * Return the y coordinate of the {@link IShape} without creating a {@link Position2D}.
+   *
+   * @return the y coordinate of the shape
+   */
+  double getY();
+
   /**
    * Return the height of the {@link IShape}.
    *
@@ -115,6 +152,35 @@ public interface IShape {
    */
   IShape getStateAt(int ticks);
 
+  /**
+   * Write the properties that this shape has at t = ticks into the given state, interpolating
+   * between the keyframes around that time in the same way as the motions between them do. Before
+   * its first keyframe the shape has the properties of that keyframe, and after its last keyframe
+   * those of the last one. Neither this shape nor any of its motions is changed or copied.
+   *
+   * @param ticks the ticks since the animation started
+   * @param state the state to write the properties into
+   * @return the given state
+   * @throws NullPointerException if the state is null
+   */
+  ShapeState evaluate(int ticks, ShapeState state);
+
+  /**
+   * Determine whether this shape might cover any part of the given rectangle at some tick from t1
+   * to t2 while it is visible, without evaluating it. The answer comes from the box swept by the
+   * shape over each segment between two of its keyframes: it is never false when the shape does
+   * cover part of the rectangle, and it is only true when it does not if the shape is turning.
+   *
+   * @param minX the left edge of the rectangle
+   * @param minY the top edge of the rectangle
+   * @param maxX the right edge of the rectangle
+   * @param maxY the bottom edge of the rectangle
+   * @param t1   the first tick of the span, inclusive
+   * @param t2   the last tick of the span, inclusive
+   * @return whether the shape might cover part of the rectangle during the span
+   */
+  boolean mayIntersect(double minX, double minY, double maxX, double maxY, int t1, int t2);
+
   /**
    * Get the list of active motions of the shape.
    *
@@ -187,7 +253,10 @@ public interface IShape {
   List<IFrame> getKeyFrames();
 
   /**
-   * Set the keyframes of this shape.
+   * Set the keyframes of this shape, replacing any it already has, and generate the motions
+   * between them. The keyframes may be given in any order; if several are given for the same time
+   * only the first of them is kept. The shape takes on the state of its earliest keyframe and
+   * exists from the time of its earliest keyframe to the time of its latest.
    *
    * @param keyframes the list of keyframes to set this shape's keyframes to.
    */
@@ -240,4 +309,20 @@ public interface IShape {
    * @param l the layer to add this shape to
    */
   void setLayer(int l);
+
+  /**
+   * Get the id of the shape: a small number, given to it by the model it was added to, that no
+   * other shape of that model has. Copies of the shape have the same id, so views can keep what
+   * they know about each shape in arrays indexed by id rather than in maps keyed by name.
+   *
+   * @return the id of the shape, or -1 if it has not been added to a model
+   */
+  int getId();
+
+  /**
+   * Set the id of the shape. Only the model the shape is added to should set it.
+   *
+   * @param id the id of the shape
+   */
+  void setId(int id);
 }
@@ -0,0 +1,218 @@
+package cs3500.animator.model.shape;
+
+import cs3500.animator.model.frame.IFrame;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, time-sorted view of the keyframes of a shape. The times and properties of the
+ * keyframes are kept in parallel primitive arrays so that the keyframe, or the pair of keyframes,
+ * in effect at any time can be found by binary search in O(log k) time for k keyframes.
+ *
+ * <p>The timeline also keeps, for each segment between a keyframe and the next, the bounding box
+ * swept by the shape over the whole segment. Position and size change linearly over a segment, so
+ * the edges of the bounding box do too and the box of the two keyframes at its ends is exact. When
+ * the heading changes as well, the box is that of the circle around the shape at each end, which
+ * contains the shape at any heading, so it is larger than it needs to be but never too small.
+ */
+final class KeyframeTimeline implements Serializable {
+
+  private static final long serialVersionUID = 2L;
+
+  private final IFrame[] frames;
+  private final int[] times;
+  private final double[] x;
+  private final double[] y;
+  private final double[] width;
+  private final double[] height;
+  private final double[] heading;
+  private final int[] rgb;
+  // box swept by segment i, from keyframe i to keyframe i + 1, or by the only keyframe
+  private final double[] sweptMinX;
+  private final double[] sweptMinY;
+  private final double[] sweptMaxX;
+  private final double[] sweptMaxY;
+
+  /**
+   * Construct a timeline of the given keyframes.
+   *
+   * @param sorted keyframes sorted by time, with at most one keyframe for each time
+   */
+  KeyframeTimeline(List<IFrame> sorted) {
+    int k = sorted.size();
+    this.frames = sorted.toArray(new IFrame[0]);
+    this.times = new int[k];
+    this.x = new double[k];
+    this.y = new double[k];
+    this.width = new double[k];
+    this.height = new double[k];
+    this.heading = new double[k];
+    this.rgb = new int[k];
+    for (int i = 0; i < k; i++) {
+      IFrame f = frames[i];
+      times[i] = f.getTime();
+      x[i] = f.getX();
+      y[i] = f.getY();
+      width[i] = f.getWidth();
+      height[i] = f.getHeight();
+      heading[i] = f.getHeading();
+      rgb[i] = f.getRGB();
+    }
+    int segments = Math.max(1, k - 1);
+    this.sweptMinX = new double[k == 0 ? 0 : segments];
+    this.sweptMinY = new double[k == 0 ? 0 : segments];
+    this.sweptMaxX = new double[k == 0 ? 0 : segments];
+    this.sweptMaxY = new double[k == 0 ? 0 : segments];
+    for (int i = 0; i < sweptMinX.length; i++) {
+      int j = Math.min(i + 1, k - 1);
+      // a turning shape might point any way in between, so bound it by its circle
+      boolean turning = heading[i] != heading[j];
+      double hw1 = turning ? Math.hypot(width[i], height[i]) / 2
+          : ShapeBounds.halfWidth(width[i], height[i], heading[i]);
+      double hh1 = turning ? Math.hypot(width[i], height[i]) / 2
+          : ShapeBounds.halfHeight(width[i], height[i], heading[i]);
+      double hw2 = turning ? Math.hypot(width[j], height[j]) / 2
+          : ShapeBounds.halfWidth(width[j], height[j], heading[j]);
+      double hh2 = turning ? Math.hypot(width[j], height[j]) / 2
+          : ShapeBounds.halfHeight(width[j], height[j], heading[j]);
+      double cx1 = x[i] + width[i] / 2;
+      double cy1 = y[i] + height[i] / 2;
+      double cx2 = x[j] + width[j] / 2;
+      double cy2 = y[j] + height[j] / 2;
+      sweptMinX[i] = Math.min(cx1 - hw1, cx2 - hw2);
+      sweptMinY[i] = Math.min(cy1 - hh1, cy2 - hh2);
+      sweptMaxX[i] = Math.max(cx1 + hw1, cx2 + hw2);
+      sweptMaxY[i] = Math.max(cy1 + hh1, cy2 + hh2);
+    }
+  }
+
+  /**
+   * Determine whether the box swept by any segment that overlaps the given span of time overlaps
+   * the given rectangle. The segments are found by binary search, so this takes O(log k + s) time
+   * for the s segments in the span.
+   *
+   * @param minX the left edge of the rectangle
+   * @param minY the top edge of the rectangle
+   * @param maxX the right edge of the rectangle
+   * @param maxY the bottom edge of the rectangle
+   * @param t1   the first tick of the span
+   * @param t2   the last tick of the span
+   * @return whether any swept box in the span overlaps the rectangle, edges included
+   */
+  boolean sweptOverlaps(double minX, double minY, double maxX, double maxY, int t1, int t2) {
+    int k = times.length;
+    if (k == 0 || t2 < times[0] || t1 > times[k - 1]) {
+      return false;
+    }
+    // the segment in effect at t1, where the last keyframe is covered by the last segment
+    for (int i = Math.min(Math.max(0, indexAtOrBefore(t1)), sweptMinX.length - 1);
+        i < sweptMinX.length && times[i] <= t2; i++) {
+      if (sweptMinX[i] <= maxX && sweptMaxX[i] >= minX
+          && sweptMinY[i] <= maxY && sweptMaxY[i] >= minY) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the number of keyframes in this timeline.
+   *
+   * @return the number of keyframes
+   */
+  int size() {
+    return times.length;
+  }
+
+  /**
+   * Find the last keyframe at or before the given time.
+   *
+   * @param t the time in ticks
+   * @return the index of that keyframe, or -1 if every keyframe is after the given time
+   */
+  int indexAtOrBefore(int t) {
+    int i = Arrays.binarySearch(times, t);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  /**
+   * Get the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the keyframe
+   */
+  IFrame frameAt(int i) {
+    return frames[i];
+  }
+
+  /**
+   * Get the time of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the time of the keyframe in ticks
+   */
+  int timeAt(int i) {
+    return times[i];
+  }
+
+  /**
+   * Get the x coordinate of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the x coordinate
+   */
+  double xAt(int i) {
+    return x[i];
+  }
+
+  /**
+   * Get the y coordinate of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the y coordinate
+   */
+  double yAt(int i) {
+    return y[i];
+  }
+
+  /**
+   * Get the width of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the width
+   */
+  double widthAt(int i) {
+    return width[i];
+  }
+
+  /**
+   * Get the height of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the height
+   */
+  double heightAt(int i) {
+    return height[i];
+  }
+
+  /**
+   * Get the heading of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the heading in degrees
+   */
+  double headingAt(int i) {
+    return heading[i];
+  }
+
+  /**
+   * Get the color of the keyframe at the given index.
+   *
+   * @param i the index of the keyframe
+   * @return the color as a packed ARGB value
+   */
+  int rgbAt(int i) {
+    return rgb[i];
+  }
+}
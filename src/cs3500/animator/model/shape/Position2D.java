@@ -1,11 +1,14 @@
 package cs3500.animator.model.shape;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * This class represents a 2D position, which has an x and a y coordinate.
  */
-public final class Position2D {
+public final class Position2D implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private double x;
   private double y;
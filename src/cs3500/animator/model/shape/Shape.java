@@ -2,13 +2,14 @@ package cs3500.animator.model.shape;
 
 import cs3500.animator.model.frame.Frame;
 import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.motion.Interpolation;
 import cs3500.animator.model.motion.Motion;
 import cs3500.animator.model.motion.MotionFactory;
 import java.awt.Color;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,27 +21,37 @@ import java.util.Objects;
  * frames and motions that it uses to update its properties when the model calls its applyMotion()
  * method.
  */
-public abstract class Shape implements IShape {
+public abstract class Shape implements IShape, Serializable {
+
+  // changed whenever the serialized fields change, so that cached models of older shapes are
+  // rejected rather than read with fields missing
+  private static final long serialVersionUID = 3L;
+  private static final int OPAQUE = 0xFF000000;
+  private static final Motion[][] NO_SEGMENTS = new Motion[0][];
 
   private final String name;
+  //id given to the shape by its model, or -1
+  private int id;
   //current motions
   private final List<Motion> activeMotions;
-  private final Comparator<IFrame> compareFrames = new Comparator<IFrame>() {
+  private static final Comparator<IFrame> COMPARE_FRAMES = new Comparator<IFrame>() {
     @Override
     public int compare(IFrame o1, IFrame o2) {
       return o1.getTime() - o2.getTime();
     }
   };
   //map of times to keyframes
-  private final Map<Integer, IFrame> keyFramesMap;
+  private Map<Integer, IFrame> keyFramesMap;
   // what type of shape
   protected String type;
   //mappings of start times to motions
   private Map<Integer, List<Motion>> motionsByTime;
   //list of motions in chronological order
   private List<Motion> motions;
-  private Color color;
-  private Position2D position;
+  //color as a packed opaque RGB value, and position
+  private int rgb;
+  private double x;
+  private double y;
   private double width;
   private double height;
   //what time the shape first appear
@@ -53,6 +64,14 @@ public abstract class Shape implements IShape {
   // rotation
   private double heading;
   private int layer;
+  //sorted view of the key frames for looking up the frame in effect at a time
+  private KeyframeTimeline timeline;
+  //whether the key frame and motion collections are shared with a copy of this shape
+  private boolean shared;
+  //whether the motions are exactly the ones generated from the key frames
+  private boolean generated;
+  //motions generated between each key frame of the timeline and the next one
+  private Motion[][] segments;
 
   /**
    * Constructs a shape with a color, position, width, height, and unique name. Default heading of
@@ -75,8 +94,9 @@ public abstract class Shape implements IShape {
     } else if (!isValidDimension(width) || !isValidDimension(height)) {
       throw new IllegalArgumentException("Dimensions of a shape must be non-negative integers");
     }
-    this.color = color;
-    this.position = position;
+    this.rgb = OPAQUE | color.getRGB();
+    this.x = position.getX();
+    this.y = position.getY();
     this.width = width;
     this.height = height;
     this.name = name;
@@ -88,9 +108,13 @@ public abstract class Shape implements IShape {
     this.endTime = -1;
     this.visible = false;
     this.layer = layer;
+    this.id = -1;
 
     this.keyFrames = new ArrayList<>();
     this.keyFramesMap = new LinkedHashMap<>();
+    this.timeline = new KeyframeTimeline(keyFrames);
+    this.segments = NO_SEGMENTS;
+    this.generated = true;
   }
 
   /**
@@ -116,8 +140,9 @@ public abstract class Shape implements IShape {
     } else if (layer < 0) {
       throw new IllegalArgumentException("Cannot assign a shape a negative layer!");
     }
-    this.color = color;
-    this.position = position;
+    this.rgb = OPAQUE | color.getRGB();
+    this.x = position.getX();
+    this.y = position.getY();
     this.width = width;
     this.height = height;
     this.name = name;
@@ -129,14 +154,22 @@ public abstract class Shape implements IShape {
     this.endTime = -1;
     this.visible = false;
     this.layer = layer;
+    this.id = -1;
 
     this.keyFrames = new ArrayList<>();
     this.keyFramesMap = new LinkedHashMap<>();
+    this.timeline = new KeyframeTimeline(keyFrames);
+    this.segments = NO_SEGMENTS;
+    this.generated = true;
   }
 
   /**
    * Copy constructor to construct a shape object identical to the given shape object in everything
-   * aside from pointer references.
+   * aside from pointer references. When copying a {@code Shape} whose motions are the ones
+   * generated from its key frames, the copy shares the key frame and motion collections of the
+   * original, which makes copying O(1); both shapes copy the collections before changing them. A
+   * copy starts out sharing its collections, so copying a copy again does not write to it, and
+   * copies can be copied by any number of threads at once as long as none of them changes it.
    *
    * @param shape shape to be copied
    * @throws IllegalArgumentException if the shape passed in is {@code null}
@@ -145,8 +178,9 @@ public abstract class Shape implements IShape {
     if (shape == null) {
       throw new IllegalArgumentException("Cannot construct a null shape");
     }
-    this.color = shape.getColor();
-    this.position = shape.getPosition();
+    this.rgb = shape.getRGB();
+    this.x = shape.getX();
+    this.y = shape.getY();
     this.width = shape.getWidth();
     this.height = shape.getHeight();
     this.name = shape.getName();
@@ -155,15 +189,51 @@ public abstract class Shape implements IShape {
     this.visible = shape.isVisible();
     this.heading = shape.getHeading();
     this.activeMotions = new ArrayList<>();
-    this.motionsByTime = new LinkedHashMap<>();
-    this.motions = new ArrayList<>();
-    this.keyFrames = shape.getKeyFrames();
-    this.keyFramesMap = new LinkedHashMap<>();
-    for (IFrame f : keyFrames) {
-      this.keyFramesMap.put(f.getTime(), f);
-    }
-    generateMotions();
     this.layer = shape.getLayer();
+    this.id = shape.getId();
+    if (shape instanceof Shape && ((Shape) shape).generated) {
+      Shape other = (Shape) shape;
+      if (!other.shared) {
+        other.shared = true;
+      }
+      this.shared = true;
+      this.generated = true;
+      this.keyFrames = other.keyFrames;
+      this.keyFramesMap = other.keyFramesMap;
+      this.motionsByTime = other.motionsByTime;
+      this.motions = other.motions;
+      this.timeline = other.timeline;
+      this.segments = other.segments;
+    } else {
+      this.motionsByTime = new LinkedHashMap<>();
+      this.motions = new ArrayList<>();
+      this.keyFrames = shape.getKeyFrames();
+      this.keyFramesMap = new LinkedHashMap<>();
+      for (IFrame f : keyFrames) {
+        this.keyFramesMap.put(f.getTime(), f);
+      }
+      generateMotions();
+      // counted as shared like any other copy, so that copying it never writes to it
+      this.shared = true;
+    }
+  }
+
+  /**
+   * Give this shape its own copies of the key frame and motion collections if it shares them with
+   * another shape, so that they can be changed.
+   */
+  private void unshare() {
+    if (shared) {
+      this.keyFrames = new ArrayList<>(keyFrames);
+      this.keyFramesMap = new LinkedHashMap<>(keyFramesMap);
+      Map<Integer, List<Motion>> byTime = new HashMap<>();
+      for (Map.Entry<Integer, List<Motion>> entry : motionsByTime.entrySet()) {
+        byTime.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+      }
+      this.motionsByTime = byTime;
+      this.motions = new ArrayList<>(motions);
+      this.shared = false;
+    }
   }
 
   @Override
@@ -176,6 +246,16 @@ public abstract class Shape implements IShape {
     this.layer = layer;
   }
 
+  @Override
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public void setId(int id) {
+    this.id = id;
+  }
+
   @Override
   public int getStartTime() {
     return this.startTime;
@@ -200,6 +280,7 @@ public abstract class Shape implements IShape {
     if (m == null) {
       throw new IllegalArgumentException("Cannot give a shape null as a motion");
     }
+    unshare();
     if (this.startTime != Integer.MAX_VALUE) {
       if (this.overlaps(m)) {
         throw new IllegalArgumentException("Same motion types cannot overlap.");
@@ -222,6 +303,7 @@ public abstract class Shape implements IShape {
       motionsByTime.put(m.getStart(), mList);
     }
     motions.add(m);
+    this.generated = false;
     this.endTime = Math.max(m.getEnd(), this.endTime);
     this.startTime = Math.min(m.getStart(), this.startTime);
   }
@@ -233,17 +315,17 @@ public abstract class Shape implements IShape {
       keyFramesMap.get(ticks).apply(this);
     }
     updateMotion(ticks);
-    //need to use iterator to avoid ConcurrentModificationException
-    Iterator<Motion> itr = activeMotions.iterator();
-    while (itr.hasNext()) {
-      //get next active motion
-      Motion m = itr.next();
+    //index rather than iterate, so that playback allocates nothing
+    int i = 0;
+    while (i < activeMotions.size()) {
+      Motion m = activeMotions.get(i);
       //remove complete motions
       if (ticks > m.getEnd() || ticks < m.getStart()) {
-        itr.remove();
+        activeMotions.remove(i);
       } else {
         //apply active motions
         m.apply(this, ticks);
+        i++;
       }
     }
   }
@@ -255,7 +337,15 @@ public abstract class Shape implements IShape {
    * @param ticks ticks elapsed since the start of the animation.
    */
   private void updateMotion(int ticks) {
-    if (motionsByTime.containsKey(ticks)) {
+    if (generated) {
+      //look the motions up by key frame rather than by boxed time
+      int i = timeline.indexAtOrBefore(ticks);
+      if (i >= 0 && i < segments.length && timeline.timeAt(i) == ticks) {
+        for (Motion m : segments[i]) {
+          activeMotions.add(m);
+        }
+      }
+    } else if (motionsByTime.containsKey(ticks)) {
       activeMotions.addAll(motionsByTime.get(ticks));
     }
     if (this.motionsByTime.size() != this.keyFrames.size() - 1) {
@@ -265,7 +355,7 @@ public abstract class Shape implements IShape {
 
   @Override
   public Color getColor() {
-    return new Color(color.getRGB());
+    return new Color(rgb);
   }
 
   @Override
@@ -273,12 +363,22 @@ public abstract class Shape implements IShape {
     if (c == null) {
       throw new IllegalArgumentException("Color of a shape cannot be set to null!");
     }
-    this.color = c;
+    this.rgb = OPAQUE | c.getRGB();
+  }
+
+  @Override
+  public int getRGB() {
+    return this.rgb;
+  }
+
+  @Override
+  public void setRGB(int rgb) {
+    this.rgb = OPAQUE | rgb;
   }
 
   @Override
   public Position2D getPosition() {
-    return new Position2D(position);
+    return new Position2D(x, y);
   }
 
   @Override
@@ -286,7 +386,24 @@ public abstract class Shape implements IShape {
     if (p == null) {
       throw new IllegalArgumentException("Position of a shape cannot be set to null!");
     }
-    this.position = p;
+    this.x = p.getX();
+    this.y = p.getY();
+  }
+
+  @Override
+  public void setPosition(double x, double y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  @Override
+  public double getX() {
+    return this.x;
+  }
+
+  @Override
+  public double getY() {
+    return this.y;
   }
 
   @Override
@@ -391,24 +508,50 @@ public abstract class Shape implements IShape {
       this.keyFramesMap.get(endTime).apply(s);
       return s;
     }
-    int index = end;
-    int minDiff = Integer.MAX_VALUE;
-    if (!keyFramesMap.containsKey(end)) {
-      for (int i : this.keyFramesMap.keySet()) {
-        if (end - i < minDiff && end >= i) {
-          index = i;
-          minDiff = end - i;
-        }
-      }
-    }
-    if (keyFramesMap.containsKey(index)) {
-      IFrame f = this.keyFramesMap.get(index);
-      f.apply(s);
+    int index = timeline.indexAtOrBefore(end);
+    if (index >= 0) {
+      timeline.frameAt(index).apply(s);
     }
     s.applyMotion(end);
     return s;
   }
 
+  @Override
+  public ShapeState evaluate(int ticks, ShapeState state) {
+    Objects.requireNonNull(state, "Cannot evaluate a shape into a null state");
+    boolean isVisible = ticks >= this.startTime && ticks <= this.endTime;
+    int k = timeline.size();
+    if (k == 0) {
+      state.set(name, type, layer, isVisible, x, y, width, height, heading, rgb);
+      return state;
+    }
+    int i = Math.max(0, timeline.indexAtOrBefore(ticks));
+    if (ticks <= timeline.timeAt(i) || i == k - 1) {
+      state.set(name, type, layer, isVisible, timeline.xAt(i), timeline.yAt(i),
+          timeline.widthAt(i), timeline.heightAt(i), timeline.headingAt(i), timeline.rgbAt(i));
+      return state;
+    }
+    // strictly between keyframes i and i + 1, where the motions generated from them are applied
+    int start = timeline.timeAt(i);
+    int end = timeline.timeAt(i + 1);
+    state.set(name, type, layer, isVisible,
+        Interpolation.valueAt(timeline.xAt(i), timeline.xAt(i + 1), start, end, ticks),
+        Interpolation.valueAt(timeline.yAt(i), timeline.yAt(i + 1), start, end, ticks),
+        Interpolation.valueAt(timeline.widthAt(i), timeline.widthAt(i + 1), start, end, ticks),
+        Interpolation.valueAt(timeline.heightAt(i), timeline.heightAt(i + 1), start, end, ticks),
+        Interpolation.valueAt(timeline.headingAt(i), timeline.headingAt(i + 1), start, end, ticks),
+        Interpolation.rgbAt(timeline.rgbAt(i), timeline.rgbAt(i + 1), start, end, ticks));
+    return state;
+  }
+
+  @Override
+  public boolean mayIntersect(double minX, double minY, double maxX, double maxY, int t1,
+      int t2) {
+    int from = Math.max(t1, this.startTime);
+    int to = Math.min(t2, this.endTime);
+    return from <= to && timeline.sweptOverlaps(minX, minY, maxX, maxY, from, to);
+  }
+
   @Override
   public abstract IShape copy();
 
@@ -448,19 +591,27 @@ public abstract class Shape implements IShape {
 
   @Override
   public void setKeyFrames(List<IFrame> keyframes) {
-    List<IFrame> toSet = new ArrayList<>();
-    for (IFrame f : keyframes) {
+    Objects.requireNonNull(keyframes, "Cannot set the keyframes of a shape to null!");
+    unshare();
+    List<IFrame> sorted = new ArrayList<>(keyframes);
+    // the sort is stable, so the first of several keyframes given for one time comes first
+    sorted.sort(COMPARE_FRAMES);
+    List<IFrame> toSet = new ArrayList<>(sorted.size());
+    this.keyFramesMap.clear();
+    for (IFrame f : sorted) {
       if (!keyFramesMap.containsKey(f.getTime())) {
         keyFramesMap.put(f.getTime(), f);
         toSet.add(f);
-        if (f.getTime() > this.getEndTime()) {
-          this.endTime = f.getTime();
-        } else if (f.getTime() < this.startTime) {
-          setStartTime(f.getTime());
-        }
       }
     }
     this.keyFrames = toSet;
+    if (!toSet.isEmpty()) {
+      this.startTime = toSet.get(0).getTime();
+      this.endTime = toSet.get(toSet.size() - 1).getTime();
+      toSet.get(0).apply(this);
+    }
+    this.activeMotions.clear();
+    this.generateMotions();
   }
 
   @Override
@@ -499,6 +650,7 @@ public abstract class Shape implements IShape {
     if (!keyFramesMap.containsKey(index)) {
       throw new IllegalArgumentException("Frame to remove does not exist in shape!");
     }
+    unshare();
     if (this.keyFrames.size() > 1) {
       if (index == this.startTime) {
         setStartTime(motionsByTime.get(index).get(0).getEnd());
@@ -517,6 +669,7 @@ public abstract class Shape implements IShape {
   @Override
   public void addKeyFrame(IFrame f) {
     Objects.requireNonNull(f, "Cannot add a null frame to a shape!");
+    unshare();
     int time = f.getTime();
     if (keyFramesMap.containsKey(time)) {
       // remove it (replace it) and notify user
@@ -539,17 +692,23 @@ public abstract class Shape implements IShape {
    * the changes between keyframes, and set the new motions in the motions map and list fields.
    */
   private void generateMotions() {
+    unshare();
     //clear motions map and list
     this.motionsByTime.clear();
     this.motions.clear();
-    keyFrames.sort(compareFrames);
+    keyFrames.sort(COMPARE_FRAMES);
+    this.timeline = new KeyframeTimeline(keyFrames);
+    this.segments = NO_SEGMENTS;
 
     if (keyFrames.size() > 1) {
       Map<Integer, List<Motion>> toSet = new HashMap<>();
+      this.segments = new Motion[keyFrames.size() - 1][];
       for (int i = 0; i < keyFrames.size() - 1; i++) {
         IFrame f1 = keyFrames.get(i);
         IFrame f2 = keyFrames.get(i + 1);
-        toSet.put(f1.getTime(), MotionFactory.generateMotions(f1, f2, keyFrames.size()));
+        List<Motion> between = MotionFactory.generateMotions(f1, f2, keyFrames.size());
+        toSet.put(f1.getTime(), between);
+        segments[i] = between.toArray(new Motion[0]);
       }
       //set the motions map
       this.motionsByTime = toSet;
@@ -560,6 +719,7 @@ public abstract class Shape implements IShape {
       }
       this.motions = newMotions;
     }
+    this.generated = true;
   }
 
   @Override
@@ -0,0 +1,93 @@
+package cs3500.animator.model.shape;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Static methods that compute the area a shape covers when it is drawn. A shape is drawn in the
+ * box whose top left corner is its position and whose size is its width and height, rotated by
+ * its heading counterclockwise about the center of the box, so the axis-aligned bounding box of a
+ * shape that is not level is larger than its width and height.
+ */
+public final class ShapeBounds {
+
+  /**
+   * This class only has static methods.
+   */
+  private ShapeBounds() {
+  }
+
+  /**
+   * Get half of the width of the bounding box of a box rotated by the given heading.
+   *
+   * @param w       the width of the box
+   * @param h       the height of the box
+   * @param heading the heading of the box in degrees
+   * @return half of the width of the bounding box
+   */
+  public static double halfWidth(double w, double h, double heading) {
+    if (heading == 0) {
+      return Math.abs(w) / 2;
+    }
+    double r = Math.toRadians(heading);
+    return (Math.abs(w * Math.cos(r)) + Math.abs(h * Math.sin(r))) / 2;
+  }
+
+  /**
+   * Get half of the height of the bounding box of a box rotated by the given heading.
+   *
+   * @param w       the width of the box
+   * @param h       the height of the box
+   * @param heading the heading of the box in degrees
+   * @return half of the height of the bounding box
+   */
+  public static double halfHeight(double w, double h, double heading) {
+    if (heading == 0) {
+      return Math.abs(h) / 2;
+    }
+    double r = Math.toRadians(heading);
+    return (Math.abs(w * Math.sin(r)) + Math.abs(h * Math.cos(r))) / 2;
+  }
+
+  /**
+   * Determine whether a point is inside a box rotated by the given heading about its center.
+   *
+   * @param x       the x coordinate of the top left corner of the box before it is rotated
+   * @param y       the y coordinate of the top left corner of the box before it is rotated
+   * @param w       the width of the box
+   * @param h       the height of the box
+   * @param heading the heading of the box in degrees
+   * @param px      the x coordinate of the point
+   * @param py      the y coordinate of the point
+   * @return whether the point is inside the rotated box or on its edge
+   */
+  public static boolean contains(double x, double y, double w, double h, double heading,
+      double px, double py) {
+    double dx = px - (x + w / 2);
+    double dy = py - (y + h / 2);
+    if (heading != 0) {
+      // undo the rotation of the box by rotating the point the other way
+      double r = Math.toRadians(heading);
+      double cos = Math.cos(r);
+      double sin = Math.sin(r);
+      double rx = dx * cos - dy * sin;
+      double ry = dx * sin + dy * cos;
+      dx = rx;
+      dy = ry;
+    }
+    return Math.abs(dx) <= Math.abs(w) / 2 && Math.abs(dy) <= Math.abs(h) / 2;
+  }
+
+  /**
+   * Get the axis-aligned bounding box of the given shape as it is now.
+   *
+   * @param s the shape
+   * @return the bounding box of the shape
+   */
+  public static Rectangle2D of(IShape s) {
+    double hw = halfWidth(s.getWidth(), s.getHeight(), s.getHeading());
+    double hh = halfHeight(s.getWidth(), s.getHeight(), s.getHeading());
+    double cx = s.getX() + s.getWidth() / 2;
+    double cy = s.getY() + s.getHeight() / 2;
+    return new Rectangle2D.Double(cx - hw, cy - hh, 2 * hw, 2 * hh);
+  }
+}
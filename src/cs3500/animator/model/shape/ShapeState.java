@@ -0,0 +1,139 @@
+package cs3500.animator.model.shape;
+
+/**
+ * A reusable holder for the state of a shape at one point in time, as written by
+ * {@link IShape#evaluate(int, ShapeState)}. Unlike {@link IShape#getStateAt(int)}, evaluating into
+ * a state does not copy the shape, so one state can be filled in again for every frame of an
+ * animation without allocating.
+ */
+public final class ShapeState {
+
+  private String name;
+  private String type;
+  private int layer;
+  private boolean visible;
+  private double x;
+  private double y;
+  private double width;
+  private double height;
+  private double heading;
+  private int rgb;
+
+  /**
+   * Set every property of this state.
+   *
+   * @param name    the name of the shape
+   * @param type    the type of the shape
+   * @param layer   the layer of the shape
+   * @param visible whether the shape is on screen
+   * @param x       the x coordinate of the shape
+   * @param y       the y coordinate of the shape
+   * @param width   the width of the shape
+   * @param height  the height of the shape
+   * @param heading the heading of the shape in degrees
+   * @param rgb     the color of the shape as a packed RGB value
+   */
+  void set(String name, String type, int layer, boolean visible, double x, double y, double width,
+      double height, double heading, int rgb) {
+    this.name = name;
+    this.type = type;
+    this.layer = layer;
+    this.visible = visible;
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.heading = heading;
+    this.rgb = rgb;
+  }
+
+  /**
+   * Get the name of the shape.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the type of the shape.
+   *
+   * @return the type, such as "rectangle" or "ellipse"
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Get the layer of the shape.
+   *
+   * @return the layer
+   */
+  public int getLayer() {
+    return layer;
+  }
+
+  /**
+   * Get whether the shape is on screen, which is the case between its first and last keyframe.
+   *
+   * @return whether the shape is visible
+   */
+  public boolean isVisible() {
+    return visible;
+  }
+
+  /**
+   * Get the x coordinate of the shape.
+   *
+   * @return the x coordinate
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * Get the y coordinate of the shape.
+   *
+   * @return the y coordinate
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * Get the width of the shape.
+   *
+   * @return the width
+   */
+  public double getWidth() {
+    return width;
+  }
+
+  /**
+   * Get the height of the shape.
+   *
+   * @return the height
+   */
+  public double getHeight() {
+    return height;
+  }
+
+  /**
+   * Get the heading of the shape.
+   *
+   * @return the heading in degrees
+   */
+  public double getHeading() {
+    return heading;
+  }
+
+  /**
+   * Get the color of the shape.
+   *
+   * @return the color as a packed RGB value, as returned by {@link java.awt.Color#getRGB()}
+   */
+  public int getRGB() {
+    return rgb;
+  }
+}
@@ -1,14 +1,41 @@
 package cs3500.animator.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A helper to read animation data and construct an animation from it.
  */
 public class AnimationReader {
 
+  // names of the fields of a motion line, used in error messages
+  private static final String[] MOTION_FIELDS = new String[]{
+      "initial time",
+      "initial x-coordinate", "initial y-coordinate",
+      "initial width", "initial height",
+      "initial red value", "initial green value", "initial blue value",
+      "final time",
+      "final x-coordinate", "final y-coordinate",
+      "final width", "final height",
+      "final red value", "final green value", "final blue value",
+  };
+
+  // names of the fields of a rotate line, used in error messages
+  private static final String[] ROTATE_FIELDS = new String[]{
+      "initial time",
+      "initial x-coordinate", "initial y-coordinate",
+      "initial width", "initial height",
+      "initial red value", "initial green value", "initial blue value", "initial heading",
+      "final time",
+      "final x-coordinate", "final y-coordinate",
+      "final width", "final height",
+      "final red value", "final green value", "final blue value", "final heading"
+  };
+
   /**
    * A factory for producing new animations, given a source of shapes and a builder for constructing
    * animations.
@@ -35,9 +62,95 @@ public class AnimationReader {
   public static <Doc> Doc parseFile(Readable readable, AnimationBuilder<Doc> builder) {
     Objects.requireNonNull(readable, "Must have non-null readable source");
     Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
-    Scanner s = new Scanner(readable);
-    // Split at whitespace, and ignore # comment lines
-    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+"));
+    return parse(new ReadableTokenizer(readable), builder);
+  }
+
+  /**
+   * Produce a new animation from the given file in the same way as
+   * {@link #parseFile(Readable, AnimationBuilder)}, but read the file by memory-mapping it instead
+   * of streaming it through a {@link Readable}. The characters are decoded straight out of the
+   * mapped bytes, which are assumed to be ASCII or UTF-8, so no intermediate copy of the text is
+   * made.
+   *
+   * @param file    the animation file to read
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   * @throws IOException if the file cannot be opened or mapped
+   */
+  public static <Doc> Doc parseFile(File file, AnimationBuilder<Doc> builder)
+      throws IOException {
+    Objects.requireNonNull(file, "Must have a non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return parse(new MappedTokenizer(channel), builder);
+    }
+  }
+
+  /**
+   * Produce a new animation from the given file by parsing it on several threads of the common
+   * {@link ForkJoinPool}. See {@link #parseFileParallel(File, AnimationBuilder, int)}; the file is
+   * split into a few chunks per available thread.
+   *
+   * @param file    the animation file to read
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   * @throws IOException if the file cannot be opened or read
+   */
+  public static <Doc> Doc parseFileParallel(File file, AnimationBuilder<Doc> builder)
+      throws IOException {
+    return parseFileParallel(file, builder, ForkJoinPool.commonPool().getParallelism() * 4);
+  }
+
+  /**
+   * Produce a new animation from the given file by splitting it into the given number of chunks
+   * and parsing the chunks in parallel. Chunks always start at a line that opens a new declaration,
+   * so declarations that run over several lines are never split. Once every chunk is parsed, all of
+   * the canvas and shape declarations are passed to the builder in file order, followed by all of
+   * the motions in file order, so the builder sees the same calls as with
+   * {@link #parseFile(File, AnimationBuilder)} except that shapes are always declared before any
+   * motion. If a chunk cannot be parsed, everything before the error is passed to the builder and
+   * the error is rethrown.
+   *
+   * @param file    the animation file to read
+   * @param builder A builder for helping to construct a new animation
+   * @param chunks  positive number of chunks to split the file into
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   * @throws IOException if the file cannot be opened or read
+   */
+  public static <Doc> Doc parseFileParallel(File file, AnimationBuilder<Doc> builder, int chunks)
+      throws IOException {
+    Objects.requireNonNull(file, "Must have a non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      new ChunkedAnimationParser(channel, ForkJoinPool.commonPool()).parseInto(builder, chunks);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Read every declaration from the tokenizer, passing each one to the builder as it is read, and
+   * then build the animation.
+   *
+   * @param s       tokenizer over the input data
+   * @param builder AnimationBuilder to pass the read in data to the model
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   */
+  private static <Doc> Doc parse(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
+    readAll(s, AnimationSink.of(builder));
+    return builder.build();
+  }
+
+  /**
+   * Read every declaration from the tokenizer, passing each one to the sink as it is read.
+   *
+   * @param s       tokenizer over the input data
+   * @param builder sink to pass the read in data to
+   */
+  static void readAll(AnimationTokenizer s, AnimationSink builder) {
     while (s.hasNext()) {
       String word = s.next();
       switch (word) {
@@ -54,23 +167,12 @@ public class AnimationReader {
           readRotate(s, builder);
           break;
         default:
-          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
+          throw new IllegalStateException("Unexpected keyword: " + word + s.restOfLine());
       }
     }
-    return builder.build();
   }
 
-  private static <Doc> void readRotate(Scanner s, AnimationBuilder<Doc> builder) {
-    String[] fieldNames = new String[]{
-        "initial time",
-        "initial x-coordinate", "initial y-coordinate",
-        "initial width", "initial height",
-        "initial red value", "initial green value", "initial blue value", "initial heading",
-        "final time",
-        "final x-coordinate", "final y-coordinate",
-        "final width", "final height",
-        "final red value", "final green value", "final blue value", "final heading"
-    };
+  private static void readRotate(AnimationTokenizer s, AnimationSink builder) {
     int[] vals = new int[18];
     String name;
     if (s.hasNext()) {
@@ -79,7 +181,7 @@ public class AnimationReader {
       throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
     }
     for (int i = 0; i < 18; i++) {
-      vals[i] = getInt(s, "Motion", fieldNames[i]);
+      vals[i] = getInt(s, "Motion", ROTATE_FIELDS[i]);
     }
     builder.addMotion(name,
         vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7],
@@ -91,11 +193,10 @@ public class AnimationReader {
   /**
    * Private method to parse the canvas information (x, y, width, height) from the input file.
    *
-   * @param s       Scanner with the data from the input file
-   * @param builder AnimationBuilder to pass the read in data to the model
-   * @param <Doc>   The builder
+   * @param s       tokenizer over the data from the input file
+   * @param builder sink to pass the read in data to
    */
-  private static <Doc> void readCanvas(Scanner s, AnimationBuilder<Doc> builder) {
+  private static void readCanvas(AnimationTokenizer s, AnimationSink builder) {
     int[] vals = new int[4];
     String[] fieldNames = {"left", "top", "width", "height"};
     for (int i = 0; i < 4; i++) {
@@ -107,11 +208,10 @@ public class AnimationReader {
   /**
    * Private method to parse shape data from an input file.
    *
-   * @param s       Scanner with the input data
-   * @param builder AnimationBuilder to pass the read in data to the model
-   * @param <Doc>   The builder
+   * @param s       tokenizer over the input data
+   * @param builder sink to pass the read in data to
    */
-  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder) {
+  private static void readShape(AnimationTokenizer s, AnimationSink builder) {
     String name;
     String type;
     int layer;
@@ -136,21 +236,10 @@ public class AnimationReader {
   /**
    * Private method to parse motion data from an input file.
    *
-   * @param s       Scanner with the input data
-   * @param builder AnimationBuilder to pass the read in data to the model
-   * @param <Doc>   The builder
+   * @param s       tokenizer over the input data
+   * @param builder sink to pass the read in data to
    */
-  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder) {
-    String[] fieldNames = new String[]{
-        "initial time",
-        "initial x-coordinate", "initial y-coordinate",
-        "initial width", "initial height",
-        "initial red value", "initial green value", "initial blue value",
-        "final time",
-        "final x-coordinate", "final y-coordinate",
-        "final width", "final height",
-        "final red value", "final green value", "final blue value",
-    };
+  private static void readMotion(AnimationTokenizer s, AnimationSink builder) {
     int[] vals = new int[16];
     String name;
     if (s.hasNext()) {
@@ -159,7 +248,7 @@ public class AnimationReader {
       throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
     }
     for (int i = 0; i < 16; i++) {
-      vals[i] = getInt(s, "Motion", fieldNames[i]);
+      vals[i] = getInt(s, "Motion", MOTION_FIELDS[i]);
     }
     builder.addMotion(name,
         vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7], 0,
@@ -167,14 +256,14 @@ public class AnimationReader {
   }
 
   /**
-   * Uses the scanner to get the next int from the input or throw an error if it doesn't exist.
+   * Uses the tokenizer to get the next int from the input or throw an error if it doesn't exist.
    *
-   * @param s         Scanner used to get the input
+   * @param s         tokenizer used to get the input
    * @param label     String representing what value this int is meant to fill
    * @param fieldName String representing what value this int is meant to fill
-   * @return The next int in the scanner
+   * @return The next int in the input
    */
-  private static int getInt(Scanner s, String label, String fieldName) {
+  private static int getInt(AnimationTokenizer s, String label, String fieldName) {
     if (s.hasNextInt()) {
       return s.nextInt();
     } else if (s.hasNext()) {
@@ -0,0 +1,136 @@
+package cs3500.animator.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An {@link AnimationSink} that only records the calls made to it so that they can be replayed
+ * into a builder later. Canvas and shape declarations are kept in order as they are rare;
+ * motions are packed into a primitive array since they make up nearly all of a large file. Used
+ * to parse chunks of a file on separate threads before merging the results in file order.
+ */
+final class AnimationRecorder implements AnimationSink {
+
+  // number of values recorded for each motion
+  private static final int STRIDE = 18;
+
+  private final List<Consumer<AnimationBuilder<?>>> declarations;
+  private String[] names;
+  private int[] values;
+  private int motions;
+  // error raised while reading the recorded input, if any
+  private RuntimeException error;
+
+  /**
+   * Construct an empty recorder.
+   */
+  AnimationRecorder() {
+    this.declarations = new ArrayList<>();
+    this.names = new String[64];
+    this.values = new int[64 * STRIDE];
+    this.motions = 0;
+    this.error = null;
+  }
+
+  /**
+   * Record that reading the input failed after the calls recorded so far.
+   *
+   * @param e the error raised while reading
+   */
+  void fail(RuntimeException e) {
+    this.error = e;
+  }
+
+  /**
+   * Determine whether reading the input failed part way through.
+   *
+   * @return true if an error was recorded
+   */
+  boolean hasFailed() {
+    return error != null;
+  }
+
+  /**
+   * Replay the recorded canvas and shape declarations into the given builder in the order they
+   * were made.
+   *
+   * @param builder the builder to replay the declarations into
+   */
+  void replayDeclarations(AnimationBuilder<?> builder) {
+    for (Consumer<AnimationBuilder<?>> declaration : declarations) {
+      declaration.accept(builder);
+    }
+  }
+
+  /**
+   * Replay the recorded motions into the given builder in the order they were made, and then
+   * rethrow the error that stopped the recording, if there was one.
+   *
+   * @param builder the builder to replay the motions into
+   */
+  void replayMotions(AnimationBuilder<?> builder) {
+    int[] v = values;
+    for (int i = 0; i < motions; i++) {
+      int o = i * STRIDE;
+      builder.addMotion(names[i],
+          v[o], v[o + 1], v[o + 2], v[o + 3], v[o + 4], v[o + 5], v[o + 6], v[o + 7], v[o + 8],
+          v[o + 9], v[o + 10], v[o + 11], v[o + 12], v[o + 13], v[o + 14], v[o + 15], v[o + 16],
+          v[o + 17]);
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  @Override
+  public void setBounds(int x, int y, int width, int height) {
+    declarations.add(b -> b.setBounds(x, y, width, height));
+  }
+
+  @Override
+  public void declareShape(String name, String type) {
+    declarations.add(b -> b.declareShape(name, type));
+  }
+
+  @Override
+  public void declareShape(String name, String type, int layer) {
+    declarations.add(b -> b.declareShape(name, type, layer));
+  }
+
+  @Override
+  public void addMotion(String name, int t1, int x1, int y1, int w1, int h1, int r1, int g1,
+      int b1, int heading1, int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2,
+      int heading2) {
+    if (motions == names.length) {
+      String[] grownNames = new String[names.length * 2];
+      System.arraycopy(names, 0, grownNames, 0, motions);
+      names = grownNames;
+      int[] grownValues = new int[grownNames.length * STRIDE];
+      System.arraycopy(values, 0, grownValues, 0, motions * STRIDE);
+      values = grownValues;
+    }
+    names[motions] = name;
+    int o = motions * STRIDE;
+    int[] v = values;
+    v[o] = t1;
+    v[o + 1] = x1;
+    v[o + 2] = y1;
+    v[o + 3] = w1;
+    v[o + 4] = h1;
+    v[o + 5] = r1;
+    v[o + 6] = g1;
+    v[o + 7] = b1;
+    v[o + 8] = heading1;
+    v[o + 9] = t2;
+    v[o + 10] = x2;
+    v[o + 11] = y2;
+    v[o + 12] = w2;
+    v[o + 13] = h2;
+    v[o + 14] = r2;
+    v[o + 15] = g2;
+    v[o + 16] = b2;
+    v[o + 17] = heading2;
+    motions++;
+  }
+}
@@ -0,0 +1,100 @@
+package cs3500.animator.util;
+
+/**
+ * The calls the {@link AnimationReader} makes while reading the lines of an animation file: the
+ * canvas, the shapes and the motions. Keyframes and building the animation are left to the
+ * {@link AnimationBuilder} behind it, so a sink that only records what was read, such as the
+ * {@link AnimationRecorder} used for each chunk of a file read in parallel, has nothing else to
+ * implement.
+ */
+interface AnimationSink {
+
+  /**
+   * Pass on the canvas of the animation, as by {@link AnimationBuilder#setBounds}.
+   *
+   * @param x      The leftmost x value
+   * @param y      The topmost y value
+   * @param width  The width of the bounding box
+   * @param height The height of the bounding box
+   */
+  void setBounds(int x, int y, int width, int height);
+
+  /**
+   * Pass on a shape on the default layer, as by {@link AnimationBuilder#declareShape(String,
+   * String)}.
+   *
+   * @param name The unique name of the shape
+   * @param type The type of shape
+   */
+  void declareShape(String name, String type);
+
+  /**
+   * Pass on a shape on the given layer, as by {@link AnimationBuilder#declareShape(String, String,
+   * int)}.
+   *
+   * @param name  The unique name of the shape
+   * @param type  The type of shape
+   * @param layer The layer of this shape
+   */
+  void declareShape(String name, String type, int layer);
+
+  /**
+   * Pass on a motion, as by {@link AnimationBuilder#addMotion}.
+   *
+   * @param name     The name of the shape
+   * @param t1       The start time of this transformation
+   * @param x1       The initial x-position of the shape
+   * @param y1       The initial y-position of the shape
+   * @param w1       The initial width of the shape
+   * @param h1       The initial height of the shape
+   * @param r1       The initial red color-value of the shape
+   * @param g1       The initial green color-value of the shape
+   * @param b1       The initial blue color-value of the shape
+   * @param heading1 the initial heading of the shape
+   * @param t2       The end time of this transformation
+   * @param x2       The final x-position of the shape
+   * @param y2       The final y-position of the shape
+   * @param w2       The final width of the shape
+   * @param h2       The final height of the shape
+   * @param r2       The final red color-value of the shape
+   * @param g2       The final green color-value of the shape
+   * @param b2       The final blue color-value of the shape
+   * @param heading2 the final heading of the shape
+   */
+  void addMotion(String name, int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+      int heading1, int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2,
+      int heading2);
+
+  /**
+   * Get a sink that passes everything it is given straight to a builder.
+   *
+   * @param builder the builder
+   * @return the sink
+   */
+  static AnimationSink of(AnimationBuilder<?> builder) {
+    return new AnimationSink() {
+      @Override
+      public void setBounds(int x, int y, int width, int height) {
+        builder.setBounds(x, y, width, height);
+      }
+
+      @Override
+      public void declareShape(String name, String type) {
+        builder.declareShape(name, type);
+      }
+
+      @Override
+      public void declareShape(String name, String type, int layer) {
+        builder.declareShape(name, type, layer);
+      }
+
+      @Override
+      public void addMotion(String name, int t1, int x1, int y1, int w1, int h1, int r1,
+          int g1, int b1, int heading1, int t2, int x2, int y2, int w2, int h2, int r2, int g2,
+          int b2, int heading2) {
+        builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, heading1,
+            t2, x2, y2, w2, h2, r2, g2, b2, heading2);
+      }
+    };
+  }
+}
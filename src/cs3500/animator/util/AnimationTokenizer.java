@@ -0,0 +1,206 @@
+package cs3500.animator.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A hand-written tokenizer for the animation file format. The input is split at whitespace and any
+ * {@code #} comment running to the end of a line is skipped, exactly as the old
+ * {@link java.util.Scanner} delimiter {@code (\p{Space}+|#.*)+} did, but without any regular
+ * expressions. Tokens are read into a reusable character buffer so that integer fields can be
+ * parsed in place without creating a {@code String} or boxing the value.
+ *
+ * <p>Subclasses only supply the characters of the input one at a time through {@link #read()}.
+ */
+abstract class AnimationTokenizer {
+
+  // marker for "no character pushed back"
+  private static final int NONE = -2;
+
+  // characters of the current (peeked) token
+  private char[] token;
+  private int tokenLength;
+  // whether token holds a token that has been peeked but not consumed
+  private boolean peeked;
+  // single character of look-ahead
+  private int pushback;
+
+  /**
+   * Construct a tokenizer with an empty look-ahead.
+   */
+  protected AnimationTokenizer() {
+    this.token = new char[32];
+    this.tokenLength = 0;
+    this.peeked = false;
+    this.pushback = NONE;
+  }
+
+  /**
+   * Read the next character of the input.
+   *
+   * @return the next character, or -1 if there is no more input available
+   */
+  protected abstract int read();
+
+  /**
+   * Determine whether there is another token in the input.
+   *
+   * @return true if there is another token
+   */
+  boolean hasNext() {
+    return peek();
+  }
+
+  /**
+   * Consume the next token and return it as a {@code String}.
+   *
+   * @return the next token
+   * @throws NoSuchElementException if there is no more input available
+   */
+  String next() {
+    if (!peek()) {
+      throw new NoSuchElementException("No more input available");
+    }
+    peeked = false;
+    return new String(token, 0, tokenLength);
+  }
+
+  /**
+   * Determine whether the next token is a base ten integer within the range of an {@code int}.
+   *
+   * @return true if the next token can be read with {@link #nextInt()}
+   */
+  boolean hasNextInt() {
+    return peek() && isInt();
+  }
+
+  /**
+   * Consume the next token and return its integer value.
+   *
+   * @return the integer value of the next token
+   * @throws NoSuchElementException if there is no more input available
+   * @throws NumberFormatException  if the next token is not an integer
+   */
+  int nextInt() {
+    if (!peek()) {
+      throw new NoSuchElementException("No more input available");
+    }
+    if (!isInt()) {
+      throw new NumberFormatException(new String(token, 0, tokenLength));
+    }
+    peeked = false;
+    boolean negative = token[0] == '-';
+    int i = (token[0] == '-' || token[0] == '+') ? 1 : 0;
+    // accumulate negatively so that Integer.MIN_VALUE can be represented
+    int value = 0;
+    for (; i < tokenLength; i++) {
+      value = value * 10 - (token[i] - '0');
+    }
+    return negative ? value : -value;
+  }
+
+  /**
+   * Consume the remainder of the current line, not including the line separator. Any token that
+   * has been looked at but not consumed is skipped.
+   *
+   * @return the rest of the current line
+   */
+  String restOfLine() {
+    peeked = false;
+    StringBuilder line = new StringBuilder();
+    int c = nextChar();
+    while (c != -1 && c != '\n' && c != '\r') {
+      line.append((char) c);
+      c = nextChar();
+    }
+    return line.toString();
+  }
+
+  /**
+   * Make sure the next token, if there is one, is held in the token buffer.
+   *
+   * @return true if there is a token in the buffer
+   */
+  private boolean peek() {
+    if (peeked) {
+      return true;
+    }
+    int c = nextChar();
+    // skip delimiters: whitespace and comments
+    while (true) {
+      if (c == '#') {
+        while (c != -1 && c != '\n' && c != '\r') {
+          c = read();
+        }
+      } else if (isSpace(c)) {
+        c = read();
+      } else {
+        break;
+      }
+    }
+    if (c == -1) {
+      return false;
+    }
+    tokenLength = 0;
+    while (c != -1 && c != '#' && !isSpace(c)) {
+      if (tokenLength == token.length) {
+        char[] grown = new char[token.length * 2];
+        System.arraycopy(token, 0, grown, 0, tokenLength);
+        token = grown;
+      }
+      token[tokenLength++] = (char) c;
+      c = read();
+    }
+    pushback = c;
+    peeked = true;
+    return true;
+  }
+
+  /**
+   * Determine whether the buffered token is an optionally signed integer that fits in an
+   * {@code int}.
+   *
+   * @return true if the token is an integer
+   */
+  private boolean isInt() {
+    int i = (token[0] == '-' || token[0] == '+') ? 1 : 0;
+    if (i == tokenLength) {
+      return false;
+    }
+    long value = 0;
+    for (; i < tokenLength; i++) {
+      char d = token[i];
+      if (d < '0' || d > '9') {
+        return false;
+      }
+      value = value * 10 + (d - '0');
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return false;
+      }
+    }
+    return token[0] == '-' || value <= Integer.MAX_VALUE;
+  }
+
+  /**
+   * Read the next character, taking the pushed back character first if there is one.
+   *
+   * @return the next character or -1 at the end of the input
+   */
+  private int nextChar() {
+    if (pushback != NONE) {
+      int c = pushback;
+      pushback = NONE;
+      return c;
+    }
+    return read();
+  }
+
+  /**
+   * Determine whether the character is a POSIX space character, matching {@code \p{Space}}.
+   *
+   * @param c the character
+   * @return true if the character is whitespace
+   */
+  private static boolean isSpace(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+  }
+}
@@ -0,0 +1,258 @@
+package cs3500.animator.util;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.shape.IShape;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compact, versioned binary encoding of an animation, meant for scenes that are loaded many
+ * times so that they only have to be tokenized once. All numbers are big-endian.
+ *
+ * <p>
+ * The layout of version 1 is:
+ * <ul>
+ * <li>the magic number {@code "ANIM"} and the format version, each a 4 byte int;</li>
+ * <li>the canvas: x, y, width and height as ints;</li>
+ * <li>the number of shapes as an int, followed by each shape in turn.</li>
+ * </ul>
+ * Each shape is its name and its type, each an int byte count followed by that many bytes of
+ * UTF-8, then its layer and its number of keyframes k as ints, then seven packed arrays of k ints
+ * holding the time, x, y, width, height, RGB color and heading of each keyframe, in order of time.
+ * </p>
+ */
+public final class BinaryAnimationFormat {
+
+  /**
+   * The file extension of animations stored in this format.
+   */
+  public static final String EXTENSION = ".anim";
+
+  // "ANIM" in ASCII
+  private static final int MAGIC = 0x414E494D;
+  private static final int VERSION = 1;
+  // number of int arrays stored for the keyframes of each shape
+  private static final int COLUMNS = 7;
+  // most keyframes of one shape and most bytes of one string, so that a corrupt count is caught
+  // before it is used to size an array
+  private static final int MAX_KEYFRAMES = 1 << 20;
+  private static final int MAX_STRING_BYTES = 1 << 16;
+
+  /**
+   * Write the given model to the output in the binary format. The output is not closed.
+   *
+   * @param model the model to write
+   * @param out   the stream to write to
+   * @throws IOException              if writing to the stream fails
+   * @throws IllegalArgumentException if a shape has more keyframes, or a longer name or type, than
+   *                                  the format can read back
+   */
+  public static void write(AnimatorModel model, OutputStream out) throws IOException {
+    Objects.requireNonNull(model, "Cannot write a null model");
+    Objects.requireNonNull(out, "Cannot write to a null output");
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    for (int b : model.getBounds()) {
+      data.writeInt(b);
+    }
+    List<IShape> shapes = new ArrayList<>(model.getShapes().values());
+    data.writeInt(shapes.size());
+    for (IShape s : shapes) {
+      writeString(data, s.getName());
+      writeString(data, s.getType());
+      data.writeInt(s.getLayer());
+      List<IFrame> frames = s.getKeyFrames();
+      frames.sort(Comparator.comparingInt(IFrame::getTime));
+      int k = frames.size();
+      if (k > MAX_KEYFRAMES) {
+        throw new IllegalArgumentException("Too many keyframes to store for shape " + s.getName());
+      }
+      data.writeInt(k);
+      ByteBuffer block = ByteBuffer.allocate(k * COLUMNS * Integer.BYTES);
+      IntBuffer ints = block.asIntBuffer();
+      for (IFrame f : frames) {
+        ints.put(f.getTime());
+      }
+      for (IFrame f : frames) {
+        ints.put((int) f.getX());
+      }
+      for (IFrame f : frames) {
+        ints.put((int) f.getY());
+      }
+      for (IFrame f : frames) {
+        ints.put((int) f.getWidth());
+      }
+      for (IFrame f : frames) {
+        ints.put((int) f.getHeight());
+      }
+      for (IFrame f : frames) {
+        ints.put(f.getRGB() & 0xFFFFFF);
+      }
+      for (IFrame f : frames) {
+        ints.put((int) f.getHeading());
+      }
+      data.write(block.array());
+    }
+    data.flush();
+  }
+
+  /**
+   * Read the animation stored in the given file in the binary format.
+   *
+   * @param file    the file to read
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   * @throws IOException           if the file cannot be read
+   * @throws IllegalStateException if the file is not a supported binary animation
+   */
+  public static <Doc> Doc parseFile(File file, AnimationBuilder<Doc> builder)
+      throws IOException {
+    Objects.requireNonNull(file, "Must have a non-null file");
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+      return parse(in, builder);
+    }
+  }
+
+  /**
+   * Read an animation in the binary format from the given stream and pass it to the builder. Each
+   * shape is declared and its keyframes are then passed to the builder as motions between
+   * consecutive keyframes, or as a single keyframe if it has only one, so the model built is the
+   * same as the one built from the textual description of the animation. The stream is not
+   * closed.
+   *
+   * @param in      the stream to read
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return a new model with the parameters developed in the builder
+   * @throws IOException           if the stream cannot be read
+   * @throws IllegalStateException if the stream is not a supported binary animation
+   */
+  public static <Doc> Doc parse(InputStream in, AnimationBuilder<Doc> builder)
+      throws IOException {
+    Objects.requireNonNull(in, "Must have a non-null input");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    DataInputStream data = new DataInputStream(in);
+    try {
+      if (data.readInt() != MAGIC) {
+        throw new IllegalStateException("Not a binary animation file");
+      }
+      int version = data.readInt();
+      if (version != VERSION) {
+        throw new IllegalStateException("Unsupported binary animation version " + version);
+      }
+      builder.setBounds(data.readInt(), data.readInt(), data.readInt(), data.readInt());
+      int count = data.readInt();
+      byte[] block = new byte[0];
+      int[] v = new int[0];
+      for (int i = 0; i < count; i++) {
+        String name = readString(data);
+        String type = readString(data);
+        int layer = data.readInt();
+        int k = data.readInt();
+        if (k < 0 || k > MAX_KEYFRAMES) {
+          throw new IllegalStateException("Invalid keyframe count for shape " + name);
+        }
+        builder.declareShape(name, type, layer);
+        // at most MAX_KEYFRAMES * COLUMNS * Integer.BYTES bytes, well within an int
+        if (v.length < k * COLUMNS) {
+          block = new byte[k * COLUMNS * Integer.BYTES];
+          v = new int[k * COLUMNS];
+        }
+        data.readFully(block, 0, k * COLUMNS * Integer.BYTES);
+        ByteBuffer.wrap(block, 0, k * COLUMNS * Integer.BYTES).asIntBuffer()
+            .get(v, 0, k * COLUMNS);
+        addKeyframes(builder, name, v, k);
+      }
+    } catch (EOFException e) {
+      throw new IllegalStateException("Binary animation ended unexpectedly");
+    }
+    return builder.build();
+  }
+
+  /**
+   * Pass the keyframes of one shape, stored as seven packed columns of k values, to the builder.
+   *
+   * @param builder the builder to pass the keyframes to
+   * @param name    the name of the shape
+   * @param v       the packed columns
+   * @param k       the number of keyframes
+   */
+  private static void addKeyframes(AnimationBuilder<?> builder, String name, int[] v, int k) {
+    if (k == 1) {
+      builder.addKeyframe(name, v[0], v[1], v[2], v[3], v[4],
+          red(v[5]), green(v[5]), blue(v[5]), v[6]);
+      return;
+    }
+    for (int i = 0; i + 1 < k; i++) {
+      int j = i + 1;
+      builder.addMotion(name,
+          v[i], v[k + i], v[2 * k + i], v[3 * k + i], v[4 * k + i],
+          red(v[5 * k + i]), green(v[5 * k + i]), blue(v[5 * k + i]), v[6 * k + i],
+          v[j], v[k + j], v[2 * k + j], v[3 * k + j], v[4 * k + j],
+          red(v[5 * k + j]), green(v[5 * k + j]), blue(v[5 * k + j]), v[6 * k + j]);
+    }
+  }
+
+  /**
+   * Write a string as its UTF-8 byte count followed by its bytes.
+   *
+   * @param data the stream to write to
+   * @param s    the string to write
+   * @throws IOException              if writing fails
+   * @throws IllegalArgumentException if the string is longer than the format can read back
+   */
+  private static void writeString(DataOutputStream data, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_STRING_BYTES) {
+      throw new IllegalArgumentException("String too long to store: " + s.substring(0, 20));
+    }
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  /**
+   * Read a string written by {@link #writeString}.
+   *
+   * @param data the stream to read from
+   * @return the string
+   * @throws IOException if reading fails
+   */
+  private static String readString(DataInputStream data) throws IOException {
+    int length = data.readInt();
+    if (length < 0 || length > MAX_STRING_BYTES) {
+      throw new IllegalStateException("Invalid string length in binary animation");
+    }
+    byte[] bytes = new byte[length];
+    data.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int red(int rgb) {
+    return (rgb >> 16) & 0xFF;
+  }
+
+  private static int green(int rgb) {
+    return (rgb >> 8) & 0xFF;
+  }
+
+  private static int blue(int rgb) {
+    return rgb & 0xFF;
+  }
+}
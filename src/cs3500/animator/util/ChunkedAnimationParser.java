@@ -0,0 +1,221 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a large animation file on several threads. The file is split into chunks that each start
+ * at the beginning of a line opening a new declaration, so that no declaration (which may run over
+ * several lines) is ever split between two chunks. Each chunk is read into its own
+ * {@link AnimationRecorder} in a {@link ForkJoinPool}, and the recordings are then replayed into
+ * the real builder on the calling thread: every canvas and shape declaration first, in file order,
+ * followed by every motion, in file order.
+ */
+final class ChunkedAnimationParser {
+
+  private static final String[] KEYWORDS = {"canvas", "shape", "motion", "rotate"};
+
+  private final FileChannel channel;
+  private final long size;
+  private final ForkJoinPool pool;
+  // positional read buffer used while looking for chunk boundaries
+  private final ByteBuffer probe;
+  private long probeStart;
+
+  /**
+   * Construct a parser for the file open on the given channel.
+   *
+   * @param channel channel open for reading on the animation file
+   * @param pool    pool to parse the chunks in
+   * @throws IOException if the size of the file cannot be read
+   */
+  ChunkedAnimationParser(FileChannel channel, ForkJoinPool pool) throws IOException {
+    this.channel = channel;
+    this.size = channel.size();
+    this.pool = pool;
+    this.probe = ByteBuffer.allocate(8192);
+    this.probe.limit(0);
+    this.probeStart = 0;
+  }
+
+  /**
+   * Parse the file in the given number of chunks and replay the result into the builder.
+   *
+   * @param builder the builder to pass the parsed data to
+   * @param chunks  the number of chunks to split the file into
+   * @throws IOException if the file cannot be read
+   */
+  void parseInto(AnimationBuilder<?> builder, int chunks) throws IOException {
+    long[] bounds = split(Math.max(1, chunks));
+    List<ChunkTask> tasks = new ArrayList<>();
+    for (int i = 0; i + 1 < bounds.length; i++) {
+      if (bounds[i] < bounds[i + 1]) {
+        tasks.add(new ChunkTask(bounds[i], bounds[i + 1]));
+      }
+    }
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+    // a failed chunk still replays what was read before the failure, then rethrows; nothing
+    // after it is replayed
+    int last = tasks.size() - 1;
+    for (int i = 0; i < tasks.size(); i++) {
+      if (tasks.get(i).recorder.hasFailed()) {
+        last = i;
+        break;
+      }
+    }
+    for (int i = 0; i <= last; i++) {
+      tasks.get(i).recorder.replayDeclarations(builder);
+    }
+    for (int i = 0; i <= last; i++) {
+      tasks.get(i).recorder.replayMotions(builder);
+    }
+  }
+
+  /**
+   * Find the offsets at which each chunk starts. The first offset is always 0 and the last is
+   * always the size of the file; offsets may repeat if the file has fewer declarations than
+   * requested chunks.
+   *
+   * @param chunks the number of chunks to split the file into
+   * @return the chunk boundaries in increasing order
+   * @throws IOException if the file cannot be read
+   */
+  private long[] split(int chunks) throws IOException {
+    long[] bounds = new long[chunks + 1];
+    bounds[chunks] = size;
+    for (int i = 1; i < chunks; i++) {
+      long target = Math.max(bounds[i - 1], size / chunks * i);
+      bounds[i] = nextDeclaration(target);
+    }
+    return bounds;
+  }
+
+  /**
+   * Find the start of the first line after the given offset that begins with a keyword, i.e. the
+   * first line that opens a new declaration rather than continuing one or holding only a comment.
+   *
+   * @param from offset to start looking from
+   * @return offset of the start of that line, or the size of the file if there is none
+   * @throws IOException if the file cannot be read
+   */
+  private long nextDeclaration(long from) throws IOException {
+    long pos = from == 0 ? 0 : skipLine(from);
+    while (pos < size) {
+      long lineStart = pos;
+      int c = byteAt(pos);
+      while (c == ' ' || c == '\t' || c == '\f' || c == 0x0B) {
+        c = byteAt(++pos);
+      }
+      for (String keyword : KEYWORDS) {
+        if (startsWith(pos, keyword)) {
+          return lineStart;
+        }
+      }
+      pos = skipLine(pos);
+    }
+    return size;
+  }
+
+  /**
+   * Determine whether the keyword, followed by a delimiter or the end of the file, appears at the
+   * given offset.
+   *
+   * @param pos     offset in the file
+   * @param keyword the keyword to look for
+   * @return whether the keyword appears there as a whole token
+   * @throws IOException if the file cannot be read
+   */
+  private boolean startsWith(long pos, String keyword) throws IOException {
+    for (int i = 0; i < keyword.length(); i++) {
+      if (byteAt(pos + i) != keyword.charAt(i)) {
+        return false;
+      }
+    }
+    int after = byteAt(pos + keyword.length());
+    return after == -1 || after == '#' || after == ' ' || after == '\t' || after == '\n'
+        || after == '\r' || after == '\f' || after == 0x0B;
+  }
+
+  /**
+   * Find the offset just past the next line separator at or after the given offset.
+   *
+   * @param pos offset in the file
+   * @return offset of the start of the following line, or the size of the file
+   * @throws IOException if the file cannot be read
+   */
+  private long skipLine(long pos) throws IOException {
+    int c = byteAt(pos);
+    while (c != -1 && c != '\n' && c != '\r') {
+      c = byteAt(++pos);
+    }
+    return c == -1 ? size : pos + 1;
+  }
+
+  /**
+   * Read the byte at the given offset through the probe buffer.
+   *
+   * @param pos offset in the file
+   * @return the unsigned byte at that offset, or -1 past the end of the file
+   * @throws IOException if the file cannot be read
+   */
+  private int byteAt(long pos) throws IOException {
+    if (pos >= size) {
+      return -1;
+    }
+    if (pos < probeStart || pos >= probeStart + probe.limit()) {
+      probe.clear();
+      probeStart = pos;
+      while (probe.hasRemaining() && channel.read(probe, probeStart + probe.position()) > 0) {
+        // keep filling the probe buffer
+      }
+      probe.flip();
+    }
+    return probe.get((int) (pos - probeStart)) & 0xFF;
+  }
+
+  /**
+   * Task that reads one chunk of the file into its own recorder.
+   */
+  private final class ChunkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long start;
+    private final long end;
+    private final transient AnimationRecorder recorder;
+
+    /**
+     * Construct a task to read the region of the file from start (inclusive) to end (exclusive).
+     *
+     * @param start offset of the first byte of the chunk
+     * @param end   offset after the last byte of the chunk
+     */
+    ChunkTask(long start, long end) {
+      this.start = start;
+      this.end = end;
+      this.recorder = new AnimationRecorder();
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        AnimationReader.readAll(new MappedTokenizer(channel, start, end), recorder);
+      } catch (IOException e) {
+        recorder.fail(new IllegalStateException(
+            "Could not read animation input: " + e.getMessage()));
+      } catch (RuntimeException e) {
+        recorder.fail(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Objects;
+
+/**
+ * An {@link AnimationTokenizer} that reads straight out of a memory-mapped file. The file is
+ * mapped one window at a time so that arbitrarily large files can be read without an intermediate
+ * character copy and without the whole file being resident at once. The bytes are decoded as
+ * UTF-8, which covers plain ASCII input.
+ */
+final class MappedTokenizer extends AnimationTokenizer {
+
+  // largest region of the file that is mapped at any one time
+  static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long end;
+  // offset in the file of the byte after the current window
+  private long mapped;
+  private ByteBuffer window;
+  // second half of a surrogate pair decoded from a four byte sequence, or 0
+  private char lowSurrogate;
+
+  /**
+   * Construct a tokenizer over the whole of the given channel.
+   *
+   * @param channel an open channel to read from
+   * @throws IOException if the size of the channel cannot be read
+   */
+  MappedTokenizer(FileChannel channel) throws IOException {
+    this(channel, 0, channel.size());
+  }
+
+  /**
+   * Construct a tokenizer over the region of the channel from start (inclusive) to end
+   * (exclusive).
+   *
+   * @param channel an open channel to read from
+   * @param start   offset of the first byte to read
+   * @param end     offset after the last byte to read
+   * @throws IOException if the size of the channel cannot be read
+   */
+  MappedTokenizer(FileChannel channel, long start, long end) throws IOException {
+    this.channel = Objects.requireNonNull(channel, "Must have a non-null channel");
+    this.size = channel.size();
+    if (start < 0 || end > size || start > end) {
+      throw new IllegalArgumentException("Invalid region of the file to read");
+    }
+    this.end = end;
+    this.mapped = start;
+    this.window = ByteBuffer.allocate(0);
+    this.lowSurrogate = 0;
+  }
+
+  @Override
+  protected int read() {
+    if (lowSurrogate != 0) {
+      char c = lowSurrogate;
+      lowSurrogate = 0;
+      return c;
+    }
+    int b = nextByte();
+    if (b < 0x80) {
+      // ASCII, or -1 at the end of the input
+      return b;
+    }
+    return decode(b);
+  }
+
+  /**
+   * Read the next byte of the region, mapping the next window of the file if the current one is
+   * used up.
+   *
+   * @return the next byte as an unsigned value, or -1 at the end of the region
+   */
+  private int nextByte() {
+    if (!window.hasRemaining()) {
+      if (mapped >= end) {
+        return -1;
+      }
+      long length = Math.min(WINDOW_SIZE, end - mapped);
+      try {
+        window = channel.map(MapMode.READ_ONLY, mapped, length);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read animation input: " + e.getMessage());
+      }
+      mapped += length;
+    }
+    return window.get() & 0xFF;
+  }
+
+  /**
+   * Decode the rest of a multi-byte UTF-8 sequence whose lead byte has already been read.
+   * Malformed sequences decode to the replacement character.
+   *
+   * @param lead the first byte of the sequence
+   * @return the decoded character
+   */
+  private int decode(int lead) {
+    int extra;
+    int code;
+    if ((lead & 0xE0) == 0xC0) {
+      extra = 1;
+      code = lead & 0x1F;
+    } else if ((lead & 0xF0) == 0xE0) {
+      extra = 2;
+      code = lead & 0x0F;
+    } else if ((lead & 0xF8) == 0xF0) {
+      extra = 3;
+      code = lead & 0x07;
+    } else {
+      return '\uFFFD';
+    }
+    for (int i = 0; i < extra; i++) {
+      int b = nextByte();
+      if (b < 0 || (b & 0xC0) != 0x80) {
+        return '\uFFFD';
+      }
+      code = (code << 6) | (b & 0x3F);
+    }
+    if (Character.isBmpCodePoint(code)) {
+      return code;
+    }
+    lowSurrogate = Character.lowSurrogate(code);
+    return Character.highSurrogate(code);
+  }
+}
@@ -0,0 +1,267 @@
+package cs3500.animator.util;
+
+import cs3500.animator.model.AnimatorModel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * An on-disk cache of fully built models, so that an animation file that has been loaded before
+ * can be restored without being parsed or built again. Models are stored as serialized snapshots
+ * under the SHA-256 hash of the contents of the file they were loaded from, so an edited file never
+ * hits a stale entry. The total size of the entries is kept under a limit by evicting the least
+ * recently used ones, using the last-modified time of each entry as its time of last use. The
+ * number of hits and misses is kept in a properties file in the cache directory so that it
+ * accumulates over runs.
+ */
+public final class ModelCache {
+
+  private static final String ENTRY_SUFFIX = ".model";
+  private static final String STATS_FILE = "cache.properties";
+  // only the model classes and the JDK types they hold may be deserialized from an entry
+  private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+      "cs3500.animator.model.**;java.util.*;java.lang.*;java.awt.Color;!*");
+
+  private final File directory;
+  private final long maxBytes;
+  private long hits;
+  private long misses;
+
+  /**
+   * Construct a cache in the given directory, which is created if it does not exist yet.
+   *
+   * @param directory the directory to keep the entries in
+   * @param maxBytes  the largest total size in bytes of the entries kept
+   * @throws IllegalArgumentException if the size is negative or the directory cannot be created
+   */
+  public ModelCache(File directory, long maxBytes) {
+    Objects.requireNonNull(directory, "Must have a non-null cache directory");
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Cache size cannot be negative!");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("Cannot create cache directory " + directory);
+    }
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    Properties stats = new Properties();
+    File statsFile = new File(directory, STATS_FILE);
+    if (statsFile.isFile()) {
+      try (InputStream in = new FileInputStream(statsFile)) {
+        stats.load(in);
+      } catch (IOException e) {
+        // start counting again if the statistics cannot be read
+        stats.clear();
+      }
+    }
+    this.hits = parseCount(stats.getProperty("hits"));
+    this.misses = parseCount(stats.getProperty("misses"));
+  }
+
+  /**
+   * Compute the key under which the model loaded from the given file is cached, which is the
+   * SHA-256 hash of its contents in hexadecimal.
+   *
+   * @param input the animation file
+   * @return the key for the file
+   * @throws IOException if the file cannot be read
+   */
+  public static String keyOf(File input) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Get the model cached under the given key, counting a hit or a miss. An entry that cannot be
+   * read, for example because it was written by an older version of the model, is deleted and
+   * counted as a miss.
+   *
+   * @param key the key of the model
+   * @return the cached model, or null if there is none
+   */
+  public AnimatorModel get(String key) {
+    File entry = entryFile(key);
+    AnimatorModel model = null;
+    if (entry.isFile()) {
+      try (ObjectInputStream in = new ObjectInputStream(
+          new BufferedInputStream(new FileInputStream(entry), 1 << 16))) {
+        in.setObjectInputFilter(FILTER);
+        Object o = in.readObject();
+        if (o instanceof AnimatorModel) {
+          model = (AnimatorModel) o;
+        }
+      } catch (IOException | ClassNotFoundException e) {
+        model = null;
+      }
+      if (model == null) {
+        entry.delete();
+      } else {
+        // mark the entry as the most recently used
+        entry.setLastModified(System.currentTimeMillis());
+      }
+    }
+    if (model == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    saveStats();
+    return model;
+  }
+
+  /**
+   * Store the given model under the given key, then evict the least recently used entries until
+   * the cache fits in its size limit. Models that cannot be serialized are not stored.
+   *
+   * @param key   the key of the model
+   * @param model the model to store
+   * @throws IOException if the entry cannot be written
+   */
+  public void put(String key, AnimatorModel model) throws IOException {
+    Objects.requireNonNull(model, "Cannot cache a null model");
+    if (!(model instanceof Serializable)) {
+      return;
+    }
+    File entry = entryFile(key);
+    File temp = File.createTempFile("entry", ".tmp", directory);
+    try {
+      try (ObjectOutputStream out = new ObjectOutputStream(
+          new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+        out.writeObject(model);
+      }
+      // other runs may be reading the cache, so an entry only ever appears complete
+      Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      temp.delete();
+    }
+    evict();
+  }
+
+  /**
+   * Get the number of lookups that found a model, over every run that used this directory.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of lookups that found no model, over every run that used this directory.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Delete the least recently used entries until the total size of the entries is at most the
+   * size limit.
+   */
+  private void evict() {
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(ENTRY_SUFFIX));
+    if (files == null) {
+      return;
+    }
+    List<File> entries = new ArrayList<>();
+    long total = 0;
+    for (File f : files) {
+      entries.add(f);
+      total += f.length();
+    }
+    entries.sort(Comparator.comparingLong(File::lastModified));
+    for (File f : entries) {
+      if (total <= maxBytes) {
+        break;
+      }
+      long length = f.length();
+      if (f.delete()) {
+        total -= length;
+      }
+    }
+  }
+
+  /**
+   * Write the hit and miss counts to the statistics file. Failing to do so does not affect the
+   * cache, so errors are ignored.
+   */
+  private void saveStats() {
+    Properties stats = new Properties();
+    stats.setProperty("hits", Long.toString(hits));
+    stats.setProperty("misses", Long.toString(misses));
+    try (OutputStream out = new FileOutputStream(new File(directory, STATS_FILE))) {
+      stats.store(out, "Model cache statistics");
+    } catch (IOException e) {
+      // the counts are only informational
+    }
+  }
+
+  /**
+   * Get the file that holds the entry with the given key.
+   *
+   * @param key the key of the entry
+   * @return the file of the entry
+   * @throws IllegalArgumentException if the key is not a hexadecimal string
+   */
+  private File entryFile(String key) {
+    Objects.requireNonNull(key, "Must have a non-null key");
+    if (key.isEmpty() || !key.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+      throw new IllegalArgumentException("Invalid cache key " + key);
+    }
+    return new File(directory, key + ENTRY_SUFFIX);
+  }
+
+  /**
+   * Parse a count read from the statistics file.
+   *
+   * @param value the stored value, or null if there is none
+   * @return the count, or 0 if there is no valid count
+   */
+  private static long parseCount(String value) {
+    try {
+      return value == null ? 0 : Math.max(0, Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link AnimationTokenizer} that pulls its characters from a {@link Readable} in fixed size
+ * blocks.
+ */
+final class ReadableTokenizer extends AnimationTokenizer {
+
+  private static final int BLOCK_SIZE = 8192;
+
+  private final Readable in;
+  private final CharBuffer buffer;
+  private final char[] chars;
+  private int position;
+  private int limit;
+
+  /**
+   * Construct a tokenizer over the given source.
+   *
+   * @param in the source of the characters
+   * @throws NullPointerException if in is null
+   */
+  ReadableTokenizer(Readable in) {
+    this.in = Objects.requireNonNull(in, "Must have non-null readable source");
+    this.chars = new char[BLOCK_SIZE];
+    this.buffer = CharBuffer.wrap(chars);
+    this.position = 0;
+    this.limit = 0;
+  }
+
+  @Override
+  protected int read() {
+    if (position == limit) {
+      buffer.clear();
+      int n;
+      try {
+        do {
+          n = in.read(buffer);
+        }
+        while (n == 0);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read animation input: " + e.getMessage());
+      }
+      if (n < 0) {
+        return -1;
+      }
+      position = 0;
+      limit = n;
+    }
+    return chars[position++];
+  }
+}
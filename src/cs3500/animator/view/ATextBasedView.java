@@ -45,6 +45,11 @@ public abstract class ATextBasedView implements IView {
     this.shapes = new ArrayList<>(shapes.values());
   }
 
+  @Override
+  public void setDrawList(List<IShape> drawList) {
+    throw new UnsupportedOperationException("Text views do not draw shapes in layer order!");
+  }
+
   @Override
   public void setOutput(Appendable a) {
     this.out = a;
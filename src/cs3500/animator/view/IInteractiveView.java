@@ -73,4 +73,12 @@ public interface IInteractiveView extends IView {
    * @param shapesByLayer List of maps of shape names to shapes organized by layer
    */
   void updateLayerInterface(List<Map<String, IShape>> shapesByLayer);
+
+  /**
+   * Select the shape with the given name, as if the user had picked it from the list of shapes.
+   * Used when the user clicks on a shape in the animation.
+   *
+   * @param name the name of the shape to select
+   */
+  void selectShape(String name);
 }
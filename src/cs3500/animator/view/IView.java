@@ -2,7 +2,9 @@ package cs3500.animator.view;
 
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.view.visual.draw.DrawCommand;
+import java.awt.GraphicsEnvironment;
 import java.awt.event.ActionListener;
+import java.util.List;
 import java.util.Map;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -16,11 +18,16 @@ import javax.swing.JOptionPane;
 public interface IView {
 
   /**
-   * Display the given message in a pop-up window.
+   * Display the given message in a pop-up window, or on standard error if there is no display to
+   * show a window on.
    *
    * @param errorMes the error message to be displayed.
    */
   static void showErrorMessage(String errorMes) {
+    if (GraphicsEnvironment.isHeadless()) {
+      System.err.println("Error: " + errorMes);
+      return;
+    }
     JFrame frame = new JFrame();
     frame.setSize(100, 100);
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -35,6 +42,17 @@ public interface IView {
    */
   void setShapes(Map<String, IShape> shapes);
 
+  /**
+   * Provide the view with the shapes of the model in the order they are drawn, as kept by {@link
+   * cs3500.animator.model.AnimatorModel#getDrawList()}. A view that draws shapes keeps the list and
+   * draws it as it is each time it displays its output, so the shapes do not have to be passed
+   * again after each update of the model.
+   *
+   * @param drawList the shapes of the model in the order they are drawn
+   * @throws UnsupportedOperationException if the view does not draw shapes
+   */
+  void setDrawList(List<IShape> drawList);
+
   /**
    * Display the output of the given view.
    */
@@ -1,6 +1,8 @@
 package cs3500.animator.view;
 
 import cs3500.animator.view.editor.EditorView;
+import cs3500.animator.view.raster.GIFView;
+import cs3500.animator.view.raster.PNGView;
 import cs3500.animator.view.visual.VisualView;
 
 /**
@@ -12,7 +14,8 @@ public final class ViewFactory {
   /**
    * Construct a view depending on the type specified.
    *
-   * @param type the type of view to be generated. Supports text, visual, and svg views.
+   * @param type the type of view to be generated. Supports text, visual, svg, edit, png and gif
+   *             views.
    * @return an IView implementation dependent on the string input type.
    */
   public static IView setView(String type) {
@@ -31,6 +34,12 @@ public final class ViewFactory {
       case "edit":
         view = new EditorView();
         break;
+      case "png":
+        view = new PNGView();
+        break;
+      case "gif":
+        view = new GIFView();
+        break;
       default:
         throw new IllegalArgumentException("View type not supported!");
     }
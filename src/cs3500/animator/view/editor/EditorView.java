@@ -10,7 +10,10 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +56,8 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
   private final JButton removeKeyFrameButton;
   private final JButton keyframeAtButton;
   private final JButton editLayerButton;
+  private final JButton undoButton;
+  private final JButton redoButton;
   // text fields
   private final JTextArea timeTextArea;
   private final JTextArea widthTextArea;
@@ -86,11 +91,15 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
   private final JTextArea layer2;
   private final JButton swapButton;
   private Map<String, IShape> shapes;
+  //shapes of the model in the order they are drawn, if the model keeps them for the view
+  private List<IShape> drawList;
   private String shapeToAdd;
   private String shapeToRemove;
   private String keyframeToAdd;
   private String keyframeToRemove;
   private String timeToGetKeyframe;
+  //coordinates on the drawing panel of the last click, to select the shape there
+  private String clickedPoint;
   //private String selected;
   private JSlider slider;
 
@@ -177,6 +186,18 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
 
     controlPanel.add(loopPanel);
 
+    JPanel historyPanel = new JPanel();
+    historyPanel.setLayout(new FlowLayout());
+    historyPanel.setBorder(BorderFactory.createTitledBorder("Edit history"));
+    undoButton = new JButton("Undo");
+    undoButton.setActionCommand("Undo");
+    redoButton = new JButton("Redo");
+    redoButton.setActionCommand("Redo");
+    historyPanel.add(undoButton);
+    historyPanel.add(redoButton);
+
+    controlPanel.add(historyPanel);
+
     //panel for adding shapes
     JPanel addPanel = new JPanel();
     addPanel.setLayout(new BoxLayout(addPanel, BoxLayout.X_AXIS));
@@ -359,13 +380,22 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
         shapeNamesModel.setSelectedItem(s);
         editLayerTextArea.setText(Integer.toString(shapes.get(s).getLayer()));
       }
-      visualPanel.setShapes(new ArrayList<>(this.shapes.values()));
+      if (drawList == null) {
+        List<IShape> sorted = new ArrayList<>(this.shapes.values());
+        sorted.sort(Comparator.comparingInt(IShape::getLayer));
+        visualPanel.setShapes(sorted);
+      }
     }
   }
 
+  @Override
+  public void setDrawList(List<IShape> drawList) {
+    this.drawList = drawList;
+    visualPanel.setShapes(drawList);
+  }
+
   @Override
   public void displayOutput() {
-    visualPanel.setShapes(new ArrayList<>(this.shapes.values()));
     textPanel.repaint();
     visualPanel.repaint();
     this.setVisible(true);
@@ -374,6 +404,7 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
   @Override
   public void passBounds(int x, int y, int width, int height) {
     visualPanel.setPreferredSize(new Dimension(width, height));
+    visualPanel.setOrigin(x, y);
   }
 
   @Override
@@ -454,6 +485,8 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
         return this.shapeNames.getSelectedItem() + " " + this.editLayerTextArea.getText();
       case "Swap layers":
         return this.layer1.getText() + " " + this.layer2.getText();
+      case "Select shape":
+        return this.clickedPoint;
       default:
         throw new IllegalArgumentException("Unexpected command " + controllerCommand);
     }
@@ -485,6 +518,17 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
     editLayerButton.addActionListener(actionListener);
     layers.addActionListener(actionListener);
     swapButton.addActionListener(actionListener);
+    undoButton.addActionListener(actionListener);
+    redoButton.addActionListener(actionListener);
+    //clicking on the animation selects the shape under the mouse
+    visualPanel.addMouseListener(new MouseAdapter() {
+      @Override
+      public void mouseClicked(MouseEvent e) {
+        clickedPoint = e.getX() + " " + e.getY();
+        actionListener.actionPerformed(
+            new ActionEvent(visualPanel, ActionEvent.ACTION_PERFORMED, "Select shape"));
+      }
+    });
   }
 
   @Override
@@ -539,6 +583,13 @@ public class EditorView extends JFrame implements IInteractiveView, ActionListen
     slider.setValue(t);
   }
 
+  @Override
+  public void selectShape(String name) {
+    if (shapeNamesModel.getIndexOf(name) != -1) {
+      shapeNamesModel.setSelectedItem(name);
+    }
+  }
+
   @Override
   public void updateLayerInterface(List<Map<String, IShape>> shapesByLayer) {
     int selected = layers.getSelectedIndex();
@@ -0,0 +1,205 @@
+package cs3500.animator.view.raster;
+
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.view.IView;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import java.awt.Color;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class to abstract out the common functionality of views that draw every tick of an animation
+ * into images offscreen and write them somewhere, rather than showing them in a window. The view
+ * draws a {@link CompiledScene} of the model with a {@link ParallelFrameExporter}, on as many
+ * threads as there are processors by default, and is itself the {@link FrameSink} the frames are
+ * sent to: each frame is encoded on the thread that drew it and then accepted in order of tick.
+ * It needs no display, so it works with {@code java.awt.headless} set. When it is done it reports
+ * how many frames it drew per second to its output, standard error by default.
+ *
+ * @param <T> the type of an encoded frame
+ */
+public abstract class ARasterView<T> implements IView, FrameSink<T> {
+
+  protected int x;
+  protected int y;
+  protected int width;
+  protected int height;
+  protected int speed;
+  // where the frames are written, or null for the default of the view
+  protected File destination;
+  private Map<String, DrawCommand> knownCommands;
+  private CompiledScene scene;
+  private int lastTick;
+  private int threads;
+  private Appendable report;
+
+  /**
+   * Super class constructor to set the default size, speed and report output.
+   */
+  protected ARasterView() {
+    this.width = 500;
+    this.height = 500;
+    this.speed = 1;
+    this.knownCommands = new HashMap<>();
+    this.threads = Runtime.getRuntime().availableProcessors();
+    this.report = System.err;
+  }
+
+  /**
+   * Set how many threads to draw and encode frames on.
+   *
+   * @param threads the number of threads
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  public void setThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread to draw on!");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Set the animation to draw, as a scene compiled from the model.
+   *
+   * @param scene    the scene, which the view copies rather than updates
+   * @param lastTick the last tick of the animation; ticks 0 to lastTick are drawn
+   * @param speed    positive integer representing ticks per second
+   * @throws IllegalArgumentException if the last tick is negative or the speed is not positive
+   * @throws NullPointerException     if the scene is null
+   */
+  public void setScene(CompiledScene scene, int lastTick, int speed) {
+    if (lastTick < 0) {
+      throw new IllegalArgumentException("Last tick cannot be negative!");
+    } else if (speed <= 0) {
+      throw new IllegalArgumentException("Speed must be positive!");
+    }
+    this.scene = Objects.requireNonNull(scene, "Cannot draw a null scene");
+    this.lastTick = lastTick;
+    this.speed = speed;
+  }
+
+  /**
+   * Set where the view writes its frames.
+   *
+   * @param destination the file or directory to write to
+   * @throws NullPointerException if the destination is null
+   */
+  public void setDestination(File destination) {
+    this.destination = Objects.requireNonNull(destination, "Destination cannot be null");
+  }
+
+  /**
+   * Draw every tick of the scene and write the frames, then report the frame rate.
+   *
+   * @throws IllegalStateException if no scene has been set or the frames cannot be written
+   */
+  @Override
+  public void displayOutput() {
+    if (scene == null) {
+      throw new IllegalStateException("No animation to draw!");
+    }
+    ParallelFrameExporter exporter = new ParallelFrameExporter(scene, width, height,
+        knownCommands, Color.WHITE, threads);
+    long start = System.nanoTime();
+    try {
+      begin();
+      try {
+        exporter.export(0, lastTick, this);
+      } finally {
+        end();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Writing frames failed: " + e.getLocalizedMessage());
+    }
+    report(lastTick + 1, System.nanoTime() - start);
+  }
+
+  /**
+   * Report how many frames were drawn and written per second.
+   *
+   * @param frames the number of frames
+   * @param nanos  the time taken, in nanoseconds
+   * @throws IllegalStateException if the report cannot be written
+   */
+  protected void report(int frames, long nanos) {
+    double seconds = nanos / 1e9;
+    try {
+      report.append(String.format("Rendered %d frames in %.3f s (%.1f frames per second)\n",
+          frames, seconds, frames / Math.max(seconds, 1e-9)));
+    } catch (IOException ioe) {
+      throw new IllegalStateException("Append failed!");
+    }
+  }
+
+  /**
+   * Prepare to write frames.
+   *
+   * @throws IOException if the destination cannot be written to
+   */
+  protected abstract void begin() throws IOException;
+
+  /**
+   * Finish writing frames, after the last one has been written or writing them has failed, and
+   * release whatever {@link #begin()} opened.
+   *
+   * @throws IOException if the frames cannot be finished
+   */
+  protected abstract void end() throws IOException;
+
+  @Override
+  public void setShapes(Map<String, IShape> shapes) {
+    throw new UnsupportedOperationException("Raster views draw a compiled scene, not shapes!");
+  }
+
+  @Override
+  public void setDrawList(List<IShape> drawList) {
+    throw new UnsupportedOperationException("Raster views draw a compiled scene, not shapes!");
+  }
+
+  /**
+   * Pass the bounds of the model, which set the size of the frames.
+   *
+   * @throws IllegalArgumentException if the width or height is not positive
+   */
+  @Override
+  public void passBounds(int x, int y, int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Cannot draw frames with no pixels!");
+    }
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Set where the frame rate is reported. The frames themselves are written to the destination.
+   *
+   * @param a Appendable to report the frame rate to
+   */
+  @Override
+  public void setOutput(Appendable a) {
+    this.report = Objects.requireNonNull(a, "Output cannot be null");
+  }
+
+  @Override
+  public void setCommands(Map<String, DrawCommand> knownCommands) {
+    this.knownCommands = knownCommands;
+  }
+
+  @Override
+  public void resetFocus() {
+    // nothing to focus, since the view has no window
+  }
+
+  @Override
+  public void addActionListener(ActionListener listener) {
+    throw new UnsupportedOperationException("Can't add action listener to this view!");
+  }
+}
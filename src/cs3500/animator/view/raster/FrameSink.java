@@ -0,0 +1,37 @@
+package cs3500.animator.view.raster;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Where a {@link ParallelFrameExporter} sends the frames it draws. Each frame goes through two
+ * steps: it is first encoded on the thread that drew it, at the same time as other frames are
+ * drawn and encoded, and then accepted in order of tick, one frame at a time. Work that does not
+ * depend on the order of the frames, such as compressing them, belongs in the first step, so that
+ * it is spread over the threads of the exporter.
+ *
+ * @param <T> the type of an encoded frame
+ */
+public interface FrameSink<T> {
+
+  /**
+   * Encode a frame. This may be called on several threads at once, for frames in any order. The
+   * image is reused for another frame once this returns, so the result must not refer to it.
+   *
+   * @param tick  the tick of the frame
+   * @param frame the image of the frame
+   * @return the encoded frame
+   * @throws IOException if the frame cannot be encoded
+   */
+  T encode(int tick, BufferedImage frame) throws IOException;
+
+  /**
+   * Accept an encoded frame. This is called once for every tick, in order of tick, and never on
+   * two threads at once.
+   *
+   * @param tick    the tick of the frame
+   * @param encoded the frame, as returned by {@link #encode(int, BufferedImage)}
+   * @throws IOException if the frame cannot be written
+   */
+  void accept(int tick, T encoded) throws IOException;
+}
@@ -0,0 +1,316 @@
+package cs3500.animator.view.raster;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * A view that writes an animation as one looping animated GIF, to the destination file if one is
+ * set and to standard output otherwise. Each frame is shown for one tick at the speed of the
+ * animation, rounded to the hundredths of a second GIF delays are measured in.
+ *
+ * <p>Frames are streamed to the file or standard output with
+ * {@link ImageWriter#writeToSequence} and flushed as they are accepted, so memory does not grow
+ * with the length of the animation. Before that, each frame is turned into an indexed image on
+ * the thread that drew it. The shapes are drawn without antialiasing, so a frame has only the
+ * colors of its shapes and background. Each thread keeps the palette of its last frame and reuses
+ * it as long as every pixel has a color in it, building a new palette only when a new color
+ * appears. A frame with more than 256 colors is mapped to the nearest colors of a fixed color
+ * cube, and the frame after it gets exact colors again if it has few enough.
+ */
+public class GIFView extends ARasterView<BufferedImage> {
+
+  private static final String FORMAT = "javax_imageio_gif_image_1.0";
+
+  // palette of the last frame encoded on each thread
+  private final ThreadLocal<Palette> palettes = new ThreadLocal<>();
+  private ImageWriter writer;
+  private ImageOutputStream stream;
+  private boolean first;
+
+  @Override
+  protected void begin() throws IOException {
+    // an existing file longer than the animation would otherwise keep its tail
+    if (destination != null && destination.exists() && !destination.delete()) {
+      throw new IOException("Cannot replace " + destination);
+    }
+    // opened directly, as ImageIO prints the stack trace of a file it cannot open
+    this.stream = destination == null ? new MemoryCacheImageOutputStream(System.out)
+        : new FileImageOutputStream(destination);
+    this.writer = ImageIO.getImageWritersByFormatName("gif").next();
+    writer.setOutput(stream);
+    writer.prepareWriteSequence(null);
+    this.first = true;
+  }
+
+  @Override
+  public BufferedImage encode(int tick, BufferedImage frame) {
+    int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+    Palette palette = palettes.get();
+    // the cube has a color for every pixel, but a frame with few colors deserves them exactly
+    byte[] indices = palette == null || palette.isCube() ? null : palette.indicesOf(pixels);
+    if (indices == null) {
+      palette = Palette.of(pixels);
+      palettes.set(palette);
+      indices = palette.indicesOf(pixels);
+    }
+    WritableRaster raster = Raster.createInterleavedRaster(
+        new DataBufferByte(indices, indices.length), frame.getWidth(), frame.getHeight(),
+        frame.getWidth(), 1, new int[]{0}, null);
+    return new BufferedImage(palette.model, raster, false, null);
+  }
+
+  @Override
+  public void accept(int tick, BufferedImage encoded) throws IOException {
+    writer.writeToSequence(new IIOImage(encoded, null, metadataOf(encoded)), null);
+    // the writer never goes back, so the frame can leave the memory cache of standard output
+    stream.flush();
+    this.first = false;
+  }
+
+  @Override
+  protected void end() throws IOException {
+    try {
+      if (!first) {
+        writer.endWriteSequence();
+      }
+    } finally {
+      writer.dispose();
+      if (destination == null) {
+        stream.flush();
+        System.out.flush();
+      } else {
+        stream.close();
+      }
+    }
+  }
+
+  /**
+   * Build the metadata of a frame, which sets how long it is shown and, for the first frame, that
+   * the animation loops forever.
+   *
+   * @param frame the indexed image of the frame
+   * @return the metadata
+   * @throws IOException if the metadata cannot be built
+   */
+  private IIOMetadata metadataOf(BufferedImage frame) throws IOException {
+    IIOMetadata metadata = writer.getDefaultImageMetadata(
+        ImageTypeSpecifier.createFromRenderedImage(frame), null);
+    IIOMetadataNode root = new IIOMetadataNode(FORMAT);
+    // the writer does not take the colors from the image when writing a sequence
+    IndexColorModel colors = (IndexColorModel) frame.getColorModel();
+    IIOMetadataNode table = new IIOMetadataNode("LocalColorTable");
+    table.setAttribute("sizeOfLocalColorTable", Integer.toString(colors.getMapSize()));
+    table.setAttribute("sortFlag", "FALSE");
+    for (int i = 0; i < colors.getMapSize(); i++) {
+      IIOMetadataNode entry = new IIOMetadataNode("ColorTableEntry");
+      entry.setAttribute("index", Integer.toString(i));
+      entry.setAttribute("red", Integer.toString(colors.getRed(i)));
+      entry.setAttribute("green", Integer.toString(colors.getGreen(i)));
+      entry.setAttribute("blue", Integer.toString(colors.getBlue(i)));
+      table.appendChild(entry);
+    }
+    root.appendChild(table);
+    IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+    control.setAttribute("disposalMethod", "none");
+    control.setAttribute("userInputFlag", "FALSE");
+    control.setAttribute("transparentColorFlag", "FALSE");
+    control.setAttribute("delayTime", Integer.toString(Math.max(1, Math.round(100f / speed))));
+    control.setAttribute("transparentColorIndex", "0");
+    root.appendChild(control);
+    if (first) {
+      IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+      IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+      loop.setAttribute("applicationID", "NETSCAPE");
+      loop.setAttribute("authenticationCode", "2.0");
+      // loop forever
+      loop.setUserObject(new byte[]{1, 0, 0});
+      extensions.appendChild(loop);
+      root.appendChild(extensions);
+    }
+    metadata.mergeTree(FORMAT, root);
+    return metadata;
+  }
+
+  /**
+   * The colors of a frame and the index of each in the color table of a GIF. A palette either
+   * holds the exact colors of a frame, found with a small hash table, or is a fixed cube of 216
+   * colors, which every color maps to the nearest of.
+   */
+  private static final class Palette {
+
+    private static final int MAX_COLORS = 256;
+    // levels of each of red, green and blue in the color cube
+    private static final int LEVELS = 6;
+    // the color cube, which never changes
+    private static final Palette CUBE = cube();
+
+    private final IndexColorModel model;
+    // open addressing table of colors to indices, for exact palettes only
+    private final int[] keys;
+    private final byte[] values;
+    private final boolean[] used;
+
+    /**
+     * Construct a palette.
+     *
+     * @param model  the color table
+     * @param colors the exact colors of the table, or null for the color cube
+     */
+    private Palette(IndexColorModel model, int[] colors) {
+      this.model = model;
+      if (colors == null) {
+        this.keys = null;
+        this.values = null;
+        this.used = null;
+        return;
+      }
+      this.keys = new int[MAX_COLORS * 2];
+      this.values = new byte[MAX_COLORS * 2];
+      this.used = new boolean[MAX_COLORS * 2];
+      for (int i = 0; i < colors.length; i++) {
+        int slot = slotOf(colors[i]);
+        keys[slot] = colors[i];
+        values[slot] = (byte) i;
+        used[slot] = true;
+      }
+    }
+
+    /**
+     * Build a palette of the colors of the given pixels.
+     *
+     * @param pixels the pixels, as RGB values
+     * @return an exact palette if there are at most 256 colors, or else the color cube
+     */
+    static Palette of(int[] pixels) {
+      int[] colors = new int[MAX_COLORS];
+      int count = 0;
+      // an empty exact palette, used as a table of the colors seen so far
+      Palette seen = new Palette(null, new int[0]);
+      int last = ~pixels[0];
+      for (int p : pixels) {
+        int rgb = p & 0xFFFFFF;
+        if (rgb == last) {
+          continue;
+        }
+        last = rgb;
+        int slot = seen.slotOf(rgb);
+        if (!seen.used[slot]) {
+          if (count == MAX_COLORS) {
+            return CUBE;
+          }
+          seen.keys[slot] = rgb;
+          seen.used[slot] = true;
+          colors[count++] = rgb;
+        }
+      }
+      colors = Arrays.copyOf(colors, count);
+      // a GIF color table has a power of two entries, at least two
+      int size = Math.max(2, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+      byte[] r = new byte[size];
+      byte[] g = new byte[size];
+      byte[] b = new byte[size];
+      for (int i = 0; i < count; i++) {
+        r[i] = (byte) (colors[i] >> 16);
+        g[i] = (byte) (colors[i] >> 8);
+        b[i] = (byte) colors[i];
+      }
+      return new Palette(new IndexColorModel(8, size, r, g, b), colors);
+    }
+
+    /**
+     * Build the palette of the color cube.
+     *
+     * @return the palette
+     */
+    private static Palette cube() {
+      byte[] r = new byte[MAX_COLORS];
+      byte[] g = new byte[MAX_COLORS];
+      byte[] b = new byte[MAX_COLORS];
+      for (int i = 0; i < LEVELS * LEVELS * LEVELS; i++) {
+        r[i] = (byte) (i / (LEVELS * LEVELS) * 255 / (LEVELS - 1));
+        g[i] = (byte) (i / LEVELS % LEVELS * 255 / (LEVELS - 1));
+        b[i] = (byte) (i % LEVELS * 255 / (LEVELS - 1));
+      }
+      return new Palette(new IndexColorModel(8, MAX_COLORS, r, g, b), null);
+    }
+
+    /**
+     * Determine whether this is the color cube rather than the exact colors of a frame.
+     *
+     * @return whether this is the color cube
+     */
+    boolean isCube() {
+      return keys == null;
+    }
+
+    /**
+     * Find the slot of the table a color is in, or the empty slot it would go in.
+     *
+     * @param rgb the color
+     * @return the slot
+     */
+    private int slotOf(int rgb) {
+      int mask = keys.length - 1;
+      int slot = (rgb * 0x9E3779B1 >>> 16) & mask;
+      while (used[slot] && keys[slot] != rgb) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    /**
+     * Get the index in this palette of the color of each pixel.
+     *
+     * @param pixels the pixels, as RGB values
+     * @return the indices, or null if a pixel has a color that is not in this palette
+     */
+    byte[] indicesOf(int[] pixels) {
+      byte[] indices = new byte[pixels.length];
+      int last = ~pixels[0];
+      byte index = 0;
+      for (int i = 0; i < pixels.length; i++) {
+        int rgb = pixels[i] & 0xFFFFFF;
+        if (rgb != last) {
+          last = rgb;
+          if (keys == null) {
+            index = (byte) (level(rgb >> 16) * LEVELS * LEVELS + level(rgb >> 8) * LEVELS
+                + level(rgb));
+          } else {
+            int slot = slotOf(rgb);
+            if (!used[slot]) {
+              return null;
+            }
+            index = values[slot];
+          }
+        }
+        indices[i] = index;
+      }
+      return indices;
+    }
+
+    /**
+     * Get the nearest level of the color cube to a component of a color.
+     *
+     * @param component the component, in the low eight bits
+     * @return the level
+     */
+    private static int level(int component) {
+      return ((component & 0xFF) * (LEVELS - 1) + 127) / 255;
+    }
+  }
+}
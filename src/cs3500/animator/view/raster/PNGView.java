@@ -0,0 +1,53 @@
+package cs3500.animator.view.raster;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
+
+/**
+ * A view that writes every tick of an animation as a numbered PNG file, frame00000.png for t = 0
+ * and so on, into a directory, which is the current directory unless a destination is set. The
+ * directory is created if it does not exist. Frames are compressed on the threads that draw them,
+ * so only writing the files is done one frame at a time.
+ */
+public class PNGView extends ARasterView<byte[]> {
+
+  /**
+   * Get the directory the frames are written to.
+   *
+   * @return the directory
+   */
+  private File directory() {
+    return destination == null ? new File(".") : destination;
+  }
+
+  @Override
+  protected void begin() throws IOException {
+    File dir = directory();
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot create directory " + dir);
+    }
+  }
+
+  @Override
+  public byte[] encode(int tick, BufferedImage frame) throws IOException {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    if (!ImageIO.write(frame, "png", png)) {
+      throw new IOException("No writer for PNG images");
+    }
+    return png.toByteArray();
+  }
+
+  @Override
+  public void accept(int tick, byte[] encoded) throws IOException {
+    Files.write(new File(directory(), String.format("frame%05d.png", tick)).toPath(), encoded);
+  }
+
+  @Override
+  protected void end() {
+    // every frame is already in its own file
+  }
+}
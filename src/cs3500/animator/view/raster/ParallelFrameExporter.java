@@ -0,0 +1,273 @@
+package cs3500.animator.view.raster;
+
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import java.awt.Color;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Draws a range of ticks of an animation on several threads at once and sends the frames to a
+ * {@link FrameSink} in order of tick. Every tick of a {@link CompiledScene} is evaluated from its
+ * keyframes rather than from the tick before, so the ticks are independent: each thread has its
+ * own copy of the scene and its own {@link SceneRasterizer}, takes the next tick nobody has taken
+ * yet, draws and encodes it, and leaves it to be accepted in turn. No thread touches the shapes of
+ * the model, or another thread's scene or image.
+ *
+ * <p>Frames that are encoded before the frames ahead of them have been accepted wait in a window
+ * of twice as many frames as there are threads; a thread that gets that far ahead of the sink
+ * waits too. So memory stays the same however long the animation is.
+ */
+public final class ParallelFrameExporter {
+
+  private final CompiledScene scene;
+  private final int width;
+  private final int height;
+  private final Map<String, DrawCommand> knownCommands;
+  private final Color background;
+  private final int threads;
+
+  /**
+   * Construct an exporter of the given scene.
+   *
+   * @param scene         the scene to draw, which is copied rather than updated
+   * @param width         the width of the frames
+   * @param height        the height of the frames
+   * @param knownCommands the draw commands by shape type
+   * @param background    the color behind the shapes
+   * @param threads       the number of threads to draw on
+   * @throws IllegalArgumentException if the size or number of threads is not positive
+   * @throws NullPointerException     if the scene, commands or background is null
+   */
+  public ParallelFrameExporter(CompiledScene scene, int width, int height,
+      Map<String, DrawCommand> knownCommands, Color background, int threads) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Cannot draw frames with no pixels!");
+    } else if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread to draw on!");
+    }
+    this.scene = Objects.requireNonNull(scene, "Cannot draw a null scene");
+    this.knownCommands = Objects.requireNonNull(knownCommands, "Draw commands cannot be null");
+    this.background = Objects.requireNonNull(background, "Background cannot be null");
+    this.width = width;
+    this.height = height;
+    this.threads = threads;
+  }
+
+  /**
+   * Draw the ticks from first to last, inclusive, and send them to the sink. Returns once every
+   * frame has been accepted, or as soon as any frame fails, in which case no later frames are
+   * accepted.
+   *
+   * @param first the first tick to draw
+   * @param last  the last tick to draw
+   * @param sink  where to send the frames
+   * @param <T>   the type of an encoded frame
+   * @throws IOException              if the sink fails to encode or accept a frame
+   * @throws IllegalArgumentException if the last tick is before the first
+   */
+  public <T> void export(int first, int last, FrameSink<T> sink) throws IOException {
+    if (last < first) {
+      throw new IllegalArgumentException("Range of ticks cannot end before it starts!");
+    }
+    Objects.requireNonNull(sink, "Sink cannot be null");
+    int count = (int) Math.min(threads, (long) last - first + 1);
+    Window<T> window = new Window<>(first, last, 2 * count, sink);
+    List<SceneRasterizer> rasterizers = new ArrayList<>();
+    ExecutorService pool = Executors.newFixedThreadPool(count);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        SceneRasterizer rasterizer = new SceneRasterizer(scene.copy(), width, height,
+            knownCommands, background);
+        rasterizers.add(rasterizer);
+        workers.add(pool.submit(() -> window.work(rasterizer)));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      window.fail(e);
+      throw new InterruptedIOException("Interrupted while exporting frames");
+    } catch (ExecutionException e) {
+      // workers catch everything they throw, so this cannot happen
+      window.fail(e.getCause());
+    } finally {
+      pool.shutdownNow();
+      rasterizers.forEach(SceneRasterizer::dispose);
+    }
+    window.rethrow();
+  }
+
+  /**
+   * The ticks of one export: which tick is to be drawn next, which is to be accepted next, and the
+   * frames waiting to be accepted. Every field is guarded by the window itself.
+   *
+   * @param <T> the type of an encoded frame
+   */
+  private static final class Window<T> {
+
+    private final int first;
+    private final int last;
+    private final FrameSink<T> sink;
+    // encoded frames waiting to be accepted, in slot (tick - first) % size
+    private final Object[] frames;
+    private final boolean[] ready;
+    private int nextToDraw;
+    private int nextToAccept;
+    // whether a thread is accepting frames, so that only one does at a time
+    private boolean accepting;
+    private Throwable failure;
+
+    /**
+     * Construct the window of an export.
+     *
+     * @param first the first tick
+     * @param last  the last tick
+     * @param size  the most frames that can be drawn ahead of the next one to be accepted
+     * @param sink  where to send the frames
+     */
+    private Window(int first, int last, int size, FrameSink<T> sink) {
+      this.first = first;
+      this.last = last;
+      this.sink = sink;
+      this.frames = new Object[size];
+      this.ready = new boolean[size];
+      this.nextToDraw = first;
+      this.nextToAccept = first;
+    }
+
+    /**
+     * Draw, encode and accept frames with the given rasterizer until every tick has been taken or
+     * something has failed.
+     *
+     * @param rasterizer the rasterizer of this thread
+     */
+    private void work(SceneRasterizer rasterizer) {
+      try {
+        int tick;
+        while ((tick = take()) <= last) {
+          T encoded = sink.encode(tick, rasterizer.render(tick));
+          if (put(tick, encoded)) {
+            acceptReady();
+          }
+        }
+      } catch (Throwable t) {
+        fail(t);
+      }
+    }
+
+    /**
+     * Take the next tick to draw, waiting while it is too far ahead of the next one to be
+     * accepted.
+     *
+     * @return the tick, or a tick after the last once there are none left or something failed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private synchronized int take() throws InterruptedException {
+      while (failure == null && nextToDraw <= last
+          && nextToDraw - nextToAccept >= frames.length) {
+        wait();
+      }
+      if (failure != null || nextToDraw > last) {
+        return last + 1;
+      }
+      return nextToDraw++;
+    }
+
+    /**
+     * Leave an encoded frame to be accepted in turn.
+     *
+     * @param tick    the tick of the frame
+     * @param encoded the frame
+     * @return whether this thread should accept the frames that are ready, because no other thread
+     *         is accepting them
+     */
+    private synchronized boolean put(int tick, T encoded) {
+      int slot = (tick - first) % frames.length;
+      frames[slot] = encoded;
+      ready[slot] = true;
+      if (accepting) {
+        return false;
+      }
+      accepting = true;
+      return true;
+    }
+
+    /**
+     * Accept frames in order for as long as the next one is ready. The sink is called without
+     * holding the lock, so that other threads can go on taking ticks and putting frames.
+     *
+     * @throws IOException if the sink fails to accept a frame
+     */
+    @SuppressWarnings("unchecked")
+    private void acceptReady() throws IOException {
+      while (true) {
+        int tick;
+        T encoded;
+        synchronized (this) {
+          int slot = (nextToAccept - first) % frames.length;
+          if (failure != null || !ready[slot]) {
+            accepting = false;
+            return;
+          }
+          tick = nextToAccept;
+          encoded = (T) frames[slot];
+          frames[slot] = null;
+          ready[slot] = false;
+        }
+        try {
+          sink.accept(tick, encoded);
+        } catch (IOException | RuntimeException e) {
+          synchronized (this) {
+            accepting = false;
+          }
+          throw e;
+        }
+        synchronized (this) {
+          nextToAccept++;
+          notifyAll();
+        }
+      }
+    }
+
+    /**
+     * Record that something failed, keeping the first failure, and wake the waiting threads so
+     * that they stop.
+     *
+     * @param t what failed
+     */
+    private synchronized void fail(Throwable t) {
+      if (failure == null) {
+        failure = t;
+      }
+      notifyAll();
+    }
+
+    /**
+     * Throw the first failure of the export, if there was one.
+     *
+     * @throws IOException if a frame could not be encoded or accepted
+     */
+    private synchronized void rethrow() throws IOException {
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      } else if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      } else if (failure instanceof Error) {
+        throw (Error) failure;
+      } else if (failure != null) {
+        throw new IOException(failure);
+      }
+    }
+  }
+}
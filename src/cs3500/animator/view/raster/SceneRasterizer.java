@@ -0,0 +1,102 @@
+package cs3500.animator.view.raster;
+
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Draws the state of a {@link CompiledScene} at any tick into an offscreen {@link BufferedImage},
+ * using the same {@link DrawCommand}s as the visual view. The rasterizer owns its scene, image and
+ * graphics and reuses them for every tick, so drawing a frame allocates nothing once the colors of
+ * the shapes have been seen. It needs no display, so it works with {@code java.awt.headless} set.
+ * A rasterizer is not thread-safe; threads drawing frames at the same time each need their own.
+ */
+public final class SceneRasterizer {
+
+  private final CompiledScene scene;
+  private final BufferedImage image;
+  private final Graphics2D g;
+  private final Color background;
+  // draw command and last color used for each shape id of the scene
+  private final DrawCommand[] commands;
+  private final Color[] colors;
+
+  /**
+   * Construct a rasterizer that draws the given scene into an image of the given size.
+   *
+   * @param scene         the scene to draw, which only this rasterizer may update
+   * @param width         the width of the image
+   * @param height        the height of the image
+   * @param knownCommands the draw commands by shape type, which subtract the corner of the bounds
+   *                      of the model so that it is drawn at the corner of the image
+   * @param background    the color to clear the image to before each frame
+   * @throws IllegalArgumentException if the width or height is not positive, or the scene has a
+   *                                  shape of a type with no draw command
+   * @throws NullPointerException     if the scene, commands or background is null
+   */
+  public SceneRasterizer(CompiledScene scene, int width, int height,
+      Map<String, DrawCommand> knownCommands, Color background) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Cannot draw into an image with no pixels!");
+    }
+    this.scene = Objects.requireNonNull(scene, "Cannot draw a null scene");
+    this.background = Objects.requireNonNull(background, "Background cannot be null");
+    Objects.requireNonNull(knownCommands, "Draw commands cannot be null");
+    this.commands = new DrawCommand[scene.size()];
+    this.colors = new Color[scene.size()];
+    for (int id = 0; id < scene.size(); id++) {
+      commands[id] = knownCommands.get(scene.getType(id));
+      if (commands[id] == null) {
+        throw new IllegalArgumentException("Shape type not supported!");
+      }
+    }
+    this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    this.g = image.createGraphics();
+  }
+
+  /**
+   * Draw the scene at t = ticks. The image returned is the same one for every tick, so it must be
+   * used or copied before the next frame is drawn.
+   *
+   * @param ticks the ticks since the animation started
+   * @return the image of the frame
+   */
+  public BufferedImage render(int ticks) {
+    scene.update(ticks);
+    g.setColor(background);
+    g.fillRect(0, 0, image.getWidth(), image.getHeight());
+    for (int i = 0; i < scene.size(); i++) {
+      int id = scene.drawOrder(i);
+      if (scene.isVisible(id)) {
+        int argb = scene.getARGB(id);
+        if (colors[id] == null || colors[id].getRGB() != argb) {
+          colors[id] = new Color(argb);
+        }
+        g.setColor(colors[id]);
+        commands[id].draw(g, scene.getX(id), scene.getY(id), scene.getWidth(id),
+            scene.getHeight(id), scene.getHeading(id));
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Get the image frames are drawn into.
+   *
+   * @return the image
+   */
+  public BufferedImage getImage() {
+    return image;
+  }
+
+  /**
+   * Release the graphics of the image. The rasterizer cannot draw any more frames afterwards.
+   */
+  public void dispose() {
+    g.dispose();
+  }
+}
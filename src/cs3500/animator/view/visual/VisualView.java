@@ -1,11 +1,13 @@
 package cs3500.animator.view.visual;
 
+import cs3500.animator.model.CompiledScene;
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.view.IView;
 import cs3500.animator.view.visual.draw.DrawCommand;
 import java.awt.Dimension;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import javax.swing.JFrame;
@@ -50,24 +52,42 @@ public class VisualView extends JFrame implements IView {
   }
 
   /**
-   * Draw the output onto the {@link VisualViewPanel}.
+   * Draw the output onto the {@link VisualViewPanel}, repainting only the parts of it where a shape
+   * has changed since the last time.
    */
   @Override
   public void displayOutput() {
     panel.setShapes(this.shapes);
-    panel.repaint();
+    panel.repaintChanges();
     this.setVisible(true);
   }
 
   @Override
   public void setShapes(Map<String, IShape> shapes) {
     this.shapes = new ArrayList<>(shapes.values());
+    this.shapes.sort(Comparator.comparingInt(IShape::getLayer));
   }
 
+  @Override
+  public void setDrawList(List<IShape> drawList) {
+    this.shapes = drawList;
+  }
+
+  /**
+   * Draw the given compiled scene rather than the shapes passed to {@link #setShapes(Map)}. Each
+   * call to {@link #displayOutput()} then draws the scene in whatever state it was last updated
+   * to, without the shapes of the model being copied.
+   *
+   * @param scene the scene to draw, or null to draw the shapes again
+   */
+  public void setScene(CompiledScene scene) {
+    panel.setScene(scene);
+  }
 
   @Override
   public void passBounds(int x, int y, int w, int h) {
     this.setSize(w, h);
+    panel.setOrigin(x, y);
   }
 
   @Override
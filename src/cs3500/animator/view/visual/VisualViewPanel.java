@@ -1,11 +1,18 @@
 package cs3500.animator.view.visual;
 
+import cs3500.animator.model.CompiledScene;
 import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.ShapeBounds;
 import cs3500.animator.view.visual.draw.DrawCommand;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.util.Comparator;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,13 +21,62 @@ import javax.swing.JPanel;
 /**
  * Panel on which the shapes passed into the visual view are actually drawn. Extends the JPanel
  * class and overrides its paintComponent() method to display the shapes on a {@link Graphics2D}
- * object.
+ * object. Only the shapes whose bounding boxes overlap the clip of the graphics are drawn, which
+ * inside a {@link javax.swing.JScrollPane} is the part of the panel showing in the viewport.
+ *
+ * <p>{@link #repaintChanges()} repaints only the part of the panel where something changed since
+ * it was last called. For each place in the drawing order, the panel remembers the box the shape
+ * there covered on the panel, rotation included, and its color and draw command. A shape that has
+ * not moved, turned, resized or changed color adds nothing to the region repainted, so a scene
+ * that is mostly still costs little more to draw than the shapes that move.
+ *
+ * <p>Layers that hold still are also kept as images. Each paint checks the shapes of every layer
+ * against how they were drawn the last time, and a layer none of whose shapes moved, turned,
+ * resized, changed color or appeared or disappeared is drawn by copying its image, made the first
+ * time it was needed, rather than shape by shape. A layer with a change is drawn shape by shape
+ * and its image thrown away, so an edit to a shape in the editor, or a new shape, counts as a
+ * change to the layer it is on without anything having to say so. Each image only covers the part
+ * of the panel the shapes of its layer are in, and layers stop being cached once the images take
+ * a fixed amount of memory.
  */
 public class VisualViewPanel extends JPanel {
 
+  // most pixels of layer images to keep, 16 megabytes of them
+  private static final long MAX_CACHED_PIXELS = 1 << 22;
 
   private Map<String, DrawCommand> knownCommands;
   private List<IShape> shapes;
+  // draw command, the type it was looked up for and last color used for each id of the shapes
+  private DrawCommand[] commandsById;
+  private String[] typesById;
+  private Color[] colorsById;
+  private CompiledScene scene;
+  // draw command and last color used for each shape id of the scene
+  private DrawCommand[] sceneCommands;
+  private Color[] sceneColors;
+  // corner of the bounds of the model, which is drawn at the corner of the panel
+  private int originX;
+  private int originY;
+  // for each place in the drawing order, whether the shape there was visible when it was last
+  // checked, its x, y, width, height and heading, color and command then, and whether it has
+  // changed since the last paint; null to forget them all
+  private double[] drawnStates;
+  private boolean[] drawnVisible;
+  private int[] drawnColors;
+  private DrawCommand[] drawnCommands;
+  private boolean[] unpainted;
+  // the region to repaint for the changes found so far, as left, top, right and bottom
+  private final int[] dirty;
+  // whether the whole panel must be repainted, as what is drawn has changed in some other way
+  private boolean repaintAll;
+  // the x, y, width, height and heading of the shape being checked, and its box on the panel
+  private final double[] state;
+  private final int[] box;
+  // image of each layer that has not changed since it was cached, by layer, the pixels of all
+  // of them, and the layers drawn by the last paint
+  private final Map<Integer, CachedLayer> layerImages;
+  private long cachedPixels;
+  private final BitSet drawnLayers;
 
   /**
    * Construct a new VisualViewPanel() object. Constructor initializes map of known shapes that can
@@ -28,20 +84,346 @@ public class VisualViewPanel extends JPanel {
    */
   public VisualViewPanel() {
     knownCommands = new HashMap<>();
+    commandsById = new DrawCommand[0];
+    typesById = new String[0];
+    colorsById = new Color[0];
+    dirty = new int[4];
+    clearDirty();
+    repaintAll = true;
+    state = new double[5];
+    box = new int[4];
+    layerImages = new HashMap<>();
+    drawnLayers = new BitSet();
+  }
+
+  /**
+   * Repaint the parts of the panel that have changed since this method was last called: the boxes
+   * that each shape whose place, size, heading, color or visibility changed covered before and
+   * covers now. The whole panel is repainted the first time, and after the scene, commands, origin
+   * or number of shapes changes.
+   *
+   * @return the region repainted, in the coordinates of the panel, or null if nothing changed
+   */
+  public Rectangle repaintChanges() {
+    int count = scene != null ? scene.size() : shapes == null ? 0 : shapes.size();
+    fitDrawn(count);
+    for (int i = 0; i < count; i++) {
+      checkDrawn(i);
+    }
+    Rectangle region;
+    if (repaintAll) {
+      region = new Rectangle(0, 0, getWidth(), getHeight());
+      this.repaintAll = false;
+    } else if (dirty[0] < dirty[2] && dirty[1] < dirty[3]) {
+      region = new Rectangle(dirty[0], dirty[1], dirty[2] - dirty[0], dirty[3] - dirty[1]);
+    } else {
+      return null;
+    }
+    clearDirty();
+    repaint(region);
+    return region;
+  }
+
+  /**
+   * Empty the region to repaint.
+   */
+  private void clearDirty() {
+    dirty[0] = Integer.MAX_VALUE;
+    dirty[1] = Integer.MAX_VALUE;
+    dirty[2] = Integer.MIN_VALUE;
+    dirty[3] = Integer.MIN_VALUE;
+  }
+
+  /**
+   * Add a box to a region, unless the box is empty.
+   *
+   * @param region the region, as left, top, right and bottom
+   * @param left   the left edge of the box
+   * @param top    the top edge of the box
+   * @param right  the right edge of the box
+   * @param bottom the bottom edge of the box
+   */
+  private static void addBox(int[] region, int left, int top, int right, int bottom) {
+    if (left >= right || top >= bottom) {
+      return;
+    }
+    region[0] = Math.min(region[0], left);
+    region[1] = Math.min(region[1], top);
+    region[2] = Math.max(region[2], right);
+    region[3] = Math.max(region[3], bottom);
   }
 
   @Override
   protected void paintComponent(Graphics gr) {
-    if (shapes == null) {
+    if (scene == null && shapes == null) {
+      return;
+    }
+    super.paintComponent(gr);
+    paintLayers((Graphics2D) gr);
+  }
+
+  /**
+   * Draw the layers in order. A layer none of whose shapes has changed since the last paint is
+   * drawn from its cached image, which is made the first time it is needed. A layer with a shape
+   * that has changed loses its image and has its shapes drawn one at a time, so a layer that is
+   * moving costs no more than before and one that has stopped is cached again on the next paint.
+   * Images of layers that are no longer drawn are dropped.
+   *
+   * @param g the graphics to draw on
+   */
+  private void paintLayers(Graphics2D g) {
+    int count = scene != null ? scene.size() : shapes.size();
+    fitDrawn(count);
+    Rectangle clip = g.getClipBounds();
+    // shapes of the scene that might be drawn inside the clip, found only if a layer needs them
+    int[] inClip = null;
+    int next = 0;
+    drawnLayers.clear();
+    int i = 0;
+    while (i < count) {
+      int layer = layerAt(i);
+      int start = i;
+      boolean changed = false;
+      boolean empty = true;
+      while (i < count && layerAt(i) == layer) {
+        // every shape of the layer is checked, so that each remembers its latest state
+        checkDrawn(i);
+        changed |= unpainted[i];
+        unpainted[i] = false;
+        empty &= !drawnVisible[i];
+        i++;
+      }
+      if (empty) {
+        continue;
+      }
+      drawnLayers.set(layer);
+      CachedLayer cached = layerImages.get(layer);
+      if (!changed && (cached == null || !cached.holds(start, i, getWidth(), getHeight()))) {
+        uncache(layer);
+        cached = renderLayer(start, i);
+        if (cached != null) {
+          layerImages.put(layer, cached);
+          cachedPixels += cached.pixels();
+        }
+      }
+      if (!changed && cached != null) {
+        g.drawImage(cached.image, cached.x, cached.y, null);
+      } else if (scene != null && clip != null) {
+        uncache(layer);
+        if (inClip == null) {
+          inClip = scene.shapesIn(clip.x + originX - 1, clip.y + originY - 1, clip.width + 2,
+              clip.height + 2);
+        }
+        // the shapes in the clip are in drawing order, so those of this layer come next
+        while (next < inClip.length && scene.getLayer(inClip[next]) < layer) {
+          next++;
+        }
+        for (; next < inClip.length && scene.getLayer(inClip[next]) == layer; next++) {
+          paintSceneShape(g, inClip[next]);
+        }
+      } else {
+        uncache(layer);
+        drawShapes(g, clip, start, i);
+      }
+    }
+    for (Integer layer : layerImages.keySet().toArray(new Integer[0])) {
+      if (!drawnLayers.get(layer)) {
+        uncache(layer);
+      }
+    }
+  }
+
+  /**
+   * Drop the cached image of a layer, if it has one.
+   *
+   * @param layer the layer
+   */
+  private void uncache(int layer) {
+    CachedLayer cached = layerImages.remove(layer);
+    if (cached != null) {
+      cachedPixels -= cached.pixels();
+    }
+  }
+
+  /**
+   * Get the layer of the shape at a place in the drawing order.
+   *
+   * @param i the place of the shape
+   * @return its layer
+   */
+  private int layerAt(int i) {
+    return scene != null ? scene.getLayer(scene.drawOrder(i)) : shapes.get(i).getLayer();
+  }
+
+  /**
+   * Remember how the shape at a place in the drawing order is drawn now. If that has changed, the
+   * boxes it covered before and covers now are added to the region to repaint, and the place is
+   * marked as changed until the next paint.
+   *
+   * @param i the place of the shape
+   */
+  private void checkDrawn(int i) {
+    boolean visible;
+    int argb;
+    DrawCommand cmd;
+    if (scene != null) {
+      int id = scene.drawOrder(i);
+      visible = scene.isVisible(id);
+      if (!visible && !drawnVisible[i]) {
+        return;
+      }
+      state[0] = scene.getX(id);
+      state[1] = scene.getY(id);
+      state[2] = scene.getWidth(id);
+      state[3] = scene.getHeight(id);
+      state[4] = scene.getHeading(id);
+      argb = scene.getARGB(id);
+      cmd = sceneCommands[id];
+    } else {
+      IShape s = shapes.get(i);
+      visible = s.isVisible();
+      if (!visible && !drawnVisible[i]) {
+        return;
+      }
+      state[0] = s.getX();
+      state[1] = s.getY();
+      state[2] = s.getWidth();
+      state[3] = s.getHeight();
+      state[4] = s.getHeading();
+      argb = s.getRGB();
+      cmd = commandFor(s);
+    }
+    boolean same = visible == drawnVisible[i] && argb == drawnColors[i]
+        && cmd == drawnCommands[i];
+    for (int k = 0; k < 5; k++) {
+      same &= state[k] == drawnStates[i * 5 + k];
+    }
+    if (same) {
+      return;
+    }
+    // a place forgotten with the rest is covered by repainting the whole panel
+    if (drawnVisible[i] && !Double.isNaN(drawnStates[i * 5])) {
+      boxAt(i, box);
+      addBox(dirty, box[0], box[1], box[2], box[3]);
+    }
+    System.arraycopy(state, 0, drawnStates, i * 5, 5);
+    drawnVisible[i] = visible;
+    drawnColors[i] = argb;
+    drawnCommands[i] = cmd;
+    unpainted[i] = true;
+    if (visible) {
+      boxAt(i, box);
+      addBox(dirty, box[0], box[1], box[2], box[3]);
+    }
+  }
+
+  /**
+   * Forget how every shape was drawn and every cached layer if the number of shapes is not the
+   * number remembered, or everything was to be forgotten.
+   *
+   * @param count the number of shapes to remember from now on
+   */
+  private void fitDrawn(int count) {
+    if (drawnStates != null && count * 5 == drawnStates.length) {
       return;
     }
-    Graphics2D g = (Graphics2D) gr;
-    super.paintComponent(g);
-    shapes.sort(compareShapes);
-    for (IShape s : this.shapes) {
-      if (s.isVisible()) {
-        g.setColor(new Color(s.getColor().getRGB()));
-        DrawCommand cmd = knownCommands.getOrDefault(s.getType(), null);
+    this.drawnStates = new double[count * 5];
+    this.drawnColors = new int[count];
+    this.drawnCommands = new DrawCommand[count];
+    this.unpainted = new boolean[count];
+    // every shape counts as changed once, visible or not
+    this.drawnVisible = new boolean[count];
+    Arrays.fill(drawnVisible, true);
+    Arrays.fill(drawnStates, Double.NaN);
+    layerImages.clear();
+    this.cachedPixels = 0;
+    this.repaintAll = true;
+  }
+
+  /**
+   * Draw a layer onto a new image just large enough for the part of its shapes on the panel, with
+   * nothing around them. Layers are not cached beyond a fixed number of pixels in all.
+   *
+   * @param start the place in the drawing order of the first shape of the layer
+   * @param end   the place just past its last shape
+   * @return the cached layer, or null if the layer is not to be cached
+   */
+  private CachedLayer renderLayer(int start, int end) {
+    // the part of the panel covered by the layer, as left, top, right and bottom
+    int[] covered = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+    for (int i = start; i < end; i++) {
+      if (drawnVisible[i]) {
+        boxAt(i, box);
+        addBox(covered, box[0], box[1], box[2], box[3]);
+      }
+    }
+    if (covered[0] >= covered[2] || covered[1] >= covered[3]) {
+      return null;
+    }
+    Rectangle bounds = new Rectangle(covered[0], covered[1], covered[2] - covered[0],
+        covered[3] - covered[1]).intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+    if (bounds.isEmpty()
+        || cachedPixels + (long) bounds.width * bounds.height > MAX_CACHED_PIXELS) {
+      return null;
+    }
+    GraphicsConfiguration config = getGraphicsConfiguration();
+    BufferedImage image = config == null
+        ? new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB_PRE)
+        : config.createCompatibleImage(bounds.width, bounds.height, Transparency.TRANSLUCENT);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.translate(-bounds.x, -bounds.y);
+      drawShapes(g, null, start, end);
+    } finally {
+      g.dispose();
+    }
+    return new CachedLayer(image, bounds.x, bounds.y, start, end, getWidth(), getHeight());
+  }
+
+  /**
+   * Get the box on the panel the shape at a place in the drawing order might be drawn in, rotated
+   * by its heading, in the state last remembered for it.
+   *
+   * @param i   the place of the shape
+   * @param box the array to put the box in, as left, top, right and bottom
+   */
+  private void boxAt(int i, int[] box) {
+    int b = i * 5;
+    double w = drawnStates[b + 2];
+    double h = drawnStates[b + 3];
+    // a pixel of slack, as the draw commands round the boxes of the shapes to whole pixels
+    double hw = ShapeBounds.halfWidth(w, h, drawnStates[b + 4]) + 1;
+    double hh = ShapeBounds.halfHeight(w, h, drawnStates[b + 4]) + 1;
+    double cx = drawnStates[b] + w / 2 - originX;
+    double cy = drawnStates[b + 1] + h / 2 - originY;
+    box[0] = (int) Math.floor(cx - hw);
+    box[1] = (int) Math.floor(cy - hh);
+    box[2] = (int) Math.ceil(cx + hw) + 1;
+    box[3] = (int) Math.ceil(cy + hh) + 1;
+  }
+
+  /**
+   * Draw the visible shapes at some places in the drawing order, in their current state.
+   *
+   * @param g     the graphics to draw on
+   * @param clip  the part of the panel to draw, or null for all of it
+   * @param start the first place to draw
+   * @param end   the place just past the last one to draw
+   */
+  private void drawShapes(Graphics2D g, Rectangle clip, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!drawnVisible[i]) {
+        continue;
+      }
+      if (clip != null && !overlaps(i, clip)) {
+        continue;
+      }
+      if (scene != null) {
+        paintSceneShape(g, scene.drawOrder(i));
+      } else {
+        IShape s = shapes.get(i);
+        g.setColor(colorOf(s));
+        DrawCommand cmd = commandFor(s);
         if (cmd == null) {
           throw new IllegalArgumentException("Shape type not supported!");
         } else {
@@ -52,9 +434,142 @@ public class VisualViewPanel extends JPanel {
   }
 
   /**
-   * Sets the list of shapes in the view panel to the given list of shapes.
+   * Get the draw command for the type of the given shape, looking it up by type only the first
+   * time the shape is drawn.
+   *
+   * @param s the shape
+   * @return the draw command, or null if the type of the shape is not known
+   */
+  private DrawCommand commandFor(IShape s) {
+    int id = s.getId();
+    if (id < 0) {
+      return knownCommands.get(s.getType());
+    }
+    fitIds(id);
+    if (!s.getType().equals(typesById[id])) {
+      typesById[id] = s.getType();
+      commandsById[id] = knownCommands.get(s.getType());
+    }
+    return commandsById[id];
+  }
+
+  /**
+   * Get the color to draw the given shape in, reusing the color last used for the shape if it has
+   * not changed.
+   *
+   * @param s the shape
+   * @return the color of the shape
+   */
+  private Color colorOf(IShape s) {
+    int id = s.getId();
+    if (id < 0) {
+      return new Color(s.getRGB());
+    }
+    fitIds(id);
+    if (colorsById[id] == null || colorsById[id].getRGB() != s.getRGB()) {
+      colorsById[id] = new Color(s.getRGB());
+    }
+    return colorsById[id];
+  }
+
+  /**
+   * Make sure the arrays kept by shape id have room for the given id.
    *
-   * @param shapes the list of shapes to set this panels list of shapes to.
+   * @param id the id of a shape
+   */
+  private void fitIds(int id) {
+    if (id >= commandsById.length) {
+      int length = Math.max(id + 1, commandsById.length * 2);
+      this.commandsById = Arrays.copyOf(commandsById, length);
+      this.typesById = Arrays.copyOf(typesById, length);
+      this.colorsById = Arrays.copyOf(colorsById, length);
+    }
+  }
+
+  /**
+   * Draw a shape of the scene in its current state.
+   *
+   * @param g  the graphics to draw on
+   * @param id the id of the shape
+   */
+  private void paintSceneShape(Graphics2D g, int id) {
+    DrawCommand cmd = sceneCommands[id];
+    if (cmd == null) {
+      throw new IllegalArgumentException("Shape type not supported!");
+    }
+    int argb = scene.getARGB(id);
+    if (sceneColors[id] == null || sceneColors[id].getRGB() != argb) {
+      sceneColors[id] = new Color(argb);
+    }
+    g.setColor(sceneColors[id]);
+    cmd.draw(g, scene.getX(id), scene.getY(id), scene.getWidth(id), scene.getHeight(id),
+        scene.getHeading(id));
+  }
+
+  /**
+   * Determine whether the bounding box of the shape at a place in the drawing order, rotated by
+   * its heading, might overlap the given clip of the panel.
+   *
+   * @param i    the place of the shape
+   * @param clip the clip, in the coordinates of the panel
+   * @return whether the shape might be drawn inside the clip
+   */
+  private boolean overlaps(int i, Rectangle clip) {
+    boxAt(i, box);
+    return box[2] >= clip.x && box[0] <= clip.x + clip.width
+        && box[3] >= clip.y && box[1] <= clip.y + clip.height;
+  }
+
+  /**
+   * Set the corner of the bounds of the model, which the draw commands draw at the top left
+   * corner of the panel, so that the panel can tell which shapes are in the part of it showing.
+   *
+   * @param x the x coordinate of the corner of the bounds
+   * @param y the y coordinate of the corner of the bounds
+   */
+  public void setOrigin(int x, int y) {
+    this.originX = x;
+    this.originY = y;
+    this.repaintAll = true;
+    this.drawnStates = null;
+  }
+
+  /**
+   * Draw the given compiled scene instead of a list of shapes. The panel reads the state of the
+   * scene each time it is painted, so the scene only has to be updated before a repaint.
+   *
+   * @param scene the scene to draw, or null to draw the list of shapes again
+   */
+  public void setScene(CompiledScene scene) {
+    this.scene = scene;
+    resolveSceneCommands();
+    this.repaintAll = true;
+    this.drawnStates = null;
+  }
+
+  /**
+   * Look up the draw command for each shape of the scene once, rather than on every paint.
+   */
+  private void resolveSceneCommands() {
+    if (scene == null) {
+      this.sceneCommands = null;
+      this.sceneColors = null;
+      return;
+    }
+    this.sceneCommands = new DrawCommand[scene.size()];
+    this.sceneColors = new Color[scene.size()];
+    for (int id = 0; id < scene.size(); id++) {
+      sceneCommands[id] = knownCommands.get(scene.getType(id));
+    }
+  }
+
+  /**
+   * Sets the list of shapes in the view panel to the given list of shapes, which are drawn in the
+   * order of the list on every paint. The panel keeps the list rather than a copy, so a list that
+   * is kept in order by the model, such as its draw list, only has to be set once.
+   *
+   * @param shapes the list of shapes to set this panels list of shapes to, in the order to draw
+   *               them
    */
   public void setShapes(List<IShape> shapes) {
     this.shapes = shapes;
@@ -67,15 +582,69 @@ public class VisualViewPanel extends JPanel {
    */
   public void setCommands(Map<String, DrawCommand> knownCommands) {
     this.knownCommands = knownCommands;
+    Arrays.fill(typesById, null);
+    resolveSceneCommands();
+    this.repaintAll = true;
+    this.drawnStates = null;
   }
 
   /**
-   * A comparator to compare shapes by their layers.
+   * The image of the part of a layer on the panel, where it goes on the panel, and the places in
+   * the drawing order of the shapes drawn on it.
    */
-  private final Comparator<IShape> compareShapes = new Comparator<IShape>() {
-    @Override
-    public int compare(IShape s1, IShape s2) {
-      return s1.getLayer() - s2.getLayer();
+  private static final class CachedLayer {
+
+    private final BufferedImage image;
+    private final int x;
+    private final int y;
+    private final int start;
+    private final int end;
+    private final int panelWidth;
+    private final int panelHeight;
+
+    /**
+     * Construct a cached layer.
+     *
+     * @param image       the image of the layer
+     * @param x           the x coordinate on the panel of the left edge of the image
+     * @param y           the y coordinate on the panel of the top edge of the image
+     * @param start       the place in the drawing order of the first shape of the layer
+     * @param end         the place just past its last shape
+     * @param panelWidth  the width of the panel the image was drawn for
+     * @param panelHeight the height of the panel the image was drawn for
+     */
+    CachedLayer(BufferedImage image, int x, int y, int start, int end, int panelWidth,
+        int panelHeight) {
+      this.image = image;
+      this.x = x;
+      this.y = y;
+      this.start = start;
+      this.end = end;
+      this.panelWidth = panelWidth;
+      this.panelHeight = panelHeight;
+    }
+
+    /**
+     * Determine whether this image can be drawn for the given shapes on a panel of the given size.
+     *
+     * @param start  the place in the drawing order of the first shape of the layer
+     * @param end    the place just past its last shape
+     * @param width  the width of the panel
+     * @param height the height of the panel
+     * @return whether the image was drawn from the same shapes for a panel of the same size
+     */
+    boolean holds(int start, int end, int width, int height) {
+      return this.start == start && this.end == end && panelWidth == width
+          && panelHeight == height;
+    }
+
+    /**
+     * Get the number of pixels of the image.
+     *
+     * @return the number of pixels
+     */
+    long pixels() {
+      return (long) image.getWidth() * image.getHeight();
     }
-  };
-}
\ No newline at end of file
+  }
+}
@@ -46,15 +46,31 @@ public abstract class ADrawCommand implements DrawCommand {
             + "to=\"visible\" >\n", name, start / speed) + "</set>\n";
   }
 
-  protected Graphics2D setupRotation(Graphics2D g, IShape shape) {
-
-    AffineTransform transform = new AffineTransform();
-    transform.rotate(-Math.toRadians(shape.getHeading()),
-        (shape.getPosition().getX() - x) + shape.getWidth() / 2,
-        (shape.getPosition().getY() - y) + shape.getHeight() / 2);
-
-    g.transform(transform);
+  @Override
+  public void draw(IShape s, Graphics2D g) {
+    draw(g, s.getPosition().getX(), s.getPosition().getY(), s.getWidth(), s.getHeight(),
+        s.getHeading());
+  }
 
-    return g;
+  @Override
+  public void draw(Graphics2D g, double x, double y, double w, double h, double heading) {
+    AffineTransform saved = g.getTransform();
+    if (heading != 0) {
+      g.rotate(-Math.toRadians(heading), (x - this.x) + w / 2, (y - this.y) + h / 2);
+    }
+    fill(g, (int) x - this.x, (int) y - this.y, (int) w, (int) h);
+    g.setTransform(saved);
   }
+
+  /**
+   * Fill the outline of the shape drawn by this command in the given box, with the offsets of the
+   * display already subtracted.
+   *
+   * @param g {@link Graphics2D} to draw the shape on
+   * @param x the x coordinate of the box
+   * @param y the y coordinate of the box
+   * @param w the width of the box
+   * @param h the height of the box
+   */
+  protected abstract void fill(Graphics2D g, int x, int y, int w, int h);
 }
@@ -18,6 +18,19 @@ public interface DrawCommand {
    */
   void draw(IShape s, Graphics2D g);
 
+  /**
+   * Draw a shape with the given properties, rotated about its center by its heading. The transform
+   * of the graphics is the same afterwards as before.
+   *
+   * @param g       {@link Graphics2D} to draw the shape on
+   * @param x       the x coordinate of the shape
+   * @param y       the y coordinate of the shape
+   * @param w       the width of the shape
+   * @param h       the height of the shape
+   * @param heading the heading of the shape in degrees
+   */
+  void draw(Graphics2D g, double x, double y, double w, double h, double heading);
+
   /**
    * Get an SVG representation of the shape and its associated motions represented as a String.
    *
@@ -22,10 +22,8 @@ public class DrawRectangle extends ADrawCommand {
   }
 
   @Override
-  public void draw(IShape s, Graphics2D g) {
-    setupRotation(g, s);
-    g.fillRect((int) s.getPosition().getX() - super.x, (int) s.getPosition().getY() - super.y,
-        (int) s.getWidth(), (int) s.getHeight());
+  protected void fill(Graphics2D g, int x, int y, int w, int h) {
+    g.fillRect(x, y, w, h);
   }
 
   @Override
@@ -0,0 +1,277 @@
+import static org.junit.Assert.assertEquals;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.util.AnimationBuilder;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.IView;
+import cs3500.animator.view.TextView;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Test;
+
+/**
+ * Test the parsing of animation files by the {@link AnimationReader} class.
+ */
+public class AnimationReaderTest {
+
+  /**
+   * Parse the given text into a log of the builder calls it produced.
+   *
+   * @param text the contents of an animation file
+   * @return log of the calls made to the builder
+   */
+  private String parse(String text) {
+    BuilderMock builder = new BuilderMock();
+    AnimationReader.parseFile(new StringReader(text), builder);
+    return builder.log.toString();
+  }
+
+  /**
+   * Parse the given text and return the message of the exception thrown while doing so.
+   *
+   * @param text the contents of an animation file
+   * @return the message of the exception
+   */
+  private String parseError(String text) {
+    try {
+      parse(text);
+    } catch (IllegalStateException e) {
+      return e.getMessage();
+    }
+    throw new AssertionError("Expected the input to be rejected");
+  }
+
+  @Test
+  public void testCanvasShapeAndMotion() {
+    assertEquals("bounds 200 70 360 360\n"
+            + "shape R rectangle 0\n"
+            + "shape C ellipse 3\n"
+            + "motion R 1 200 200 50 100 255 0 0 0 10 200 200 50 100 255 0 0 0\n"
+            + "build\n",
+        parse("canvas 200 70 360 360\n"
+            + "shape R rectangle\n"
+            + "shape C ellipse 3\n"
+            + "motion R 1 200 200 50 100 255 0 0    10 200 200 50 100 255 0 0\n"));
+  }
+
+  @Test
+  public void testRotate() {
+    assertEquals("motion R 1 0 0 5 5 0 0 0 0 10 0 0 5 5 0 0 0 -90\nbuild\n",
+        parse("rotate R 1 0 0 5 5 0 0 0 0 10 0 0 5 5 0 0 0 -90"));
+  }
+
+  @Test
+  public void testCommentsAndLineBreaks() {
+    assertEquals("shape C ellipse 0\n"
+            + "motion C 6 440 70 120 60 0 0 255 0 20 440 70 120 60 0 0 255 0\n"
+            + "build\n",
+        parse("# a comment line\n"
+            + "shape C ellipse#trailing comment\n"
+            + "motion C 6  440 70 120 60 0 0 255 # start state\r\n"
+            + "\t 20 440 70 120 60 0 0 255 # end state\n"
+            + "# done"));
+  }
+
+  @Test
+  public void testEmptyInput() {
+    assertEquals("build\n", parse(" \n # nothing here\n"));
+  }
+
+  @Test
+  public void testUnexpectedKeyword() {
+    assertEquals("Unexpected keyword: move R 1 2 3", parseError("move R 1 2 3\nshape C ellipse"));
+  }
+
+  @Test
+  public void testNotAnInteger() {
+    assertEquals("Canvas: expected integer for width, got: wide",
+        parseError("canvas 0 0 wide 10"));
+    assertEquals("Motion: expected integer for initial y-coordinate, got: 2147483648",
+        parseError("motion R 1 1 2147483648 1 1 1 1 1 1 1 1 1 1 1 1 1"));
+  }
+
+  @Test
+  public void testMissingInput() {
+    assertEquals("Motion: expected integer for final blue value, but no more input available",
+        parseError("motion R 1 1 1 1 1 1 1 1 1 1 1 1 1 1 1"));
+    assertEquals("Shape: Expected a type, but no more input available", parseError("shape R"));
+    assertEquals("Motion: Expected a shape name, but no more input available",
+        parseError("motion"));
+  }
+
+  @Test
+  public void testLongTokensAndExtremeValues() {
+    StringBuilder name = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      name.append('n');
+    }
+    assertEquals("shape " + name + " rectangle -2147483648\nbuild\n",
+        parse("shape " + name + " rectangle -2147483648"));
+  }
+
+  @Test
+  public void testMappedFileMatchesReadable() throws IOException {
+    String text = "canvas 0 0 100 100\n"
+        + "shape caf\u00e9 ellipse 1 # d\u00e9cor\n"
+        + "shape \ud83d\ude00 rectangle\n"
+        + "motion caf\u00e9 1 2 3 4 5 6 7 8\n"
+        + "  9 10 11 12 13 14 15 16\n";
+    BuilderMock builder = new BuilderMock();
+    AnimationReader.parseFile(tempFile(text), builder);
+    assertEquals(parse(text), builder.log.toString());
+  }
+
+  @Test
+  public void testMappedEmptyFile() throws IOException {
+    File f = File.createTempFile("animation", ".txt");
+    f.deleteOnExit();
+    BuilderMock builder = new BuilderMock();
+    AnimationReader.parseFile(f, builder);
+    assertEquals("build\n", builder.log.toString());
+  }
+
+  /**
+   * Write the given text to a temporary file.
+   *
+   * @param text the contents of the file
+   * @return the file
+   * @throws IOException if the file cannot be written
+   */
+  private File tempFile(String text) throws IOException {
+    File f = File.createTempFile("animation", ".txt");
+    f.deleteOnExit();
+    Files.write(f.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return f;
+  }
+
+  /**
+   * Generate the text of an animation with many shapes and motions, some of which run over two
+   * lines or are interrupted by comments.
+   *
+   * @return the text of the animation
+   */
+  private String generateAnimation() {
+    StringBuilder text = new StringBuilder("# generated\ncanvas 10 20 300 400\n");
+    for (int i = 0; i < 40; i++) {
+      text.append("shape s").append(i).append(i % 2 == 0 ? " rectangle " : " ellipse ")
+          .append(i % 3).append('\n');
+    }
+    for (int t = 0; t < 30; t++) {
+      for (int i = 0; i < 40; i++) {
+        text.append(i % 7 == 0 ? "rotate s" : "motion s").append(i).append(' ')
+            .append(t * 5 + 1).append(' ').append(i + t).append(' ').append(i).append(" 10 20 ")
+            .append(t).append(" 0 ").append(i).append(i % 7 == 0 ? " " + t * 10 : "")
+            .append(i % 5 == 0 ? " # continued\n   " : "  ")
+            .append(t * 5 + 6).append(' ').append(i + t + 1).append(' ').append(i)
+            .append(" 10 20 ").append(t + 1).append(" 0 ").append(i)
+            .append(i % 7 == 0 ? " " + (t + 1) * 10 : "").append("\n");
+      }
+      text.append("# end of round ").append(t).append("\n\n");
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testParallelMatchesSequentialCalls() throws IOException {
+    String text = generateAnimation();
+    File f = tempFile(text);
+    for (int chunks : new int[]{1, 2, 3, 8, 64, 5000}) {
+      BuilderMock builder = new BuilderMock();
+      AnimationReader.parseFileParallel(f, builder, chunks);
+      assertEquals(parse(text), builder.log.toString());
+    }
+  }
+
+  @Test
+  public void testParallelBuildsSameModel() throws IOException {
+    File f = tempFile(generateAnimation());
+    AnimatorModel sequential = AnimationReader.parseFile(f, new AnimatorModelImpl.Builder());
+    AnimatorModel parallel =
+        AnimationReader.parseFileParallel(f, new AnimatorModelImpl.Builder(), 16);
+    assertEquals(textOf(sequential), textOf(parallel));
+  }
+
+  @Test
+  public void testParallelReportsError() throws IOException {
+    StringBuilder text = new StringBuilder("shape R rectangle\n");
+    for (int i = 0; i < 100; i++) {
+      text.append("motion R 1 1 1 1 1 1 1 1 2 1 1 1 1 1 1 1\n");
+    }
+    text.append("motion R 1 1 1 1 1 1 1 1 2 1 1 1 1 1 1 oops\n");
+    BuilderMock builder = new BuilderMock();
+    try {
+      AnimationReader.parseFileParallel(tempFile(text.toString()), builder, 4);
+      throw new AssertionError("Expected the input to be rejected");
+    } catch (IllegalStateException e) {
+      assertEquals("Motion: expected integer for final blue value, got: oops", e.getMessage());
+    }
+  }
+
+  /**
+   * Get the textual description of the model.
+   *
+   * @param model the model to describe
+   * @return the output of a text view of the model
+   */
+  private String textOf(AnimatorModel model) {
+    StringBuilder out = new StringBuilder();
+    IView view = new TextView(out);
+    int[] bounds = model.getBounds();
+    view.passBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+    view.setShapes(model.getShapes());
+    view.displayOutput();
+    return out.toString();
+  }
+
+  /**
+   * Mock builder that logs every call made to it.
+   */
+  private static final class BuilderMock implements AnimationBuilder<AnimatorModel> {
+
+    private final StringBuilder log = new StringBuilder();
+
+    @Override
+    public AnimatorModel build() {
+      log.append("build\n");
+      return null;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> setBounds(int x, int y, int width, int height) {
+      log.append(String.format("bounds %d %d %d %d\n", x, y, width, height));
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type) {
+      return declareShape(name, type, 0);
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type, int layer) {
+      log.append(String.format("shape %s %s %d\n", name, type, layer));
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addMotion(String name, int t1, int x1, int y1, int w1,
+        int h1, int r1, int g1, int b1, int heading1, int t2, int x2, int y2, int w2, int h2,
+        int r2, int g2, int b2, int heading2) {
+      log.append(String.format(
+          "motion %s %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d\n", name,
+          t1, x1, y1, w1, h1, r1, g1, b1, heading1, t2, x2, y2, w2, h2, r2, g2, b2, heading2));
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addKeyframe(String name, int t, int x, int y, int w,
+        int h, int r, int g, int b, int heading) {
+      log.append(String.format("keyframe %s %d\n", name, t));
+      return this;
+    }
+  }
+}
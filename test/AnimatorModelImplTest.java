@@ -1,7 +1,12 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import cs3500.animator.model.AnimatorModel;
 import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.frame.Frame;
+import cs3500.animator.model.frame.IFrame;
 import cs3500.animator.model.motion.ChangeSizeMotion;
 import cs3500.animator.model.motion.ColorMotion;
 import cs3500.animator.model.motion.Motion;
@@ -10,12 +15,16 @@ import cs3500.animator.model.shape.Ellipse;
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.model.shape.Position2D;
 import cs3500.animator.model.shape.Rectangle;
+import cs3500.animator.model.shape.ShapeBounds;
+import cs3500.animator.model.shape.ShapeState;
 import cs3500.animator.view.IView;
 import cs3500.animator.view.TextView;
 import java.awt.Color;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -451,4 +460,359 @@ public final class AnimatorModelImplTest {
     assertEquals(0, fromModel.get(3).size());
     assertEquals(2, fromModel.get(4).size());
   }
+
+  @Test
+  public void testBuilderSortsAndDedupsKeyframes() {
+    AnimatorModel built = new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("R", "rectangle")
+        .addMotion("R", 10, 5, 5, 1, 1, 0, 0, 0, 0, 20, 15, 5, 1, 1, 0, 0, 0, 0)
+        .addMotion("R", 1, 0, 0, 1, 1, 0, 0, 0, 0, 10, 5, 5, 1, 1, 0, 0, 0, 0)
+        .build();
+    IShape r = built.getShapes().get("R");
+    assertEquals(3, r.getKeyFrames().size());
+    assertEquals(1, r.getKeyFrames().get(0).getTime());
+    assertEquals(20, r.getKeyFrames().get(2).getTime());
+    assertEquals(1, r.getStartTime());
+    assertEquals(20, r.getEndTime());
+    assertEquals(new Position2D(0, 0), r.getPosition());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderRejectsOverlappingMotions() {
+    new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("R", "rectangle")
+        .addMotion("R", 1, 0, 0, 1, 1, 0, 0, 0, 0, 10, 10, 0, 1, 1, 0, 0, 0, 0)
+        .addMotion("R", 5, 0, 0, 1, 1, 0, 0, 0, 0, 15, 0, 10, 1, 1, 0, 0, 0, 0)
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderRejectsInconsistentMotions() {
+    new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("R", "rectangle")
+        .addMotion("R", 1, 0, 0, 1, 1, 0, 0, 0, 0, 10, 10, 0, 1, 1, 0, 0, 0, 0)
+        .addMotion("R", 10, 10, 0, 1, 1, 0, 0, 0, 0, 20, 10, 0, 1, 1, 9, 0, 0, 0)
+        .addMotion("R", 20, 10, 0, 1, 1, 0, 0, 0, 0, 30, 10, 0, 5, 5, 9, 0, 0, 0)
+        .build();
+  }
+
+  @Test(timeout = 20000)
+  public void testBuildLargeAnimation() {
+    AnimatorModelImpl.Builder builder = new AnimatorModelImpl.Builder();
+    builder.setBounds(0, 0, 100, 100);
+    builder.declareShape("R", "rectangle");
+    builder.declareShape("E", "ellipse", 1);
+    for (int i = 0; i < 50000; i++) {
+      int t = i * 2 + 1;
+      builder.addMotion("R", t, i, 0, 10, 10, 0, 0, 0, 0, t + 2, i + 1, 0, 10, 10, 0, 0, 0, 0);
+      builder.addMotion("E", t, 0, i, 10, 10, 0, 0, i % 256, 0,
+          t + 2, 0, i + 1, 10, 10, 0, 0, (i + 1) % 256, 0);
+    }
+    AnimatorModel built = builder.build();
+    assertEquals(100001, built.getLastTick());
+    built.setStateTo(50001);
+    assertEquals(new Position2D(25000, 0), built.getShapes().get("R").getPosition());
+  }
+
+  @Test
+  public void testEvaluateAllReusesBuffer() {
+    AnimatorModel built = new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("R", "rectangle")
+        .declareShape("E", "ellipse")
+        .addMotion("R", 1, 0, 0, 10, 10, 0, 0, 0, 0, 11, 10, 0, 10, 10, 0, 0, 0, 0)
+        .addMotion("E", 1, 0, 0, 10, 10, 0, 0, 0, 0, 21, 0, 0, 30, 10, 0, 0, 0, 0)
+        .build();
+    ShapeState[] states = built.evaluateAll(6, null);
+    assertEquals(2, states.length);
+    assertEquals("R", states[0].getName());
+    assertEquals(5, states[0].getX(), 0.0001);
+    assertEquals("E", states[1].getName());
+    assertEquals(15, states[1].getWidth(), 0.0001);
+    ShapeState first = states[0];
+    assertSame(states, built.evaluateAll(11, states));
+    assertSame(first, states[0]);
+    assertEquals(10, states[0].getX(), 0.0001);
+    assertEquals(20, states[1].getWidth(), 0.0001);
+    ShapeState[] resized = built.evaluateAll(11, new ShapeState[]{first});
+    assertSame(first, resized[0]);
+    assertEquals(2, resized.length);
+  }
+
+  /**
+   * Build a model with shapes that start and end at different times.
+   *
+   * @return the model
+   */
+  private AnimatorModel staggeredModel() {
+    return staggeredModel(20);
+  }
+
+  /**
+   * Build a model of the given number of shapes, where shapes whose numbers differ by a multiple
+   * of 20 move at the same ticks.
+   *
+   * @param count the number of shapes
+   * @return the model
+   */
+  private AnimatorModel staggeredModel(int count) {
+    AnimatorModelImpl.Builder builder = new AnimatorModelImpl.Builder();
+    builder.setBounds(0, 0, 100, 100);
+    for (int i = 0; i < count; i++) {
+      builder.declareShape("S" + i, i % 2 == 0 ? "rectangle" : "ellipse");
+      int t = i % 20 * 3 + 1;
+      builder.addMotion("S" + i, t, i, 0, 10, 10, 0, 0, 0, 0,
+          t + 7, i + 7, 3, 12, 10, 70, 20, 0, 0);
+      builder.addMotion("S" + i, t + 7, i + 7, 3, 12, 10, 70, 20, 0, 0,
+          t + 12, i + 7, 3, 12, 10, 70, 20, 255, 30);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testUpdateMatchesUpdatingEveryShape() {
+    AnimatorModel scheduled = staggeredModel();
+    Map<String, IShape> reference = staggeredModel().getShapes();
+    int[] ticks = new int[120];
+    for (int i = 0; i < 70; i++) {
+      ticks[i] = i;
+    }
+    // jump back, skip ahead and repeat a tick, then play forward again
+    for (int i = 70; i < 120; i++) {
+      ticks[i] = i < 80 ? i - 60 : i < 90 ? i - 40 : 55 + (i - 90) / 2;
+    }
+    for (int t : ticks) {
+      scheduled.update(t);
+      for (IShape s : reference.values()) {
+        s.applyMotion(t);
+      }
+      Map<String, IShape> actual = scheduled.getShapes();
+      for (IShape expected : reference.values()) {
+        IShape s = actual.get(expected.getName());
+        assertEquals(expected.isVisible(), s.isVisible());
+        assertEquals(expected.getPosition(), s.getPosition());
+        assertEquals(expected.getWidth(), s.getWidth(), 0);
+        assertEquals(expected.getColor(), s.getColor());
+      }
+    }
+  }
+
+  @Test
+  public void testFirstAndLastTickFollowChanges() {
+    AnimatorModel m = new AnimatorModelImpl();
+    assertEquals(0, m.getFirstTick());
+    assertEquals(0, m.getLastTick());
+    AnimatorModel built = staggeredModel();
+    assertEquals(1, built.getFirstTick());
+    assertEquals(70, built.getLastTick());
+    built.addKeyFrame(new Frame(90, "S3", new Position2D(0, 0), Color.RED, 5, 5));
+    assertEquals(90, built.getLastTick());
+    built.removeKeyFrame(new Frame(90, "S3", new Position2D(0, 0), Color.RED, 5, 5));
+    assertEquals(70, built.getLastTick());
+    built.removeShape("S19");
+    assertEquals(67, built.getLastTick());
+    built.removeShape("S0");
+    assertEquals(4, built.getFirstTick());
+    built.addShape(new Rectangle(Color.RED, new Position2D(0, 0), 5, 5, "N"));
+    built.addMotion(new MoveMotion(2, 100, "N", new Position2D(0, 0), new Position2D(9, 9)));
+    assertEquals(2, built.getFirstTick());
+    assertEquals(100, built.getLastTick());
+  }
+
+  @Test
+  public void testShapeAtFollowsUpdatesAndLayers() {
+    AnimatorModel m = staggeredModel();
+    m.update(1);
+    // only S0 has appeared, as a 10 by 10 square at the origin
+    assertEquals("S0", m.shapeAt(5, 5).getName());
+    assertNull(m.shapeAt(15, 5));
+    m.update(4);
+    // S0 has moved right, and S1 has appeared just behind it and on the same layer
+    assertEquals("S1", m.shapeAt(2, 5).getName());
+    assertEquals("S1", m.shapeAt(5, 5).getName());
+    assertEquals("S0", m.shapeAt(12.5, 5).getName());
+    m.changeShapeLayer("S0", 1);
+    assertEquals("S0", m.shapeAt(5, 5).getName());
+    m.removeShape("S1");
+    assertNull(m.shapeAt(2, 5));
+  }
+
+  @Test
+  public void testShapeAtFollowsEveryTick() {
+    AnimatorModel m = staggeredModel();
+    // the first hit test builds the grid, and later ones only move the shapes updates touched
+    m.shapeAt(0, 0);
+    int[] ticks = new int[90];
+    for (int i = 0; i < 80; i++) {
+      ticks[i] = i;
+    }
+    // jump back, which updates every shape, then play forward again
+    for (int i = 80; i < 90; i++) {
+      ticks[i] = i - 60;
+    }
+    for (int t : ticks) {
+      m.update(t);
+      for (double x = 0.5; x < 40; x += 2) {
+        for (double y = 0.5; y < 20; y += 2) {
+          // the last shape in the draw list under the point is the one drawn on top
+          String expected = null;
+          for (IShape s : m.getDrawList()) {
+            if (s.isVisible() && ShapeBounds.contains(s.getX(), s.getY(), s.getWidth(),
+                s.getHeight(), s.getHeading(), x, y)) {
+              expected = s.getName();
+            }
+          }
+          IShape found = m.shapeAt(x, y);
+          assertEquals("at tick " + t, expected, found == null ? null : found.getName());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testShapesDuringNeverMissesAShape() {
+    AnimatorModel m = staggeredModel();
+    int[][] spans = {{0, 5}, {10, 10}, {20, 40}, {66, 90}, {0, 100}};
+    double[][] regions = {{0, 0, 5, 5}, {20, 0, 3, 3}, {8, 11, 4, 4}, {24, 2, 1, 1}};
+    ShapeState[] states = null;
+    for (int[] span : spans) {
+      for (double[] r : regions) {
+        List<String> found = m.shapesDuring(r[0], r[1], r[2], r[3], span[0], span[1]);
+        for (int t = span[0]; t <= span[1]; t++) {
+          states = m.evaluateAll(t, states);
+          for (ShapeState s : states) {
+            boolean covers = s.isVisible()
+                && s.getX() <= r[0] + r[2] && s.getX() + s.getWidth() >= r[0]
+                && s.getY() <= r[1] + r[3] && s.getY() + s.getHeight() >= r[1];
+            assertTrue(!covers || found.contains(s.getName()));
+          }
+        }
+      }
+    }
+    // S0 runs from tick 1 to 13, S1 appears at 4, and only S19 reaches past x = 37
+    assertEquals(Arrays.asList("S0"), m.shapesDuring(0, 0, 1, 1, 0, 3));
+    assertEquals(Arrays.asList("S0", "S1"), m.shapesDuring(0, 0, 1, 1, 0, 4));
+    assertEquals(Arrays.asList(), m.shapesDuring(0, 0, 1, 1, 17, 57));
+    assertEquals(Arrays.asList("S19"), m.shapesDuring(37.5, 0, 0.1, 0.1, 0, 100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShapesDuringBackwardsSpan() {
+    staggeredModel().shapesDuring(0, 0, 1, 1, 5, 4);
+  }
+
+  @Test
+  public void testParallelUpdateMatchesSequential() {
+    // enough shapes move at once for the loop to be split into several ranges
+    AnimatorModelImpl sequential = (AnimatorModelImpl) staggeredModel(4000);
+    AnimatorModelImpl parallel = (AnimatorModelImpl) staggeredModel(4000);
+    sequential.setParallelism(null, 1);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      parallel.setParallelism(pool, 1);
+      int[] ticks = {0, 1, 2, 3, 30, 31, 32, 33, 10, 69, 70, 71, 5};
+      for (int t : ticks) {
+        sequential.update(t);
+        parallel.update(t);
+        Map<String, IShape> actual = parallel.getShapes();
+        for (IShape expected : sequential.getShapes().values()) {
+          IShape s = actual.get(expected.getName());
+          assertEquals(expected.isVisible(), s.isVisible());
+          assertEquals(expected.getPosition(), s.getPosition());
+          assertEquals(expected.getColor(), s.getColor());
+        }
+      }
+      sequential.setStateTo(40);
+      parallel.setStateTo(40);
+      Map<String, IShape> actual = parallel.getShapes();
+      for (IShape expected : sequential.getShapes().values()) {
+        IShape s = actual.get(expected.getName());
+        assertEquals(expected.getPosition(), s.getPosition());
+        assertEquals(expected.getWidth(), s.getWidth(), 0);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelThresholdMustBePositive() {
+    new AnimatorModelImpl().setParallelism(null, 0);
+  }
+
+  @Test
+  public void testPlaybackDoesNotAllocate() {
+    AnimatorModelImpl model = (AnimatorModelImpl) staggeredModel();
+    model.setParallelism(null, 1);
+    // play the animation through so that the lists of active motions reach their full size
+    for (int loop = 0; loop < 3; loop++) {
+      for (int t = 0; t <= 75; t++) {
+        model.update(t);
+      }
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long id = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(id);
+    for (int t = 0; t <= 75; t++) {
+      model.update(t);
+    }
+    long allocated = threads.getThreadAllocatedBytes(id) - before;
+    // allow for the bookkeeping of the measurement itself
+    assertTrue("Playback allocated " + allocated + " bytes", allocated < 256);
+  }
+
+  @Test
+  public void testShapesGetDenseIds() {
+    AnimatorModel model = new AnimatorModelImpl();
+    model.addShape(new Rectangle("A"));
+    model.addShape(new Ellipse("B"));
+    model.addShape(new Rectangle("C"));
+    assertEquals(0, model.getShapes().get("A").getId());
+    assertEquals(1, model.getShapes().get("B").getId());
+    assertEquals(2, model.getShapes().get("C").getId());
+    // ids are not reused, so a shape put back by undo gets its own id back
+    model.removeShape("B");
+    model.addShape(new Ellipse("D"));
+    assertEquals(3, model.getShapes().get("D").getId());
+    model.undo();
+    model.undo();
+    assertEquals(1, model.getShapes().get("B").getId());
+    assertEquals(1, model.getDrawList().get(1).getId());
+  }
+
+  @Test
+  public void testIdsSurviveStateChanges() {
+    AnimatorModel model = staggeredModel();
+    int[] ids = new int[model.getShapes().size()];
+    int i = 0;
+    for (IShape s : model.getShapes().values()) {
+      ids[i++] = s.getId();
+    }
+    model.setStateTo(30);
+    i = 0;
+    for (IShape s : model.getShapes().values()) {
+      assertEquals(ids[i++], s.getId());
+    }
+  }
+
+  @Test
+  public void testKeyframesShareTheDeclaredName() {
+    AnimatorModel model = new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("R", "rectangle")
+        .addKeyframe(new String("R"), 1, 0, 0, 10, 10, 0, 0, 0, 0)
+        .addMotion(new String("R"), 5, 0, 0, 10, 10, 0, 0, 0, 0, 9, 5, 5, 10, 10, 0, 0, 0, 0)
+        .build();
+    IShape r = model.getShapes().get("R");
+    for (IFrame f : r.getKeyFrames()) {
+      assertSame(r.getName(), f.getName());
+    }
+    for (Motion m : r.getMotionsList()) {
+      assertSame(r.getName(), m.getId());
+    }
+  }
 }
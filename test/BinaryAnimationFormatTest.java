@@ -0,0 +1,145 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.util.BinaryAnimationFormat;
+import cs3500.animator.view.IView;
+import cs3500.animator.view.TextView;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+
+/**
+ * Test the writing and reading of animations in the {@link BinaryAnimationFormat}.
+ */
+public class BinaryAnimationFormatTest {
+
+  private static final String ANIMATION = "canvas 200 70 360 360\n"
+      + "shape R rectangle 1\n"
+      + "shape C ellipse\n"
+      + "shape S rectangle 2\n"
+      + "motion R 1 200 200 50 100 255 0 0  10 200 200 50 100 255 0 0\n"
+      + "motion R 10 200 200 50 100 255 0 0  50 300 300 50 100 255 0 0\n"
+      + "rotate R 50 300 300 50 100 255 0 0 0  70 300 300 25 100 255 0 0 90\n"
+      + "motion C 6 440 70 120 60 0 0 255  20 440 70 120 60 0 0 255\n"
+      + "motion C 20 440 70 120 60 0 0 255  50 440 250 120 60 0 170 85\n";
+
+  /**
+   * Write the model in the binary format and read it back.
+   *
+   * @param model the model to write
+   * @return the model read back
+   * @throws IOException if writing or reading fails
+   */
+  private AnimatorModel roundTrip(AnimatorModel model) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryAnimationFormat.write(model, bytes);
+    return BinaryAnimationFormat.parse(new ByteArrayInputStream(bytes.toByteArray()),
+        new AnimatorModelImpl.Builder());
+  }
+
+  /**
+   * Get the textual description of the model.
+   *
+   * @param model the model to describe
+   * @return the output of a text view of the model
+   */
+  private String textOf(AnimatorModel model) {
+    StringBuilder out = new StringBuilder();
+    IView view = new TextView(out);
+    int[] bounds = model.getBounds();
+    view.passBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+    view.setShapes(model.getShapes());
+    view.displayOutput();
+    return out.toString();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    AnimatorModel copy = roundTrip(model);
+    assertEquals(textOf(model), textOf(copy));
+    assertEquals(model.getShapes().get("R").getLayer(), copy.getShapes().get("R").getLayer());
+    assertEquals(model.getShapes().get("S").getType(), copy.getShapes().get("S").getType());
+    assertEquals(model.getShapes().get("R").getStateAt(60).getHeading(),
+        copy.getShapes().get("R").getStateAt(60).getHeading(), 0.0001);
+  }
+
+  @Test
+  public void testSingleKeyframe() throws IOException {
+    AnimatorModel model = new AnimatorModelImpl.Builder()
+        .setBounds(0, 0, 100, 100)
+        .declareShape("K", "ellipse", 0)
+        .addKeyframe("K", 4, 10, 20, 30, 40, 1, 2, 3, 0)
+        .build();
+    AnimatorModel copy = roundTrip(model);
+    assertEquals(1, copy.getShapes().get("K").getKeyFrames().size());
+    assertEquals(textOf(model), textOf(copy));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNotBinary() throws IOException {
+    BinaryAnimationFormat.parse(new ByteArrayInputStream(ANIMATION.getBytes()),
+        new AnimatorModelImpl.Builder());
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryAnimationFormat.write(model, bytes);
+    byte[] all = bytes.toByteArray();
+    byte[] cut = new byte[all.length - 3];
+    System.arraycopy(all, 0, cut, 0, cut.length);
+    try {
+      BinaryAnimationFormat.parse(new ByteArrayInputStream(cut), new AnimatorModelImpl.Builder());
+      throw new AssertionError("Expected the input to be rejected");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("ended unexpectedly"));
+    }
+  }
+
+  /**
+   * Write the start of a binary animation of one shape, up to the length of its name.
+   */
+  private DataOutputStream header(ByteArrayOutputStream bytes) throws IOException {
+    DataOutputStream data = new DataOutputStream(bytes);
+    data.writeBytes("ANIM");
+    data.writeInt(1);
+    for (int b : new int[]{0, 0, 100, 100}) {
+      data.writeInt(b);
+    }
+    data.writeInt(1);
+    return data;
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testHugeKeyframeCount() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = header(bytes);
+    data.writeInt(1);
+    data.writeBytes("R");
+    data.writeInt(9);
+    data.writeBytes("rectangle");
+    data.writeInt(0);
+    // seven columns of four bytes would overflow an int
+    data.writeInt(Integer.MAX_VALUE / 20);
+    BinaryAnimationFormat.parse(new ByteArrayInputStream(bytes.toByteArray()),
+        new AnimatorModelImpl.Builder());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testHugeNameLength() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    header(bytes).writeInt(Integer.MAX_VALUE - 8);
+    BinaryAnimationFormat.parse(new ByteArrayInputStream(bytes.toByteArray()),
+        new AnimatorModelImpl.Builder());
+  }
+}
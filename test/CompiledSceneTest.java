@@ -0,0 +1,147 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.model.shape.ShapeState;
+import cs3500.animator.util.AnimationReader;
+import java.io.StringReader;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the compilation and playback of a {@link CompiledScene}.
+ */
+public class CompiledSceneTest {
+
+  private static final String ANIMATION = "canvas 200 70 360 360\n"
+      + "shape R rectangle 1\n"
+      + "shape C ellipse\n"
+      + "shape S rectangle 2\n"
+      + "shape E ellipse 1\n"
+      + "motion R 1 200 200 50 100 255 0 0  10 200 200 50 100 255 0 0\n"
+      + "motion R 10 200 200 50 100 255 0 0  50 300 300 50 100 255 0 0\n"
+      + "rotate R 50 300 300 50 100 255 0 0 0  70 300 300 25 100 255 0 0 90\n"
+      + "motion C 6 440 70 120 60 0 0 255  20 440 70 120 60 0 0 255\n"
+      + "motion C 20 440 70 120 60 0 0 255  50 440 250 120 60 0 170 85\n"
+      + "motion E 3 0 0 10 10 7 7 7  9 3 3 13 13 250 1 100\n";
+
+  private AnimatorModel model;
+  private CompiledScene scene;
+
+  @Before
+  public void init() {
+    model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    scene = new CompiledScene(model);
+  }
+
+  @Test
+  public void testMatchesEvaluate() {
+    ShapeState[] states = null;
+    for (int t = 0; t <= 75; t++) {
+      scene.update(t);
+      states = model.evaluateAll(t, states);
+      assertEquals(t, scene.getTick());
+      assertEquals(states.length, scene.size());
+      for (int id = 0; id < scene.size(); id++) {
+        ShapeState s = states[id];
+        assertEquals(s.getName(), scene.getName(id));
+        assertEquals(s.isVisible(), scene.isVisible(id));
+        assertEquals(s.getX(), scene.getX(id), 0);
+        assertEquals(s.getY(), scene.getY(id), 0);
+        assertEquals(s.getWidth(), scene.getWidth(id), 0);
+        assertEquals(s.getHeight(), scene.getHeight(id), 0);
+        assertEquals(s.getHeading(), scene.getHeading(id), 0);
+        assertEquals(s.getRGB(), scene.getARGB(id));
+      }
+    }
+  }
+
+  @Test
+  public void testIdsAndDrawOrder() {
+    assertEquals(0, scene.idOf("R"));
+    assertEquals(3, scene.idOf("E"));
+    assertEquals("ellipse", scene.getType(scene.idOf("C")));
+    assertEquals(2, scene.getLayer(scene.idOf("S")));
+    // by layer, and by id within a layer
+    assertEquals(scene.idOf("C"), scene.drawOrder(0));
+    assertEquals(scene.idOf("R"), scene.drawOrder(1));
+    assertEquals(scene.idOf("E"), scene.drawOrder(2));
+    assertEquals(scene.idOf("S"), scene.drawOrder(3));
+  }
+
+  @Test
+  public void testVisibility() {
+    int c = scene.idOf("C");
+    scene.update(5);
+    assertFalse(scene.isVisible(c));
+    scene.update(6);
+    assertTrue(scene.isVisible(c));
+    scene.update(51);
+    assertFalse(scene.isVisible(c));
+    assertFalse(scene.isVisible(scene.idOf("S")));
+  }
+
+  @Test
+  public void testShapesIn() {
+    scene.update(10);
+    int r = scene.idOf("R");
+    int c = scene.idOf("C");
+    // E has gone and S never appears
+    assertArrayEquals(new int[]{c, r}, scene.shapesIn(0, 0, 1000, 1000));
+    assertArrayEquals(new int[]{r}, scene.shapesIn(190, 190, 20, 20));
+    assertArrayEquals(new int[0], scene.shapesIn(0, 0, 100, 50));
+    scene.update(5);
+    assertArrayEquals(new int[]{scene.idOf("E")}, scene.shapesIn(0, 0, 100, 50));
+  }
+
+  @Test
+  public void testShapeAtFollowsUpdates() {
+    int r = scene.idOf("R");
+    scene.update(50);
+    assertEquals(r, scene.shapeAt(301, 301));
+    assertEquals(-1, scene.shapeAt(351.75, 383));
+    // R is now turned by 45 degrees about its center, so its corner has moved away
+    scene.update(60);
+    assertEquals(-1, scene.shapeAt(301, 301));
+    assertEquals(r, scene.shapeAt(351.75, 383));
+    scene.update(80);
+    assertEquals(-1, scene.shapeAt(351.75, 383));
+  }
+
+  @Test
+  public void testShapeAtMissesGaps() {
+    scene.update(20);
+    assertEquals(scene.idOf("C"), scene.shapeAt(450, 100));
+    assertEquals(-1, scene.shapeAt(439, 100));
+    assertEquals(-1, scene.shapeAt(10, 10));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownName() {
+    scene.idOf("X");
+  }
+
+  @Test
+  public void testCopyHasItsOwnState() {
+    int r = scene.idOf("R");
+    scene.update(10);
+    CompiledScene copy = scene.copy();
+    assertEquals(10, copy.getTick());
+    assertEquals(scene.getX(r), copy.getX(r), 0);
+    copy.update(40);
+    CompiledScene fresh = new CompiledScene(model);
+    fresh.update(40);
+    assertEquals(fresh.getX(r), copy.getX(r), 0);
+    assertEquals(fresh.getARGB(r), copy.getARGB(r));
+    // the original is still at t = 10
+    assertEquals(10, scene.getTick());
+    fresh.update(10);
+    assertEquals(fresh.getX(r), scene.getX(r), 0);
+    assertEquals(scene.idOf("S"), copy.idOf("S"));
+  }
+}
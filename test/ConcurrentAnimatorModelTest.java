@@ -0,0 +1,154 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.model.ConcurrentAnimatorModel;
+import cs3500.animator.model.ModelSnapshot;
+import cs3500.animator.model.frame.Frame;
+import cs3500.animator.model.shape.Position2D;
+import cs3500.animator.model.shape.Rectangle;
+import cs3500.animator.model.shape.ShapeState;
+import cs3500.animator.util.AnimationReader;
+import java.awt.Color;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link ConcurrentAnimatorModel} and the snapshots it publishes.
+ */
+public class ConcurrentAnimatorModelTest {
+
+  private static final String ANIMATION = "canvas 0 0 200 200\n"
+      + "shape R rectangle\n"
+      + "shape C ellipse 1\n"
+      + "motion R 1 10 10 50 100 255 0 0  10 20 20 50 100 255 0 0\n"
+      + "motion C 5 100 50 20 20 0 0 255  30 100 150 20 20 0 170 85\n";
+
+  private ConcurrentAnimatorModel model;
+
+  @Before
+  public void init() {
+    model = new ConcurrentAnimatorModel(AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder()));
+  }
+
+  @Test
+  public void testReadsMatchWrappedModel() {
+    AnimatorModel plain = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    assertEquals(plain.getLastTick(), model.getLastTick());
+    assertEquals(plain.getFirstTick(), model.getFirstTick());
+    assertTrue(Arrays.equals(plain.getBounds(), model.getBounds()));
+    assertEquals(plain.getShapes().keySet(), model.getShapes().keySet());
+    assertEquals(plain.getShapesByLayer().get(1).keySet(),
+        model.getShapesByLayer().get(1).keySet());
+    ShapeState[] expected = plain.evaluateAll(7, null);
+    ShapeState[] actual = model.evaluateAll(7, null);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].getX(), actual[i].getX(), 0);
+      assertEquals(expected[i].getY(), actual[i].getY(), 0);
+      assertEquals(expected[i].getRGB(), actual[i].getRGB());
+    }
+  }
+
+  @Test
+  public void testSnapshotIsNotChangedByLaterEdits() {
+    ModelSnapshot before = model.snapshot();
+    model.addShape(new Rectangle(Color.RED, new Position2D(0, 0), 5, 5, "N"));
+    model.addKeyFrame(new Frame(40, "N", new Position2D(0, 0), Color.RED, 5, 5));
+    model.addKeyFrame(new Frame(50, "N", new Position2D(0, 0), Color.RED, 5, 5));
+    ModelSnapshot after = model.snapshot();
+    assertEquals(2, before.size());
+    assertEquals(30, before.getLastTick());
+    assertEquals(3, after.size());
+    assertEquals(50, after.getLastTick());
+    assertEquals(before.getVersion() + 3, after.getVersion());
+    assertEquals(2, new CompiledScene(before).size());
+    assertEquals(3, new CompiledScene(after).size());
+  }
+
+  @Test
+  public void testUpdatesArePublished() {
+    for (int t = 0; t <= 10; t++) {
+      model.update(t);
+    }
+    assertEquals(20, model.getShapes().get("R").getX(), 0.01);
+    assertEquals("R", model.shapeAt(30, 30).getName());
+    assertNull(model.shapeAt(190, 190));
+  }
+
+  @Test
+  public void testSnapshotIsTakenOnReadAfterChanges() {
+    ModelSnapshot first = model.snapshot();
+    assertSame(first, model.snapshot());
+    for (int t = 0; t <= 10; t++) {
+      model.update(t);
+    }
+    // the updates are counted, but only the read after them takes a snapshot
+    ModelSnapshot played = model.snapshot();
+    assertEquals(first.getVersion() + 11, played.getVersion());
+    assertSame(played, model.snapshot());
+    assertEquals(20, played.getShapes().get("R").getX(), 0.01);
+  }
+
+  @Test
+  public void testFailedChangeIsReported() {
+    long version = model.snapshot().getVersion();
+    try {
+      model.addShape(new Rectangle(Color.RED, new Position2D(0, 0), 5, 5, "R"));
+    } catch (IllegalArgumentException e) {
+      assertEquals(2, model.snapshot().size());
+      assertTrue(model.snapshot().getVersion() > version);
+      return;
+    }
+    throw new AssertionError("Adding a second shape named R should fail");
+  }
+
+  @Test
+  public void testReadersSeeWholeChanges() throws InterruptedException {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writer = new Thread(() -> {
+      try {
+        for (int i = 0; i < 300; i++) {
+          model.addShape(new Rectangle(Color.RED, new Position2D(i, i), 5, 5, "N" + i));
+          model.addKeyFrame(new Frame(i + 1, "N" + i, new Position2D(i, i), Color.RED, 5, 5));
+          model.addKeyFrame(new Frame(i + 10, "N" + i, new Position2D(9, i), Color.RED, 5, 5));
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    Thread reader = new Thread(() -> {
+      try {
+        long last = -1;
+        ShapeState[] states = null;
+        while (writer.isAlive()) {
+          ModelSnapshot s = model.snapshot();
+          assertTrue(s.getVersion() >= last);
+          last = s.getVersion();
+          assertEquals(s.size(), s.getShapes().size());
+          states = s.evaluateAll(s.getLastTick(), states);
+          assertEquals(s.size(), states.length);
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    writer.start();
+    reader.start();
+    writer.join();
+    reader.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals(302, model.snapshot().size());
+    assertEquals(900, model.snapshot().getVersion());
+  }
+}
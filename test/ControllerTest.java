@@ -8,6 +8,7 @@ import cs3500.animator.model.motion.Motion;
 import cs3500.animator.model.shape.IShape;
 import cs3500.animator.model.shape.Position2D;
 import cs3500.animator.model.shape.Rectangle;
+import cs3500.animator.model.shape.ShapeState;
 import cs3500.animator.view.IView;
 import cs3500.animator.view.visual.draw.DrawCommand;
 import java.awt.Color;
@@ -70,6 +71,27 @@ public class ControllerTest {
       return shapes;
     }
 
+    @Override
+    public List<IShape> getDrawList() {
+      return new ArrayList<>(shapes.values());
+    }
+
+    @Override
+    public ShapeState[] evaluateAll(int ticks, ShapeState[] buffer) {
+      return new ShapeState[0];
+    }
+
+    @Override
+    public IShape shapeAt(double x, double y) {
+      return null;
+    }
+
+    @Override
+    public List<String> shapesDuring(double x, double y, double width, double height, int t1,
+        int t2) {
+      return new ArrayList<>();
+    }
+
     @Override
     public void addMotions(List<Motion> motions) {
       // method stub, not needed for the purpose of the mock
@@ -105,6 +127,11 @@ public class ControllerTest {
       return 10;
     }
 
+    @Override
+    public int getFirstTick() {
+      return 0;
+    }
+
     @Override
     public void addKeyFrame(IFrame f) {
       // method stub, not needed for the purpose of the mock
@@ -144,6 +171,26 @@ public class ControllerTest {
     public void changeShapeLayer(String name, int layer) {
       // method stub, not needed for the purpose of the mock
     }
+
+    @Override
+    public boolean canUndo() {
+      return false;
+    }
+
+    @Override
+    public boolean canRedo() {
+      return false;
+    }
+
+    @Override
+    public void undo() {
+      // method stub, not needed for the purpose of the mock
+    }
+
+    @Override
+    public void redo() {
+      // method stub, not needed for the purpose of the mock
+    }
   }
 
   /**
@@ -171,6 +218,11 @@ public class ControllerTest {
     }
 
 
+    @Override
+    public void setDrawList(List<IShape> drawList) {
+      // method stub, not needed for the purpose of the mock
+    }
+
     @Override
     public void displayOutput() {
       try {
@@ -10,6 +10,9 @@ import cs3500.animator.model.shape.Rectangle;
 import cs3500.animator.view.visual.draw.DrawEllipse;
 import cs3500.animator.view.visual.draw.DrawRectangle;
 import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -105,4 +108,20 @@ public final class DrawCommandTest {
             + "from=\"rgb(255,0,0)\" to=\"rgb(0,0,255)\" fill=\"freeze\"/>\n"
             + "</ellipse>\n", new DrawEllipse(0,0, 1).writeSVG(o1));
   }
+
+  @Test
+  public void testDrawRestoresTransform() {
+    BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    AffineTransform before = g.getTransform();
+    g.setColor(Color.RED);
+    new DrawRectangle(10, 20, 1).draw(g, 20, 30, 40, 20, 45);
+    assertEquals(before, g.getTransform());
+    new DrawEllipse(10, 20, 1).draw(g, 20, 30, 40, 20, 0);
+    assertEquals(before, g.getTransform());
+    g.dispose();
+    // the unrotated ellipse is drawn at (10, 10) after the offsets are subtracted
+    assertEquals(Color.RED.getRGB(), image.getRGB(30, 20));
+    assertEquals(0, image.getRGB(5, 5));
+  }
 }
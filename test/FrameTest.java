@@ -1,4 +1,5 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import cs3500.animator.model.frame.Frame;
 import cs3500.animator.model.frame.IFrame;
@@ -97,4 +98,27 @@ public class FrameTest {
     assertEquals("r", f1.getName());
     assertEquals("r", f2.getName());
   }
+
+  @Test
+  public void testGetPrimitives() {
+    assertEquals(2, f6.getX(), .01);
+    assertEquals(2, f6.getY(), .01);
+    assertEquals(Color.BLUE.getRGB(), f6.getRGB());
+    assertEquals(new Position2D(2, 2), f6.getPos());
+  }
+
+  @Test
+  public void testEqualsComparesEveryField() {
+    assertEquals(f2, new Frame(10, "r", new Position2D(1, 1), Color.RED, 1, 1));
+    assertEquals(f2.hashCode(),
+        new Frame(10, "r", new Position2D(1, 1), Color.RED, 1, 1).hashCode());
+    assertNotEquals(f1, f2);
+    assertNotEquals(f2, f3);
+    assertNotEquals(f2, f4);
+    assertNotEquals(f2, f6);
+    assertNotEquals(f2, new Frame(10, "s", new Position2D(1, 1), Color.RED, 1, 1));
+    // these used to be equal because only the truncated values were compared
+    assertNotEquals(f2, new Frame(10, "r", new Position2D(1, 1), Color.RED, 1, 1, 45));
+    assertNotEquals(f2, new Frame(10, "r", new Position2D(1.5, 1), Color.RED, 1, 1));
+  }
 }
@@ -0,0 +1,158 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.controller.AnimatorController;
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.raster.GIFView;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Node;
+
+/**
+ * Test the {@link GIFView} class, which writes an animation as an animated GIF.
+ */
+public class GIFViewTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Write the animation described by the given text as a GIF at the given speed.
+   */
+  private File export(String animation, int speed) {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(animation),
+        new AnimatorModelImpl.Builder());
+    File gif = new File(folder.getRoot(), "out.gif");
+    GIFView view = new GIFView();
+    view.setDestination(gif);
+    view.setOutput(new StringBuilder());
+    view.setThreads(3);
+    new AnimatorController(view, model, speed).run();
+    return gif;
+  }
+
+  /**
+   * Open a reader of the frames of the given GIF.
+   */
+  private ImageReader readerOf(File gif) throws IOException {
+    ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+    ImageInputStream in = ImageIO.createImageInputStream(gif);
+    reader.setInput(in);
+    return reader;
+  }
+
+  @Test
+  public void testWritesEveryTickInOrder() throws IOException {
+    File gif = export("canvas 100 50 40 30\n"
+        + "shape R rectangle\n"
+        + "shape E ellipse 1\n"
+        + "motion R 1 100 50 10 10 255 0 0  4 120 50 10 10 255 0 0\n"
+        + "motion E 2 110 60 20 20 0 0 255  4 110 60 20 20 0 0 255\n", 10);
+    ImageReader reader = readerOf(gif);
+    assertEquals(5, reader.getNumImages(true));
+    BufferedImage first = reader.read(0);
+    assertEquals(40, first.getWidth());
+    assertEquals(30, first.getHeight());
+    assertEquals(0xFFFFFFFF, first.getRGB(5, 5));
+    assertEquals(0xFFFF0000, reader.read(1).getRGB(5, 5));
+    BufferedImage last = reader.read(4);
+    assertEquals(0xFFFFFFFF, last.getRGB(5, 5));
+    assertEquals(0xFFFF0000, last.getRGB(25, 5));
+    assertEquals(0xFF0000FF, last.getRGB(20, 20));
+
+    // ten ticks per second is ten hundredths of a second per frame
+    Node root = reader.getImageMetadata(2).getAsTree("javax_imageio_gif_image_1.0");
+    IIOMetadataNode control = (IIOMetadataNode) ((IIOMetadataNode) root)
+        .getElementsByTagName("GraphicControlExtension").item(0);
+    assertEquals("10", control.getAttribute("delayTime"));
+    reader.dispose();
+  }
+
+  @Test
+  public void testManyColorsUseTheColorCube() throws IOException {
+    StringBuilder text = new StringBuilder("canvas 0 0 300 2\n");
+    for (int i = 0; i < 300; i++) {
+      text.append(String.format("shape S%d rectangle\n", i));
+      text.append(String.format("motion S%d 1 %d 0 1 2 %d %d 0  2 %d 0 1 2 %d %d 0\n",
+          i, i, i % 256, i / 2, i, i % 256, i / 2));
+    }
+    ImageReader reader = readerOf(export(text.toString(), 1));
+    assertEquals(3, reader.getNumImages(true));
+    BufferedImage frame = reader.read(1);
+    // every color is within half a step of the cube of its exact value
+    for (int x = 0; x < 300; x++) {
+      int rgb = frame.getRGB(x, 0);
+      assertTrue(Math.abs((rgb >> 16 & 0xFF) - x % 256) <= 26);
+      assertTrue(Math.abs((rgb >> 8 & 0xFF) - x / 2) <= 26);
+    }
+    reader.dispose();
+  }
+
+  @Test
+  public void testSimpleFrameAfterBusyFrameHasExactColors() {
+    GIFView view = new GIFView();
+    BufferedImage busy = new BufferedImage(300, 1, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < 300; x++) {
+      busy.setRGB(x, 0, x * 0x010203);
+    }
+    view.encode(0, busy);
+    // on the same thread, so the palette of the busy frame is the one kept
+    BufferedImage simple = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+    simple.setRGB(0, 0, 0x123456);
+    simple.setRGB(1, 0, 0xFFFFFF);
+    BufferedImage encoded = view.encode(1, simple);
+    assertEquals(0xFF123456, encoded.getRGB(0, 0));
+    assertEquals(0xFFFFFFFF, encoded.getRGB(1, 0));
+  }
+
+  @Test
+  public void testStreamsEachFrameToStandardOutput() throws IOException {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader("canvas 0 0 40 30\n"
+        + "shape R rectangle\n"
+        + "motion R 1 0 0 10 10 255 0 0  6 30 20 10 10 0 0 255\n"),
+        new AnimatorModelImpl.Builder());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // how much had reached standard output as each frame was written
+    List<Integer> written = new ArrayList<>();
+    GIFView view = new GIFView() {
+      @Override
+      public void accept(int tick, BufferedImage encoded) throws IOException {
+        super.accept(tick, encoded);
+        written.add(out.size());
+      }
+    };
+    view.setOutput(new StringBuilder());
+    PrintStream stdout = System.out;
+    System.setOut(new PrintStream(out));
+    try {
+      new AnimatorController(view, model, 10).run();
+    } finally {
+      System.setOut(stdout);
+    }
+    assertEquals(7, written.size());
+    for (int i = 1; i < written.size(); i++) {
+      assertTrue(written.get(i) > written.get(i - 1));
+    }
+    ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+    reader.setInput(ImageIO.createImageInputStream(new ByteArrayInputStream(out.toByteArray())));
+    assertEquals(7, reader.getNumImages(true));
+    assertEquals(0xFFFF0000, reader.read(1).getRGB(5, 5));
+    reader.dispose();
+  }
+}
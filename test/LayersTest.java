@@ -1,10 +1,16 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import cs3500.animator.model.AnimatorModel;
 import cs3500.animator.model.AnimatorModelImpl;
 import cs3500.animator.model.shape.Ellipse;
 import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.Position2D;
 import cs3500.animator.model.shape.Rectangle;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -112,4 +118,48 @@ public class LayersTest {
 
     assertEquals(2, layersModel.getShapes().get("R1").getLayer());
   }
+
+  /**
+   * Get the names of the shapes in the draw list of the model, in order.
+   */
+  private List<String> drawOrder() {
+    List<String> names = new ArrayList<>();
+    for (IShape s : layersModel.getDrawList()) {
+      names.add(s.getName());
+    }
+    return names;
+  }
+
+  @Test
+  public void testDrawListIsInLayerOrder() {
+    // in the order of the shapes on each layer, like getShapesByLayer
+    assertEquals(Arrays.asList("C0", "R1", "C2", "R2", "C3"), drawOrder());
+    assertEquals(Arrays.asList("C2", "R2"),
+        new ArrayList<>(layersModel.getShapesByLayer().get(2).keySet()));
+  }
+
+  @Test
+  public void testDrawListFollowsEdits() {
+    List<IShape> drawList = layersModel.getDrawList();
+    layersModel.changeShapeLayer("R2", 0);
+    assertEquals(Arrays.asList("C0", "R2", "R1", "C2", "C3"), drawOrder());
+    layersModel.reorder(0, 2);
+    assertEquals(Arrays.asList("C2", "R1", "C0", "R2", "C3"), drawOrder());
+    layersModel.reorder(1, 3);
+    assertEquals(Arrays.asList("C2", "C3", "C0", "R2", "R1"), drawOrder());
+    layersModel.removeShape("C0");
+    layersModel.addShape(new Rectangle(Color.RED, new Position2D(0, 0), 5, 5, "N", 0, 1));
+    assertEquals(Arrays.asList("C2", "C3", "N", "R2", "R1"), drawOrder());
+    layersModel.changeShapeLayer("C2", 5);
+    assertEquals(Arrays.asList("C3", "N", "R2", "R1", "C2"), drawOrder());
+    layersModel.undo();
+    assertEquals(Arrays.asList("C2", "C3", "N", "R2", "R1"), drawOrder());
+    // the list is the model's own, so it is the same list after every edit
+    assertSame(drawList, layersModel.getDrawList());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testDrawListCannotBeChanged() {
+    layersModel.getDrawList().remove(0);
+  }
 }
@@ -93,6 +93,15 @@ public class MockEditorView implements IInteractiveView, ActionListener {
 
   }
 
+  @Override
+  public void setDrawList(List<IShape> drawList) {
+    try {
+      out.append("Setting draw list\n");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
 
   @Override
   public void displayOutput() {
@@ -160,6 +169,15 @@ public class MockEditorView implements IInteractiveView, ActionListener {
     //stub
   }
 
+  @Override
+  public void selectShape(String name) {
+    try {
+      out.append("Selecting shape " + name + "\n");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
 
   @Override
   public void actionPerformed(ActionEvent e) {
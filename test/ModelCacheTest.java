@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.util.ModelCache;
+import cs3500.animator.view.IView;
+import cs3500.animator.view.TextView;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test the on-disk {@link ModelCache} of built models.
+ */
+public class ModelCacheTest {
+
+  private static final String ANIMATION = "canvas 200 70 360 360\n"
+      + "shape R rectangle 1\n"
+      + "shape C ellipse\n"
+      + "motion R 1 200 200 50 100 255 0 0  10 200 200 50 100 255 0 0\n"
+      + "rotate R 10 200 200 50 100 255 0 0 0  50 300 300 50 100 255 0 0 45\n"
+      + "motion C 6 440 70 120 60 0 0 255  20 440 250 120 60 0 170 85\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Build the model described by the given text.
+   *
+   * @param text the animation text
+   * @return the model
+   */
+  private AnimatorModel build(String text) {
+    return AnimationReader.parseFile(new StringReader(text), new AnimatorModelImpl.Builder());
+  }
+
+  /**
+   * Get the textual description of the model.
+   *
+   * @param model the model to describe
+   * @return the output of a text view of the model
+   */
+  private String textOf(AnimatorModel model) {
+    StringBuilder out = new StringBuilder();
+    IView view = new TextView(out);
+    int[] bounds = model.getBounds();
+    view.passBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+    view.setShapes(model.getShapes());
+    view.displayOutput();
+    return out.toString();
+  }
+
+  @Test
+  public void testKeyFollowsContents() throws IOException {
+    File a = folder.newFile("animation.txt");
+    Files.write(a.toPath(), ANIMATION.getBytes(StandardCharsets.UTF_8));
+    String key = ModelCache.keyOf(a);
+    assertEquals(64, key.length());
+    assertEquals(key, ModelCache.keyOf(a));
+    Files.write(a.toPath(), (ANIMATION + "# edited\n").getBytes(StandardCharsets.UTF_8));
+    assertNotEquals(key, ModelCache.keyOf(a));
+  }
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    File dir = folder.newFolder();
+    ModelCache cache = new ModelCache(dir, 1 << 20);
+    assertNull(cache.get("abc"));
+    AnimatorModel model = build(ANIMATION);
+    cache.put("abc", model);
+    AnimatorModel restored = cache.get("abc");
+    assertNotNull(restored);
+    assertEquals(textOf(model), textOf(restored));
+    assertEquals(45, restored.getShapes().get("R").getStateAt(50).getHeading(), 0.0001);
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+
+    // the counts carry over to the next run
+    ModelCache next = new ModelCache(dir, 1 << 20);
+    assertNotNull(next.get("abc"));
+    assertEquals(2, next.getHits());
+    assertEquals(1, next.getMisses());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws IOException {
+    File dir = folder.newFolder();
+    ModelCache cache = new ModelCache(dir, 1 << 20);
+    AnimatorModel model = build(ANIMATION);
+    cache.put("a1", model);
+    long entrySize = new File(dir, "a1.model").length();
+    cache = new ModelCache(dir, entrySize * 2);
+    cache.put("b2", model);
+    new File(dir, "a1.model").setLastModified(System.currentTimeMillis() - 60000);
+    new File(dir, "b2.model").setLastModified(System.currentTimeMillis() - 30000);
+    // using a1 makes b2 the least recently used entry
+    assertNotNull(cache.get("a1"));
+    cache.put("c3", model);
+    assertTrue(new File(dir, "a1.model").exists());
+    assertFalse(new File(dir, "b2.model").exists());
+    assertTrue(new File(dir, "c3.model").exists());
+  }
+
+  @Test
+  public void testCorruptEntryIsAMiss() throws IOException {
+    File dir = folder.newFolder();
+    ModelCache cache = new ModelCache(dir, 1 << 20);
+    Files.write(new File(dir, "dead.model").toPath(), "not a model".getBytes());
+    assertNull(cache.get("dead"));
+    assertEquals(1, cache.getMisses());
+    assertFalse(new File(dir, "dead.model").exists());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidKey() throws IOException {
+    new ModelCache(folder.newFolder(), 1 << 20).get("../escape");
+  }
+}
@@ -0,0 +1,102 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.controller.AnimatorController;
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.raster.PNGView;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import cs3500.animator.view.visual.draw.DrawEllipse;
+import cs3500.animator.view.visual.draw.DrawRectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test the {@link PNGView} class, which writes each tick of an animation as a PNG file.
+ */
+public class PNGViewTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private AnimatorModel model;
+
+  @Before
+  public void init() {
+    model = AnimationReader.parseFile(new StringReader("canvas 100 50 40 30\n"
+            + "shape R rectangle\n"
+            + "shape E ellipse 1\n"
+            + "motion R 1 100 50 10 10 255 0 0  4 120 50 10 10 255 0 0\n"
+            + "motion E 2 110 60 20 20 0 0 255  4 110 60 20 20 0 0 255\n"),
+        new AnimatorModelImpl.Builder());
+  }
+
+  /**
+   * Read the frame written for the given tick.
+   */
+  private BufferedImage frame(File dir, int tick) throws IOException {
+    return ImageIO.read(new File(dir, String.format("frame%05d.png", tick)));
+  }
+
+  @Test
+  public void testWritesEveryTick() throws IOException {
+    File dir = new File(folder.getRoot(), "frames");
+    PNGView view = new PNGView();
+    view.setDestination(dir);
+    StringBuilder report = new StringBuilder();
+    view.setOutput(report);
+    new AnimatorController(view, model, 10).run();
+
+    assertEquals(5, dir.list().length);
+    assertTrue(report.toString(), report.toString().startsWith("Rendered 5 frames in "));
+    assertTrue(report.toString(), report.toString().contains("frames per second"));
+
+    BufferedImage first = frame(dir, 0);
+    assertEquals(40, first.getWidth());
+    assertEquals(30, first.getHeight());
+    // nothing has appeared yet
+    assertEquals(0xFFFFFFFF, first.getRGB(5, 5));
+    // the rectangle appears at the corner of the bounds at t = 1
+    assertEquals(0xFFFF0000, frame(dir, 1).getRGB(5, 5));
+    // and moves right; the ellipse is drawn over it on the layer above
+    BufferedImage last = frame(dir, 4);
+    assertEquals(0xFFFFFFFF, last.getRGB(5, 5));
+    assertEquals(0xFFFF0000, last.getRGB(25, 5));
+    assertEquals(0xFF0000FF, last.getRGB(20, 20));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNothingToDraw() {
+    new PNGView().displayOutput();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnwritableDestination() throws IOException {
+    PNGView view = new PNGView();
+    view.setDestination(folder.newFile("taken"));
+    view.setOutput(new StringBuilder());
+    view.passBounds(0, 0, 10, 10);
+    Map<String, DrawCommand> commands = new HashMap<>();
+    commands.put("rectangle", new DrawRectangle(0, 0, 1));
+    commands.put("ellipse", new DrawEllipse(0, 0, 1));
+    view.setCommands(commands);
+    view.setScene(new CompiledScene(model), 2, 1);
+    view.displayOutput();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testNoShapes() {
+    new PNGView().setShapes(model.getShapes());
+  }
+}
@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.raster.FrameSink;
+import cs3500.animator.view.raster.ParallelFrameExporter;
+import cs3500.animator.view.raster.SceneRasterizer;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import cs3500.animator.view.visual.draw.DrawEllipse;
+import cs3500.animator.view.visual.draw.DrawRectangle;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link ParallelFrameExporter} class, which draws frames on several threads and sends
+ * them to a {@link FrameSink} in order.
+ */
+public class ParallelFrameExporterTest {
+
+  private CompiledScene scene;
+  private Map<String, DrawCommand> commands;
+
+  @Before
+  public void init() {
+    StringBuilder text = new StringBuilder("canvas 0 0 60 40\n");
+    for (int i = 0; i < 20; i++) {
+      text.append(String.format("shape S%d %s %d\n", i, i % 2 == 0 ? "rectangle" : "ellipse",
+          i % 3));
+      text.append(String.format("rotate S%d %d %d %d 10 10 %d 0 0 0  %d %d %d 15 5 0 %d 0 45\n",
+          i, i + 1, i, i, i * 10, i + 60, 40 - i, 30 - i, i * 10));
+    }
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(text.toString()),
+        new AnimatorModelImpl.Builder());
+    scene = new CompiledScene(model);
+    commands = new HashMap<>();
+    commands.put("rectangle", new DrawRectangle(0, 0, 1));
+    commands.put("ellipse", new DrawEllipse(0, 0, 1));
+  }
+
+  /**
+   * A sink that copies the pixels of each frame and records them in the order they are
+   * accepted, and whether two frames were ever accepted at once.
+   */
+  private static class RecordingSink implements FrameSink<int[]> {
+
+    private final List<Integer> ticks = new ArrayList<>();
+    private final List<int[]> frames = new ArrayList<>();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile boolean overlapped;
+
+    @Override
+    public int[] encode(int tick, BufferedImage frame) {
+      return frame.getRGB(0, 0, frame.getWidth(), frame.getHeight(), null, 0, frame.getWidth());
+    }
+
+    @Override
+    public void accept(int tick, int[] encoded) {
+      if (!busy.compareAndSet(false, true)) {
+        overlapped = true;
+      }
+      ticks.add(tick);
+      frames.add(encoded);
+      busy.set(false);
+    }
+  }
+
+  @Test
+  public void testFramesArriveInOrderAndMatchSequentialDrawing() throws IOException {
+    RecordingSink sink = new RecordingSink();
+    new ParallelFrameExporter(scene, 60, 40, commands, Color.WHITE, 4).export(0, 80, sink);
+    assertFalse(sink.overlapped);
+    assertEquals(81, sink.ticks.size());
+    SceneRasterizer sequential = new SceneRasterizer(scene.copy(), 60, 40, commands,
+        Color.WHITE);
+    for (int t = 0; t <= 80; t++) {
+      assertEquals(t, (int) sink.ticks.get(t));
+      BufferedImage expected = sequential.render(t);
+      assertArrayEquals("tick " + t,
+          expected.getRGB(0, 0, 60, 40, null, 0, 60), sink.frames.get(t));
+    }
+  }
+
+  @Test
+  public void testMoreThreadsThanTicks() throws IOException {
+    RecordingSink sink = new RecordingSink();
+    new ParallelFrameExporter(scene, 60, 40, commands, Color.WHITE, 8).export(5, 7, sink);
+    assertEquals(3, sink.ticks.size());
+    assertEquals(5, (int) sink.ticks.get(0));
+    assertEquals(7, (int) sink.ticks.get(2));
+  }
+
+  @Test
+  public void testFailureStopsTheExport() {
+    RecordingSink sink = new RecordingSink() {
+      @Override
+      public int[] encode(int tick, BufferedImage frame) {
+        if (tick == 30) {
+          throw new IllegalStateException("no room");
+        }
+        return super.encode(tick, frame);
+      }
+    };
+    try {
+      new ParallelFrameExporter(scene, 60, 40, commands, Color.WHITE, 3).export(0, 80, sink);
+      fail("Export should have failed");
+    } catch (IllegalStateException | IOException e) {
+      assertEquals("no room", e.getMessage());
+    }
+    // frames after the one that failed are never accepted
+    for (int tick : sink.ticks) {
+      assertTrue(tick < 30);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBackwardsRange() throws IOException {
+    new ParallelFrameExporter(scene, 60, 40, commands, Color.WHITE, 2)
+        .export(5, 4, new RecordingSink());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreads() {
+    new ParallelFrameExporter(scene, 60, 40, commands, Color.WHITE, 0);
+  }
+}
@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.model.shape.Position2D;
+import cs3500.animator.model.shape.Rectangle;
+import cs3500.animator.model.shape.ShapeBounds;
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import org.junit.Test;
+
+/**
+ * Test the bounds of rotated shapes computed by {@link ShapeBounds}.
+ */
+public class ShapeBoundsTest {
+
+  @Test
+  public void testLevelBounds() {
+    assertEquals(25, ShapeBounds.halfWidth(50, 100, 0), 1e-9);
+    assertEquals(50, ShapeBounds.halfHeight(50, 100, 0), 1e-9);
+  }
+
+  @Test
+  public void testRotatedBounds() {
+    assertEquals(50, ShapeBounds.halfWidth(50, 100, 90), 1e-9);
+    assertEquals(25, ShapeBounds.halfHeight(50, 100, 90), 1e-9);
+    double diagonal = 75 / Math.sqrt(2);
+    assertEquals(diagonal, ShapeBounds.halfWidth(50, 100, 45), 1e-9);
+    assertEquals(diagonal, ShapeBounds.halfHeight(50, 100, -45), 1e-9);
+  }
+
+  @Test
+  public void testContains() {
+    // a 50 by 100 box centered on (25, 50)
+    assertTrue(ShapeBounds.contains(0, 0, 50, 100, 0, 1, 1));
+    assertTrue(ShapeBounds.contains(0, 0, 50, 100, 0, 50, 100));
+    assertFalse(ShapeBounds.contains(0, 0, 50, 100, 0, 51, 50));
+    // turned a quarter, it is 100 wide and 50 tall about the same center
+    assertFalse(ShapeBounds.contains(0, 0, 50, 100, 90, 1, 1));
+    assertTrue(ShapeBounds.contains(0, 0, 50, 100, 90, -20, 50));
+    assertFalse(ShapeBounds.contains(0, 0, 50, 100, 90, 25, 80));
+  }
+
+  @Test
+  public void testContainsFollowsDirectionOfRotation() {
+    // turned counterclockwise on screen, the top of a tall thin box leans to the left
+    assertTrue(ShapeBounds.contains(0, 0, 2, 100, 45, -10, 40));
+    assertFalse(ShapeBounds.contains(0, 0, 2, 100, 45, 12, 40));
+    assertTrue(ShapeBounds.contains(0, 0, 2, 100, -45, 12, 40));
+  }
+
+  @Test
+  public void testOfShape() {
+    IShape s = new Rectangle(Color.RED, new Position2D(10, 20), 50, 100, "r");
+    assertEquals(new Rectangle2D.Double(10, 20, 50, 100), ShapeBounds.of(s));
+    s.setHeading(90);
+    Rectangle2D b = ShapeBounds.of(s);
+    assertEquals(-15, b.getX(), 1e-9);
+    assertEquals(45, b.getY(), 1e-9);
+    assertEquals(100, b.getWidth(), 1e-9);
+    assertEquals(50, b.getHeight(), 1e-9);
+  }
+}
@@ -1,5 +1,8 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import cs3500.animator.model.AnimatorModel;
@@ -15,6 +18,7 @@ import cs3500.animator.model.shape.IShape;
 import cs3500.animator.model.shape.Position2D;
 import cs3500.animator.model.shape.Rectangle;
 import cs3500.animator.model.shape.Shape;
+import cs3500.animator.model.shape.ShapeState;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -752,4 +756,115 @@ public final class ShapeTest {
   public void testInvalidLayerError() {
     IShape r1 = new Rectangle("R1", -4);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetStateAtManyKeyFrames() {
+    List<IFrame> frames = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      frames.add(new Frame(i * 3 + 1, "R", new Position2D(i, 2 * i), Color.RED, 10, 10));
+    }
+    redR.setKeyFrames(frames);
+    // between key frames the state of the shape is that of the preceding key frame
+    assertEquals(new Position2D(5000, 10000), redR.getStateAt(15002).getPosition());
+    assertEquals(new Position2D(5000, 10000), redR.getStateAt(15001).getPosition());
+    assertEquals(new Position2D(0, 0), redR.getStateAt(3).getPosition());
+    assertEquals(new Position2D(19999, 39998), redR.getStateAt(59998).getPosition());
+  }
+
+  @Test
+  public void testCopyIsIndependentOfOriginal() {
+    redR.addKeyFrame(new Frame(1, "R", new Position2D(1, 1), Color.BLUE, 100, 100));
+    redR.addKeyFrame(new Frame(10, "R", new Position2D(5, 5), Color.BLUE, 100, 100));
+    IShape copy = redR.copy();
+    redR.addKeyFrame(new Frame(20, "R", new Position2D(9, 9), Color.BLUE, 100, 100));
+    redR.removeKeyFrame(1);
+    assertEquals(2, copy.getKeyFrames().size());
+    assertEquals(1, copy.getMotionsList().size());
+    assertEquals(new Position2D(1, 1), copy.getStateAt(5).getPosition());
+    copy.addKeyFrame(new Frame(30, "R", new Position2D(0, 0), Color.BLUE, 100, 100));
+    assertEquals(2, redR.getKeyFrames().size());
+    assertEquals(10, redR.getKeyFrames().get(0).getTime());
+    assertEquals(3, copy.getKeyFrames().size());
+  }
+
+  @Test
+  public void testMayIntersectUsesSweptBoxes() {
+    List<IFrame> frames = new ArrayList<>();
+    frames.add(new Frame(0, "R", new Position2D(0, 0), Color.RED, 10, 10, 0));
+    frames.add(new Frame(10, "R", new Position2D(100, 0), Color.RED, 10, 10, 0));
+    frames.add(new Frame(20, "R", new Position2D(100, 100), Color.RED, 10, 10, 90));
+    redR.setKeyFrames(frames);
+    // it passes through the middle of the top edge in the first segment only
+    assertTrue(redR.mayIntersect(45, 0, 55, 10, 0, 10));
+    assertTrue(redR.mayIntersect(45, 0, 55, 10, 4, 6));
+    assertFalse(redR.mayIntersect(45, 0, 55, 10, 11, 20));
+    // the turning segment is bounded by the circle around the square, not the square
+    assertTrue(redR.mayIntersect(111, 50, 112, 51, 15, 15));
+    assertFalse(redR.mayIntersect(113, 50, 114, 51, 0, 20));
+    // nothing is ever there, or the shape is hidden then
+    assertFalse(redR.mayIntersect(0, 50, 10, 60, 0, 20));
+    assertFalse(redR.mayIntersect(0, 0, 10, 10, 21, 30));
+    assertFalse(redR.mayIntersect(0, 0, 10, 10, -10, -1));
+    assertTrue(redR.mayIntersect(0, 0, 10, 10, -10, 0));
+  }
+
+  @Test
+  public void testMayIntersectWithoutKeyFrames() {
+    assertFalse(redR.mayIntersect(-1000, -1000, 1000, 1000, 0, 1000));
+  }
+
+  @Test
+  public void testEvaluateMatchesMotions() {
+    List<IFrame> frames = new ArrayList<>();
+    frames.add(new Frame(2, "R", new Position2D(0, 10), new Color(255, 0, 7), 10, 30, 0));
+    frames.add(new Frame(9, "R", new Position2D(13, -4), new Color(3, 200, 100), 25, 30, 45));
+    frames.add(new Frame(16, "R", new Position2D(13, -4), new Color(3, 200, 100), 25, 30, 45));
+    frames.add(new Frame(40, "R", new Position2D(-7, 1), new Color(90, 91, 92), 4, 77, -10));
+    redR.setKeyFrames(frames);
+    ShapeState state = new ShapeState();
+    for (int t = 0; t <= 45; t++) {
+      IShape expected = redR.copy();
+      IFrame before = frames.get(0);
+      for (IFrame f : frames) {
+        if (f.getTime() <= t) {
+          before = f;
+        }
+      }
+      before.apply(expected);
+      for (Motion m : redR.getMotionsList()) {
+        if (m.getStart() == before.getTime() && t > m.getStart()) {
+          m.apply(expected, t);
+        }
+      }
+      assertSame(state, redR.evaluate(t, state));
+      assertEquals(expected.getPosition().getX(), state.getX(), 0);
+      assertEquals(expected.getPosition().getY(), state.getY(), 0);
+      assertEquals(expected.getWidth(), state.getWidth(), 0);
+      assertEquals(expected.getHeight(), state.getHeight(), 0);
+      assertEquals(expected.getHeading(), state.getHeading(), 0);
+      assertEquals(expected.getColor().getRGB(), state.getRGB());
+      assertEquals(t >= 2 && t <= 40, state.isVisible());
+      assertEquals("R", state.getName());
+    }
+  }
+
+  @Test
+  public void testEvaluateDoesNotChangeShape() {
+    redR.addKeyFrame(new Frame(1, "R", new Position2D(0, 0), Color.BLUE, 100, 100));
+    redR.addKeyFrame(new Frame(11, "R", new Position2D(10, 20), Color.BLUE, 100, 100));
+    ShapeState state = redR.evaluate(6, new ShapeState());
+    assertEquals(5, state.getX(), 0.0001);
+    assertEquals(10, state.getY(), 0.0001);
+    assertEquals(new Position2D(0, 0), redR.getPosition());
+    assertEquals(2, redR.getKeyFrames().size());
+  }
+
+  @Test
+  public void testCopiesKeepTheId() {
+    IShape s = new Rectangle("R");
+    assertEquals(-1, s.getId());
+    s.setId(7);
+    assertEquals(7, s.copy().getId());
+    assertEquals(7, new Ellipse(s).getId());
+  }
+}
@@ -0,0 +1,169 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.frame.Frame;
+import cs3500.animator.model.frame.IFrame;
+import cs3500.animator.model.shape.Position2D;
+import cs3500.animator.model.shape.Rectangle;
+import cs3500.animator.util.AnimationReader;
+import java.awt.Color;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test undoing and redoing edits to an {@link AnimatorModelImpl}.
+ */
+public class UndoRedoTest {
+
+  private static final String ANIMATION = "canvas 0 0 200 200\n"
+      + "shape A rectangle\n"
+      + "shape B ellipse 1\n"
+      + "shape C rectangle 1\n"
+      + "motion A 1 10 10 50 100 255 0 0  10 20 20 50 100 255 0 0\n"
+      + "motion B 5 100 50 20 20 0 0 255  30 100 150 20 20 0 170 85\n"
+      + "motion C 2 0 0 5 5 0 0 0  20 0 0 5 5 0 0 0\n";
+
+  private AnimatorModel model;
+
+  @Before
+  public void init() {
+    model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+  }
+
+  /**
+   * Get the names of the shapes on each layer of the model.
+   */
+  private List<List<String>> layers() {
+    List<List<String>> names = new ArrayList<>();
+    model.getShapesByLayer().forEach(layer -> names.add(new ArrayList<>(layer.keySet())));
+    return names;
+  }
+
+  @Test
+  public void testNothingToUndoAfterBuilding() {
+    assertFalse(model.canUndo());
+    assertFalse(model.canRedo());
+  }
+
+  @Test(timeout = 5000)
+  public void testBuildingRecordsNoEdits() {
+    // recording each shape added while building takes time in proportion to the shapes so far
+    AnimatorModelImpl.Builder builder = new AnimatorModelImpl.Builder();
+    builder.setBounds(0, 0, 100, 100);
+    for (int i = 0; i < 20000; i++) {
+      builder.declareShape("S" + i, "rectangle", i % 5);
+      builder.addMotion("S" + i, 1, i, 0, 10, 10, 0, 0, 0, 0, 10, i, 5, 10, 10, 0, 0, 0, 0);
+    }
+    AnimatorModel built = builder.build();
+    assertEquals(20000, built.getShapes().size());
+    assertFalse(built.canUndo());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUndoWithoutEdits() {
+    model.undo();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRedoWithoutUndo() {
+    model.addLayer(3);
+    model.redo();
+  }
+
+  @Test
+  public void testUndoAndRedoKeyframe() {
+    List<IFrame> before = model.getShapes().get("B").getKeyFrames();
+    model.addKeyFrame(new Frame(60, "B", new Position2D(0, 0), Color.RED, 20, 20));
+    List<IFrame> after = model.getShapes().get("B").getKeyFrames();
+    assertEquals(60, model.getLastTick());
+    assertTrue(model.canUndo());
+    model.undo();
+    assertEquals(before, model.getShapes().get("B").getKeyFrames());
+    assertEquals(30, model.getLastTick());
+    assertFalse(model.canUndo());
+    assertTrue(model.canRedo());
+    model.redo();
+    assertEquals(after, model.getShapes().get("B").getKeyFrames());
+    assertEquals(60, model.getLastTick());
+  }
+
+  @Test
+  public void testUndoRemoveShapeKeepsOrder() {
+    List<List<String>> layers = layers();
+    model.removeShape("B");
+    assertEquals(Arrays.asList("A", "C"), new ArrayList<>(model.getShapes().keySet()));
+    model.undo();
+    assertEquals(Arrays.asList("A", "B", "C"), new ArrayList<>(model.getShapes().keySet()));
+    assertEquals(layers, layers());
+    assertEquals(30, model.getLastTick());
+  }
+
+  @Test
+  public void testUndoAddShape() {
+    model.addShape(new Rectangle(Color.RED, new Position2D(0, 0), 5, 5, "N"));
+    model.addKeyFrame(new Frame(1, "N", new Position2D(0, 0), Color.RED, 5, 5));
+    model.addKeyFrame(new Frame(90, "N", new Position2D(9, 9), Color.RED, 5, 5));
+    assertEquals(90, model.getLastTick());
+    model.undo();
+    model.undo();
+    model.undo();
+    assertEquals(Arrays.asList("A", "B", "C"), new ArrayList<>(model.getShapes().keySet()));
+    assertEquals(30, model.getLastTick());
+    model.redo();
+    assertTrue(model.getShapes().containsKey("N"));
+    assertEquals(Arrays.asList("N"), layers().get(0).subList(1, 2));
+  }
+
+  @Test
+  public void testUndoLayerChanges() {
+    List<List<String>> layers = layers();
+    model.changeShapeLayer("A", 3);
+    assertEquals(4, layers().size());
+    assertEquals(3, model.getShapes().get("A").getLayer());
+    model.undo();
+    assertEquals(layers, layers());
+    assertEquals(0, model.getShapes().get("A").getLayer());
+    model.reorder(0, 1);
+    assertEquals(1, model.getShapes().get("A").getLayer());
+    model.undo();
+    assertEquals(0, model.getShapes().get("A").getLayer());
+    assertEquals(1, model.getShapes().get("C").getLayer());
+    assertEquals(layers, layers());
+  }
+
+  @Test
+  public void testDeleteLayerIsOneEdit() {
+    model.deleteLayer(1);
+    assertEquals(Arrays.asList("A"), new ArrayList<>(model.getShapes().keySet()));
+    model.undo();
+    assertEquals(Arrays.asList("A", "B", "C"), new ArrayList<>(model.getShapes().keySet()));
+    assertFalse(model.canUndo());
+  }
+
+  @Test
+  public void testNewEditClearsRedo() {
+    model.removeShape("A");
+    model.undo();
+    assertTrue(model.canRedo());
+    model.removeShape("C");
+    assertFalse(model.canRedo());
+  }
+
+  @Test
+  public void testFailedEditIsNotRecorded() {
+    try {
+      model.removeShape("X");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertFalse(model.canUndo());
+  }
+}
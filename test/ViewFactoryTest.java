@@ -4,6 +4,7 @@ import static org.junit.Assert.assertTrue;
 import cs3500.animator.view.SVGView;
 import cs3500.animator.view.TextView;
 import cs3500.animator.view.ViewFactory;
+import cs3500.animator.view.raster.PNGView;
 import cs3500.animator.view.visual.VisualView;
 import org.junit.Test;
 
@@ -18,6 +19,7 @@ public class ViewFactoryTest {
     assertTrue(ViewFactory.setView("svg") instanceof SVGView);
     assertTrue(ViewFactory.setView("visual") instanceof VisualView);
     assertTrue(ViewFactory.setView("text") instanceof TextView);
+    assertTrue(ViewFactory.setView("png") instanceof PNGView);
   }
 
   @Test
@@ -0,0 +1,305 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimatorModel;
+import cs3500.animator.model.AnimatorModelImpl;
+import cs3500.animator.model.CompiledScene;
+import cs3500.animator.model.shape.IShape;
+import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.visual.VisualViewPanel;
+import cs3500.animator.view.visual.draw.DrawCommand;
+import cs3500.animator.view.visual.draw.DrawEllipse;
+import cs3500.animator.view.visual.draw.DrawRectangle;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test that a {@link VisualViewPanel} repaints only the parts of itself where shapes changed, and
+ * draws the layers that have not changed from images.
+ */
+public class VisualViewPanelTest {
+
+  private static final String ANIMATION = "canvas 100 50 400 400\n"
+      + "shape still rectangle\n"
+      + "shape mover ellipse 1\n"
+      + "shape spinner rectangle 1\n"
+      + "motion still 1 300 300 50 50 0 0 255  20 300 300 50 50 0 0 255\n"
+      + "motion mover 1 110 60 10 10 255 0 0  10 110 60 10 10 255 0 0\n"
+      + "motion mover 10 110 60 10 10 255 0 0  20 200 60 10 10 255 0 0\n"
+      + "rotate spinner 1 400 100 40 20 0 255 0 0  10 400 100 40 20 0 255 0 0\n"
+      + "rotate spinner 10 400 100 40 20 0 255 0 0  20 400 100 40 20 0 255 0 90\n";
+
+  private CompiledScene scene;
+  private VisualViewPanel panel;
+
+  @Before
+  public void init() {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    scene = new CompiledScene(model);
+    Map<String, DrawCommand> commands = new HashMap<>();
+    commands.put("rectangle", new DrawRectangle(100, 50, 1));
+    commands.put("ellipse", new DrawEllipse(100, 50, 1));
+    panel = new VisualViewPanel();
+    panel.setSize(400, 400);
+    panel.setCommands(commands);
+    panel.setOrigin(100, 50);
+    panel.setScene(scene);
+  }
+
+  @Test
+  public void testFirstRepaintIsWholePanel() {
+    scene.update(1);
+    assertEquals(new Rectangle(0, 0, 400, 400), panel.repaintChanges());
+  }
+
+  @Test
+  public void testNothingChangedRepaintsNothing() {
+    scene.update(2);
+    panel.repaintChanges();
+    // every shape holds still until tick 10
+    scene.update(5);
+    assertNull(panel.repaintChanges());
+    scene.update(5);
+    assertNull(panel.repaintChanges());
+  }
+
+  @Test
+  public void testRepaintsOldAndNewBoxesOfMovingShape() {
+    scene.update(10);
+    panel.repaintChanges();
+    scene.update(11);
+    Rectangle region = panel.repaintChanges();
+    // the mover was at x 10 to 20 and is now at 19 to 29 in the panel, y 10 to 20
+    assertTrue(region.contains(new Rectangle(10, 10, 19, 10)));
+    // the still shape, at 200 to 250 in both directions, is left alone
+    assertTrue(region.y + region.height <= 250 || region.x + region.width <= 200);
+  }
+
+  @Test
+  public void testRotationWidensRegion() {
+    scene.update(10);
+    panel.repaintChanges();
+    scene.update(15);
+    Rectangle region = panel.repaintChanges();
+    // turned 45 degrees, the 40 by 20 spinner centered at 320, 60 covers about 42 by 42
+    assertTrue(region.contains(new Rectangle(300, 40, 40, 40)));
+    assertTrue(region.contains(new Rectangle(10, 10, 10, 10)));
+  }
+
+  @Test
+  public void testNewSceneRepaintsWholePanel() {
+    scene.update(3);
+    panel.repaintChanges();
+    panel.setScene(scene);
+    assertEquals(new Rectangle(0, 0, 400, 400), panel.repaintChanges());
+    assertNull(panel.repaintChanges());
+  }
+
+  @Test
+  public void testShapeListRepaintsChanges() {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    panel.setScene(null);
+    panel.setShapes(model.getDrawList());
+    for (int t = 0; t <= 5; t++) {
+      model.update(t);
+    }
+    panel.repaintChanges();
+    model.update(6);
+    assertNull(panel.repaintChanges());
+    for (int t = 7; t <= 12; t++) {
+      model.update(t);
+    }
+    Rectangle region = panel.repaintChanges();
+    assertTrue(region.contains(new Rectangle(10, 10, 10, 10)));
+  }
+
+  /**
+   * A draw command that counts how many shapes it has drawn.
+   */
+  private static class CountingCommand implements DrawCommand {
+
+    private final DrawCommand cmd;
+    private int drawn;
+
+    CountingCommand(DrawCommand cmd) {
+      this.cmd = cmd;
+    }
+
+    @Override
+    public void draw(IShape s, Graphics2D g) {
+      drawn++;
+      cmd.draw(s, g);
+    }
+
+    @Override
+    public void draw(Graphics2D g, double x, double y, double w, double h, double heading) {
+      drawn++;
+      cmd.draw(g, x, y, w, h, heading);
+    }
+
+    @Override
+    public String writeSVG(IShape s) {
+      return cmd.writeSVG(s);
+    }
+  }
+
+  /**
+   * Paint the panel onto a new image.
+   *
+   * @return the image
+   */
+  private BufferedImage paint() {
+    BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    panel.paint(g);
+    g.dispose();
+    return image;
+  }
+
+  /**
+   * Paint a fresh panel showing the scene at the given tick, without any cached layers.
+   *
+   * @param tick the tick
+   * @return the image
+   */
+  private BufferedImage paintFresh(int tick) {
+    CompiledScene fresh = scene.copy();
+    fresh.update(tick);
+    VisualViewPanel other = panel;
+    panel = new VisualViewPanel();
+    panel.setSize(400, 400);
+    Map<String, DrawCommand> commands = new HashMap<>();
+    commands.put("rectangle", new DrawRectangle(100, 50, 1));
+    commands.put("ellipse", new DrawEllipse(100, 50, 1));
+    panel.setCommands(commands);
+    panel.setOrigin(100, 50);
+    panel.setScene(fresh);
+    BufferedImage image = paint();
+    panel = other;
+    return image;
+  }
+
+  @Test
+  public void testStillLayersAreDrawnFromCache() {
+    CountingCommand rectangles = new CountingCommand(new DrawRectangle(100, 50, 1));
+    CountingCommand ellipses = new CountingCommand(new DrawEllipse(100, 50, 1));
+    Map<String, DrawCommand> commands = new HashMap<>();
+    commands.put("rectangle", rectangles);
+    commands.put("ellipse", ellipses);
+    panel.setCommands(commands);
+    scene.update(2);
+    // the first paint draws every shape, and the second caches the layers that held still
+    paint();
+    paint();
+    rectangles.drawn = 0;
+    ellipses.drawn = 0;
+    scene.update(5);
+    paint();
+    assertEquals(0, rectangles.drawn);
+    assertEquals(0, ellipses.drawn);
+    // the mover and the spinner on layer 1 move, the still shape on layer 0 does not
+    scene.update(12);
+    paint();
+    assertEquals(1, rectangles.drawn);
+    assertEquals(1, ellipses.drawn);
+  }
+
+  @Test
+  public void testChangedLayersDrawOnlyShapesInClip() {
+    CountingCommand rectangles = new CountingCommand(new DrawRectangle(100, 50, 1));
+    CountingCommand ellipses = new CountingCommand(new DrawEllipse(100, 50, 1));
+    Map<String, DrawCommand> commands = new HashMap<>();
+    commands.put("rectangle", rectangles);
+    commands.put("ellipse", ellipses);
+    panel.setCommands(commands);
+    scene.update(10);
+    // the second paint caches the still shape, which is outside the clip anyway
+    paint();
+    paint();
+    scene.update(12);
+    rectangles.drawn = 0;
+    ellipses.drawn = 0;
+    // only the spinner, centered at 320, 60 in the panel, is in the clip
+    BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    g.setClip(280, 20, 80, 80);
+    panel.paint(g);
+    g.dispose();
+    assertEquals(1, rectangles.drawn);
+    assertEquals(0, ellipses.drawn);
+  }
+
+  @Test
+  public void testCachedLayersLookTheSame() {
+    for (int t : new int[]{1, 2, 3, 10, 11, 15, 15, 15, 20, 25}) {
+      scene.update(t);
+      BufferedImage cached = paint();
+      BufferedImage fresh = paintFresh(t);
+      for (int x = 0; x < 400; x += 3) {
+        for (int y = 0; y < 400; y += 3) {
+          assertEquals("at tick " + t, fresh.getRGB(x, y), cached.getRGB(x, y));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testChangeSeenByPaintIsStillRepainted() {
+    scene.update(10);
+    panel.repaintChanges();
+    paint();
+    paint();
+    scene.update(11);
+    // a paint of the whole panel comes first, as when the window is uncovered
+    paint();
+    Rectangle region = panel.repaintChanges();
+    assertTrue(region.contains(new Rectangle(10, 10, 19, 10)));
+  }
+
+  @Test
+  public void testChangeSeenByRepaintIsNotDrawnFromCache() {
+    scene.update(2);
+    paint();
+    paint();
+    panel.repaintChanges();
+    scene.update(12);
+    panel.repaintChanges();
+    BufferedImage cached = paint();
+    BufferedImage fresh = paintFresh(12);
+    for (int x = 0; x < 400; x += 3) {
+      for (int y = 0; y < 400; y += 3) {
+        assertEquals(fresh.getRGB(x, y), cached.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testEditedLayerIsDrawnAgain() {
+    AnimatorModel model = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    panel.setScene(null);
+    panel.setShapes(model.getDrawList());
+    model.update(0);
+    model.update(1);
+    paint();
+    paint();
+    assertEquals(0xFF0000FF, paint().getRGB(210, 260));
+    // recolor the still shape, as the editor would
+    for (IShape s : model.getDrawList()) {
+      if (s.getName().equals("still")) {
+        s.setRGB(0xFFFF00);
+      }
+    }
+    assertEquals(0xFFFFFF00, paint().getRGB(210, 260));
+    assertEquals(0xFFFFFF00, paint().getRGB(210, 260));
+  }
+}